@@ -1,15 +1,15 @@
 package org.sidoh.words_with_robots;
 
-import org.sidoh.words_with_robots.data_structures.gaddag.GadDag;
+import org.sidoh.words_with_robots.data_structures.gaddag.TraversableGadDag;
+import org.sidoh.words_with_robots.util.dictionary.DictionaryHelper;
 import org.sidoh.words_with_robots.util.io.StdinPrompts;
 
-import java.io.FileReader;
+import java.io.File;
 import java.io.IOException;
 
 public class GadDagQuery {
   public static void main(String[] args) throws IOException {
-    GadDag gaddag = new GadDag();
-    gaddag.loadDictionary(new FileReader(args[0]));
+    TraversableGadDag gaddag = DictionaryHelper.loadGadDag(new File(args[0]));
 
     while (true) {
       String line = StdinPrompts.promptForLine("enter word").toUpperCase();
@@ -4,7 +4,6 @@ import com.google.common.base.Joiner;
 import org.apache.thrift.TException;
 import org.apache.thrift.TSerializer;
 import org.apache.thrift.protocol.TJSONProtocol;
-import org.sidoh.words_with_robots.data_structures.gaddag.GadDag;
 import org.sidoh.words_with_robots.move_generation.GadDagWwfMoveGenerator;
 import org.sidoh.words_with_robots.move_generation.GameStateMoveGenerator;
 import org.sidoh.words_with_robots.move_generation.IterativeDeepeningMoveGenerator;
@@ -13,6 +12,7 @@ import org.sidoh.words_with_robots.move_generation.context.WwfMoveGeneratorRetur
 import org.sidoh.words_with_robots.move_generation.eval.EvaluationFunction;
 import org.sidoh.words_with_robots.move_generation.eval.ScoreEvalFunction;
 import org.sidoh.words_with_robots.move_generation.eval.SummingEvalFunction;
+import org.sidoh.words_with_robots.util.dictionary.DictionaryHelper;
 import org.sidoh.words_with_robots.util.io.StatePrinter;
 import org.sidoh.words_with_robots.util.io.StdinPrompts;
 import org.sidoh.wwf_api.AccessTokenRetriever;
@@ -29,11 +29,8 @@ import org.sidoh.wwf_api.types.api.MoveType;
 import org.sidoh.wwf_api.types.api.User;
 import org.sidoh.wwf_api.types.game_state.Rack;
 
-import java.io.FileReader;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
 import java.io.StringWriter;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
@@ -41,15 +38,11 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.zip.GZIPInputStream;
 
 public class WwfConsole {
   static String authToken;
-  static final GadDag gaddag = new GadDag();
-  static final WordsWithFriendsAllMovesGenerator allMovesGen
-    = new GadDagWwfMoveGenerator(gaddag);
-  static GameStateMoveGenerator<? extends WwfMoveGeneratorReturnContext> generator
-    = new IterativeDeepeningMoveGenerator(allMovesGen);
+  static WordsWithFriendsAllMovesGenerator allMovesGen;
+  static GameStateMoveGenerator<? extends WwfMoveGeneratorReturnContext> generator;
   static StatefulApiProvider api;
   static final GameStateHelper stateHelper = GameStateHelper.getInstance();
   static final StatePrinter statePrinter = StatePrinter.getInstance();
@@ -277,8 +270,6 @@ public class WwfConsole {
   }
 
   public static void main(String[] args) throws IOException {
-    Reader dictionary;
-
     if ( args.length == 0 ) {
       authToken = new AccessTokenRetriever().promptForAccessToken();
     }
@@ -286,15 +277,14 @@ public class WwfConsole {
       authToken = args[0];
     }
 
+    // The dictionary can either be a word list or a GADDAG image
     if ( args.length > 1 ) {
-      dictionary = new FileReader(args[1]);
+      allMovesGen = new GadDagWwfMoveGenerator(DictionaryHelper.loadGadDag(new File(args[1])));
     }
     else {
-      InputStream resource = ClassLoader.getSystemResourceAsStream("wwf-dictionary.gz");
-      resource = new GZIPInputStream(resource);
-      dictionary = new InputStreamReader(resource);
+      allMovesGen = new GadDagWwfMoveGenerator(DictionaryHelper.loadGadDag());
     }
-    gaddag.loadDictionary(dictionary);
+    generator = new IterativeDeepeningMoveGenerator(allMovesGen);
     api = new StatefulApiProvider(authToken);
 
     while (true) {
@@ -22,6 +22,14 @@ public class BitFieldLetterSet implements LetterSet{
     return ((letterBitField >> getLetterPosition(letter)) & 1) == 1;
   }
 
+  /**
+   * @param letter
+   * @return the number of letters in this set that come before the provided letter
+   */
+  public int rank(char letter) {
+    return Integer.bitCount(letterBitField & ((1 << getLetterPosition(letter)) - 1));
+  }
+
   protected int getLetterPosition(char letter) {
     return Character.toUpperCase(letter) - 0x41;
   }
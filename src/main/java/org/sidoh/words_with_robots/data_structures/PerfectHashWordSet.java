@@ -0,0 +1,294 @@
+package org.sidoh.words_with_robots.data_structures;
+
+import com.google.common.collect.Sets;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * An immutable set of words for checking whether a word is in the dictionary. Words are placed with
+ * a minimal perfect hash function built with hash-and-displace (Belazzougui et al.): words are
+ * hashed into small buckets, and each bucket gets a displacement that sends its words to distinct
+ * free slots. Buckets with a single word point straight at a free slot. A lookup hashes the word once,
+ * reads one displacement and compares against the single word stored in the slot it leads to.
+ *
+ * Words are stored one byte per letter in slot order, so the whole set is a few flat arrays.
+ */
+public class PerfectHashWordSet {
+  private static final Logger LOG = LoggerFactory.getLogger(PerfectHashWordSet.class);
+
+  /**
+   * Average number of words per bucket. Larger buckets mean fewer displacements to store, but take
+   * longer to place.
+   */
+  private static final int BUCKET_SIZE = 4;
+
+  /**
+   * Give up on a salt if a bucket can't be placed after this many displacements. This only happens
+   * when two words have the same 64-bit hash.
+   */
+  private static final int MAX_DISPLACEMENT = 1 << 24;
+
+  private static final long FNV_PRIME = 0x100000001B3L;
+  private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+  private final long salt;
+  private final int numWords;
+
+  // Displacement for each bucket. Negative values point directly at the slot -(value + 1).
+  private final int[] displacements;
+
+  // Word in each slot is letters[offsets[slot]] through letters[offsets[slot + 1] - 1]
+  private final byte[] letters;
+  private final int[] offsets;
+
+  private PerfectHashWordSet(long salt, int numWords, int[] displacements, byte[] letters, int[] offsets) {
+    this.salt = salt;
+    this.numWords = numWords;
+    this.displacements = displacements;
+    this.letters = letters;
+    this.offsets = offsets;
+  }
+
+  /**
+   * Build a word set. Words are case insensitive.
+   *
+   * @param words
+   * @return
+   */
+  public static PerfectHashWordSet build(Collection<String> words) {
+    long start = System.currentTimeMillis();
+    Set<String> distinct = Sets.newLinkedHashSet();
+
+    for (String word : words) {
+      String normalized = word.toUpperCase();
+
+      for (int i = 0; i < normalized.length(); i++) {
+        if (normalized.charAt(i) > Byte.MAX_VALUE) {
+          throw new IllegalArgumentException("Unsupported letter in word: " + word);
+        }
+      }
+
+      distinct.add(normalized);
+    }
+
+    String[] distinctWords = distinct.toArray(new String[distinct.size()]);
+    PerfectHashWordSet wordSet = null;
+
+    for (long salt = 0; wordSet == null; salt++) {
+      wordSet = build(distinctWords, salt);
+    }
+
+    LOG.info("Built perfect hash for {} words in {} ms ({} bytes)",
+      wordSet.size(), System.currentTimeMillis() - start, wordSet.getSizeInBytes());
+
+    return wordSet;
+  }
+
+  /**
+   * @param word
+   * @return true iff the provided word is in the set
+   */
+  public boolean isWord(String word) {
+    if (numWords == 0) {
+      return false;
+    }
+
+    long hash = hash(word, salt);
+    int displacement = displacements[bucket(hash, displacements.length)];
+    int slot = displacement < 0 ? -displacement - 1 : slot(hash, displacement, numWords);
+
+    int offset = offsets[slot];
+    if (offsets[slot + 1] - offset != word.length()) {
+      return false;
+    }
+
+    for (int i = 0; i < word.length(); i++) {
+      if (toUpperCase(word.charAt(i)) != letters[offset + i]) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * @return number of words in the set
+   */
+  public int size() {
+    return numWords;
+  }
+
+  /**
+   * @return approximate size of the backing arrays
+   */
+  public long getSizeInBytes() {
+    return letters.length + 4L * (offsets.length + displacements.length);
+  }
+
+  /**
+   * @return a word set, or null if the words couldn't all be placed using this salt
+   */
+  private static PerfectHashWordSet build(String[] words, long salt) {
+    int n = words.length;
+    int numBuckets = Math.max(1, n / BUCKET_SIZE);
+
+    long[] hashes = new long[n];
+    int[] bucketSizes = new int[numBuckets];
+    for (int i = 0; i < n; i++) {
+      hashes[i] = hash(words[i], salt);
+      bucketSizes[bucket(hashes[i], numBuckets)]++;
+    }
+
+    // Group words by bucket
+    int[] bucketStarts = new int[numBuckets + 1];
+    for (int b = 0; b < numBuckets; b++) {
+      bucketStarts[b + 1] = bucketStarts[b] + bucketSizes[b];
+    }
+    int[] wordsByBucket = new int[n];
+    int[] filled = Arrays.copyOf(bucketStarts, numBuckets);
+    for (int i = 0; i < n; i++) {
+      wordsByBucket[filled[bucket(hashes[i], numBuckets)]++] = i;
+    }
+
+    // Place the biggest buckets first, while most slots are free
+    int maxBucketSize = 0;
+    for (int size : bucketSizes) {
+      maxBucketSize = Math.max(maxBucketSize, size);
+    }
+    int[] sizeStarts = new int[maxBucketSize + 2];
+    for (int size : bucketSizes) {
+      sizeStarts[maxBucketSize - size + 1]++;
+    }
+    for (int i = 1; i < sizeStarts.length; i++) {
+      sizeStarts[i] += sizeStarts[i - 1];
+    }
+    int[] bucketsBySize = new int[numBuckets];
+    for (int b = 0; b < numBuckets; b++) {
+      bucketsBySize[sizeStarts[maxBucketSize - bucketSizes[b]]++] = b;
+    }
+
+    int[] displacements = new int[numBuckets];
+    int[] slotOfWord = new int[n];
+    boolean[] taken = new boolean[n];
+    int[] candidate = new int[maxBucketSize];
+    int nextFree = 0;
+
+    for (int b : bucketsBySize) {
+      int size = bucketSizes[b];
+      int first = bucketStarts[b];
+
+      if (size == 0) {
+        continue;
+      }
+      else if (size == 1) {
+        while (taken[nextFree]) {
+          nextFree++;
+        }
+        taken[nextFree] = true;
+        slotOfWord[wordsByBucket[first]] = nextFree;
+        displacements[b] = -nextFree - 1;
+        continue;
+      }
+
+      int displacement = 0;
+      while (! tryPlace(hashes, wordsByBucket, first, size, displacement, taken, candidate)) {
+        if (++displacement == MAX_DISPLACEMENT) {
+          return null;
+        }
+      }
+
+      displacements[b] = displacement;
+      for (int i = 0; i < size; i++) {
+        taken[candidate[i]] = true;
+        slotOfWord[wordsByBucket[first + i]] = candidate[i];
+      }
+    }
+
+    // Lay the words out in slot order
+    String[] bySlot = new String[n];
+    int numLetters = 0;
+    for (int i = 0; i < n; i++) {
+      bySlot[slotOfWord[i]] = words[i];
+      numLetters += words[i].length();
+    }
+
+    byte[] letters = new byte[numLetters];
+    int[] offsets = new int[n + 1];
+    for (int slot = 0; slot < n; slot++) {
+      String word = bySlot[slot];
+      for (int i = 0; i < word.length(); i++) {
+        letters[offsets[slot] + i] = (byte) word.charAt(i);
+      }
+      offsets[slot + 1] = offsets[slot] + word.length();
+    }
+
+    return new PerfectHashWordSet(salt, n, displacements, letters, offsets);
+  }
+
+  /**
+   * Checks whether a bucket's words all land on distinct free slots with the provided displacement.
+   * If they do, the slots are left in candidate.
+   */
+  private static boolean tryPlace(long[] hashes, int[] wordsByBucket, int first, int size, int displacement,
+                                  boolean[] taken, int[] candidate) {
+    int n = taken.length;
+
+    for (int i = 0; i < size; i++) {
+      int slot = slot(hashes[wordsByBucket[first + i]], displacement, n);
+
+      if (taken[slot]) {
+        return false;
+      }
+      for (int j = 0; j < i; j++) {
+        if (candidate[j] == slot) {
+          return false;
+        }
+      }
+
+      candidate[i] = slot;
+    }
+
+    return true;
+  }
+
+  private static long hash(String word, long salt) {
+    long hash = salt * GOLDEN_RATIO;
+
+    for (int i = 0; i < word.length(); i++) {
+      hash = (hash ^ toUpperCase(word.charAt(i))) * FNV_PRIME;
+    }
+
+    return mix(hash);
+  }
+
+  /**
+   * Words are stored as ASCII, so only ASCII letters need converting
+   */
+  private static int toUpperCase(char letter) {
+    return letter >= 'a' && letter <= 'z' ? letter - ('a' - 'A') : letter;
+  }
+
+  private static int bucket(long hash, int numBuckets) {
+    return (int) (((hash >>> 32) * numBuckets) >>> 32);
+  }
+
+  private static int slot(long hash, int displacement, int numSlots) {
+    return (int) (((mix(hash + displacement * GOLDEN_RATIO) >>> 32) * numSlots) >>> 32);
+  }
+
+  /**
+   * Finalization step from MurmurHash3
+   */
+  private static long mix(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb93fe53a87e5L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
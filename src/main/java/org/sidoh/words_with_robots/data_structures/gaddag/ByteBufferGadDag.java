@@ -0,0 +1,325 @@
+package org.sidoh.words_with_robots.data_structures.gaddag;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * A read-only GADDAG that answers lookups directly from a binary image of a {@link FrozenGadDag}. The
+ * image can be written to disk with {@link #write(FrozenGadDag, File)} (see {@link GadDagLoader}) and
+ * memory-mapped with {@link #map(File)}, which avoids rebuilding the GADDAG at startup and lets several
+ * processes share the same copy through the page cache. It can also be copied into a direct buffer with
+ * {@link #allocateDirect(FrozenGadDag)}.
+ *
+ * Either way the GADDAG lives outside of the Java heap, so the garbage collector only ever sees this
+ * object and its buffer handles rather than millions of states and arcs.
+ *
+ * Image layout (all values big-endian):
+ *
+ * <pre>
+ *   int   magic
+ *   int   format version
+ *   int   number of states
+ *   int   number of arcs
+ *   long  CRC32 of everything after the header
+ *   int[] child letter mask per state
+ *   int[] first arc per state
+ *   int[] target state per arc
+ *   int[] word letter mask per arc
+ * </pre>
+ *
+ * Arc handles and lookups are the same as in {@link FrozenGadDag}.
+ */
+public class ByteBufferGadDag implements TraversableGadDag {
+  private static final Logger LOG = LoggerFactory.getLogger(ByteBufferGadDag.class);
+
+  public static final int MAGIC = 0x47414444; // "GADD"
+  public static final int VERSION = 1;
+  public static final int HEADER_SIZE = 24;
+
+  private static final int CHECKSUM_CHUNK_SIZE = 1 << 16;
+
+  private final ByteBuffer image;
+  private final IntBuffer body;
+  private final int numStates;
+  private final int numArcs;
+
+  // Offsets of each array within the body, in ints
+  private final int firstArcsOffset;
+  private final int arcTargetsOffset;
+  private final int wordLetterMasksOffset;
+
+  /**
+   * @param image buffer containing a GADDAG image, starting at its current position
+   * @throws IllegalArgumentException if the buffer doesn't contain a valid image
+   */
+  public ByteBufferGadDag(ByteBuffer image) {
+    this.image = image.slice();
+
+    if (this.image.remaining() < HEADER_SIZE || this.image.getInt(0) != MAGIC) {
+      throw new IllegalArgumentException("Not a GADDAG image");
+    }
+
+    int version = this.image.getInt(4);
+    if (version != VERSION) {
+      throw new IllegalArgumentException("Unsupported GADDAG image version " + version + " (expected " + VERSION + ")");
+    }
+
+    this.numStates = this.image.getInt(8);
+    this.numArcs = this.image.getInt(12);
+
+    long expectedSize = HEADER_SIZE + 4L * (2L * numStates + 2L * numArcs);
+    if (this.image.remaining() < expectedSize) {
+      throw new IllegalArgumentException("Truncated GADDAG image: expected " + expectedSize + " bytes, found " + this.image.remaining());
+    }
+
+    long checksum = this.image.getLong(16);
+    if (checksum(this.image, (int) expectedSize) != checksum) {
+      throw new IllegalArgumentException("GADDAG image checksum doesn't match");
+    }
+
+    ByteBuffer bodyBytes = this.image.duplicate();
+    bodyBytes.position(HEADER_SIZE);
+    bodyBytes.limit((int) expectedSize);
+    this.body = bodyBytes.slice().asIntBuffer();
+
+    this.firstArcsOffset = numStates;
+    this.arcTargetsOffset = 2 * numStates;
+    this.wordLetterMasksOffset = 2 * numStates + numArcs;
+  }
+
+  /**
+   * Memory-map a GADDAG image.
+   *
+   * @param file image written by {@link #write(FrozenGadDag, File)}
+   * @return
+   * @throws IOException
+   */
+  public static ByteBufferGadDag map(File file) throws IOException {
+    long start = System.currentTimeMillis();
+    RandomAccessFile raf = new RandomAccessFile(file, "r");
+
+    try {
+      FileChannel channel = raf.getChannel();
+      ByteBufferGadDag gaddag = new ByteBufferGadDag(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+
+      LOG.info("Mapped GADDAG image {} ({} states, {} arcs) in {} ms",
+        file, gaddag.getNumStates(), gaddag.getNumArcs(), System.currentTimeMillis() - start);
+
+      return gaddag;
+    }
+    finally {
+      // The mapping stays valid after the channel is closed
+      raf.close();
+    }
+  }
+
+  /**
+   * Copy a GADDAG into a direct buffer. The source can be thrown away afterwards.
+   *
+   * @param gaddag
+   * @return
+   */
+  public static ByteBufferGadDag allocateDirect(FrozenGadDag gaddag) {
+    ByteBuffer image = toImage(gaddag, ByteBuffer.allocateDirect(getImageSize(gaddag)));
+
+    LOG.info("Copied GADDAG into {} bytes of direct memory", image.limit());
+
+    return new ByteBufferGadDag(image);
+  }
+
+  /**
+   * Write a GADDAG image to disk.
+   *
+   * @param gaddag
+   * @param file
+   * @throws IOException
+   */
+  public static void write(FrozenGadDag gaddag, File file) throws IOException {
+    ByteBuffer image = toImage(gaddag, ByteBuffer.allocate(getImageSize(gaddag)));
+    FileOutputStream out = new FileOutputStream(file);
+
+    try {
+      out.getChannel().write(image);
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Write the image for the provided GADDAG into a buffer.
+   *
+   * @param gaddag
+   * @param buffer buffer with at least {@link #getImageSize(FrozenGadDag)} bytes remaining
+   * @return a buffer positioned at the start of the image with its limit set to the end of it
+   */
+  public static ByteBuffer toImage(FrozenGadDag gaddag, ByteBuffer buffer) {
+    ByteBuffer image = buffer.slice();
+    image.limit(getImageSize(gaddag));
+
+    image.putInt(MAGIC);
+    image.putInt(VERSION);
+    image.putInt(gaddag.getNumStates());
+    image.putInt(gaddag.getNumArcs());
+    image.putLong(0);
+
+    IntBuffer ints = image.asIntBuffer();
+    ints.put(gaddag.childMasks);
+    ints.put(gaddag.firstArcs);
+    ints.put(gaddag.arcTargets);
+    ints.put(gaddag.wordLetterMasks);
+
+    image.putLong(16, checksum(image, image.limit()));
+    image.rewind();
+
+    return image;
+  }
+
+  /**
+   * @param gaddag
+   * @return number of bytes needed to store the image for the provided GADDAG
+   */
+  public static int getImageSize(FrozenGadDag gaddag) {
+    return HEADER_SIZE + (int) gaddag.getSizeInBytes();
+  }
+
+  /**
+   * @param file
+   * @return true if the provided file starts with the GADDAG image magic number
+   * @throws IOException
+   */
+  public static boolean isImage(File file) throws IOException {
+    if (file.length() < HEADER_SIZE) {
+      return false;
+    }
+
+    DataInputStream in = new DataInputStream(new FileInputStream(file));
+
+    try {
+      return in.readInt() == MAGIC;
+    }
+    finally {
+      in.close();
+    }
+  }
+
+  @Override
+  public int getInitArc() {
+    return FrozenGadDag.INIT_ARC;
+  }
+
+  @Override
+  public int nextArc(int arc, char letter) {
+    return getArc(body.get(arcTargetsOffset + arc), letter);
+  }
+
+  @Override
+  public boolean hasWordLetter(int arc, char letter) {
+    int position = FrozenGadDag.getLetterPosition(letter);
+
+    return position >= 0 && position < FrozenGadDag.NUM_LETTERS
+      && ((body.get(wordLetterMasksOffset + arc) >> position) & 1) == 1;
+  }
+
+  /**
+   * Find the outgoing arc for the provided letter.
+   *
+   * @param state
+   * @param letter
+   * @return handle for the arc, or NULL_ARC if the state has no such arc
+   */
+  public int getArc(int state, char letter) {
+    int position = FrozenGadDag.getLetterPosition(letter);
+
+    if (position < 0 || position >= FrozenGadDag.NUM_LETTERS) {
+      return NULL_ARC;
+    }
+
+    int mask = body.get(state);
+
+    if (((mask >> position) & 1) == 0) {
+      return NULL_ARC;
+    }
+
+    return body.get(firstArcsOffset + state) + Integer.bitCount(mask & ((1 << position) - 1));
+  }
+
+  @Override
+  public boolean isWord(String word) {
+    if (word == null || word.length() == 0)
+      throw new RuntimeException("Can't check null or empty word");
+
+    int arc = getArc(FrozenGadDag.INITIAL_STATE, word.charAt(0));
+
+    if (arc == NULL_ARC) {
+      return false;
+    }
+
+    // Needs concat operator now
+    arc = nextArc(arc, GadDag.CONCAT_OPERATOR);
+
+    if (arc == NULL_ARC) {
+      return false;
+    }
+
+    for (int i = 1; i < word.length() - 1; i++) {
+      arc = nextArc(arc, word.charAt(i));
+
+      if (arc == NULL_ARC) {
+        return false;
+      }
+    }
+
+    return hasWordLetter(arc, word.charAt(word.length() - 1));
+  }
+
+  public int getNumStates() {
+    return numStates;
+  }
+
+  public int getNumArcs() {
+    return numArcs;
+  }
+
+  /**
+   * @return true if the image lives outside of the Java heap (mapped or direct)
+   */
+  public boolean isDirect() {
+    return image.isDirect();
+  }
+
+  /**
+   * Computes the CRC32 of everything after the header.
+   *
+   * @param image
+   * @param size size of the image in bytes
+   * @return
+   */
+  private static long checksum(ByteBuffer image, int size) {
+    ByteBuffer bytes = image.duplicate();
+    bytes.limit(size);
+    bytes.position(HEADER_SIZE);
+
+    CRC32 crc = new CRC32();
+    byte[] chunk = new byte[CHECKSUM_CHUNK_SIZE];
+
+    while (bytes.hasRemaining()) {
+      int length = Math.min(chunk.length, bytes.remaining());
+      bytes.get(chunk, 0, length);
+      crc.update(chunk, 0, length);
+    }
+
+    return crc.getValue();
+  }
+}
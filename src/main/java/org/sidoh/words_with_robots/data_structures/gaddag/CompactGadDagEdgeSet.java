@@ -3,7 +3,6 @@ package org.sidoh.words_with_robots.data_structures.gaddag;
 import com.google.common.collect.Lists;
 import org.apache.commons.collections.iterators.ArrayIterator;
 import org.sidoh.words_with_robots.data_structures.BitFieldLetterSet;
-import org.sidoh.words_with_robots.data_structures.LetterSet;
 
 import java.util.Arrays;
 import java.util.Comparator;
@@ -14,7 +13,7 @@ public class CompactGadDagEdgeSet extends GadDagEdgeSet {
   private static final Comparator<GadDagEdge> EDGE_COMPARATOR = new EdgeComparator();
 
   private List<GadDagEdge> edges = Lists.newLinkedList();
-  private final LetterSet setEdges = new BitFieldLetterSet();
+  private final BitFieldLetterSet setEdges = new BitFieldLetterSet();
   private GadDagEdge[] compactedEdges;
 
   @Override
@@ -24,8 +23,16 @@ public class CompactGadDagEdgeSet extends GadDagEdgeSet {
 
   @Override
   public GadDagEdge getEdgeForLetter(char letter) {
-    if (setEdges.contains(letter)) {
-      for (GadDagEdge edge : this) {
+    if (! setEdges.contains(letter)) {
+      return null;
+    }
+
+    // Compacted edges are sorted by letter, so the edge's index is the number of letters before it
+    if (compactedEdges != null) {
+      return compactedEdges[setEdges.rank(letter)];
+    }
+    else {
+      for (GadDagEdge edge : edges) {
         if ( edge.getDestinationLetter() == letter ) {
           return edge;
         }
@@ -33,13 +40,14 @@ public class CompactGadDagEdgeSet extends GadDagEdgeSet {
 
       throw new RuntimeException("Edge exists in edge set, but not in list of edges: " + letter);
     }
-    else {
-      return null;
-    }
   }
 
   @Override
   public void compact() {
+    if (compactedEdges != null) {
+      return;
+    }
+
     compactedEdges = edges.toArray(new GadDagEdge[edges.size()]);
     edges = null;
     Arrays.sort(compactedEdges, EDGE_COMPARATOR);
@@ -52,12 +60,17 @@ public class CompactGadDagEdgeSet extends GadDagEdgeSet {
 
   @Override
   public boolean isEmpty() {
-    return edges.isEmpty();
+    return size() == 0;
   }
 
   @Override
   public boolean contains(Object o) {
-    return edges.contains(o);
+    if (edges != null) {
+      return edges.contains(o);
+    }
+    else {
+      return Arrays.asList(compactedEdges).contains(o);
+    }
   }
 
   @Override
@@ -0,0 +1,217 @@
+package org.sidoh.words_with_robots.data_structures.gaddag;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable GADDAG that packs its states and arcs into a handful of int arrays. Each state stores
+ * a bitmask of the letters it has outgoing arcs for and the index of its first outgoing arc. A state's
+ * arcs are stored contiguously and sorted by letter, so the arc for a letter is found by counting the
+ * bits below it in the state's mask. Each arc stores its target state and a bitmask of its word letters.
+ *
+ * Arc handles are indices into the arc arrays. Arc 0 leads into the initial state (state 0).
+ *
+ * This is built from a fully loaded {@link GadDag}, which can be thrown away afterwards.
+ */
+public class FrozenGadDag implements TraversableGadDag {
+  private static final Logger LOG = LoggerFactory.getLogger(FrozenGadDag.class);
+
+  /**
+   * Number of distinct arc labels: A-Z and the concat operator
+   */
+  public static final int NUM_LETTERS = 27;
+
+  protected static final int INIT_ARC = 0;
+  protected static final int INITIAL_STATE = 0;
+
+  // Per state
+  final int[] childMasks;
+  final int[] firstArcs;
+
+  // Per arc
+  final int[] arcTargets;
+  final int[] wordLetterMasks;
+
+  public FrozenGadDag(GadDag source) {
+    int maxStates = source.vertexSet().size();
+    int maxArcs = source.edgeSet().size();
+
+    int[] childMasks = new int[maxStates];
+    int[] firstArcs = new int[maxStates];
+    int[] arcTargets = new int[maxArcs];
+    int[] wordLetterMasks = new int[maxArcs];
+
+    Map<Long, Integer> stateIds = new HashMap<Long, Integer>();
+    Deque<Long> queue = new ArrayDeque<Long>();
+    GadDagEdge[] edgesByLetter = new GadDagEdge[NUM_LETTERS];
+
+    // Arc 0 leads into the initial state and doesn't complete any words
+    arcTargets[INIT_ARC] = INITIAL_STATE;
+    wordLetterMasks[INIT_ARC] = 0;
+    int numArcs = 1;
+    int numStates = 1;
+
+    stateIds.put(source.getInitialState(), INITIAL_STATE);
+    queue.add(source.getInitialState());
+
+    // Number states breadth-first so that states close to the root end up close together
+    while (! queue.isEmpty()) {
+      Long vertex = queue.removeFirst();
+      int state = stateIds.get(vertex);
+
+      Arrays.fill(edgesByLetter, null);
+      for (GadDagEdge edge : source.outgoingEdgesOf(vertex)) {
+        edgesByLetter[getLetterPosition(edge.getDestinationLetter())] = edge;
+      }
+
+      firstArcs[state] = numArcs;
+
+      for (int i = 0; i < NUM_LETTERS; i++) {
+        GadDagEdge edge = edgesByLetter[i];
+
+        if (edge == null) {
+          continue;
+        }
+
+        Long target = source.getEdgeTarget(edge);
+        Integer targetState = stateIds.get(target);
+
+        if (targetState == null) {
+          targetState = numStates++;
+          stateIds.put(target, targetState);
+          queue.add(target);
+        }
+
+        childMasks[state] |= (1 << i);
+        arcTargets[numArcs] = targetState;
+        wordLetterMasks[numArcs] = getWordLetterMask(edge);
+        numArcs++;
+      }
+    }
+
+    this.childMasks = Arrays.copyOf(childMasks, numStates);
+    this.firstArcs = Arrays.copyOf(firstArcs, numStates);
+    this.arcTargets = Arrays.copyOf(arcTargets, numArcs);
+    this.wordLetterMasks = Arrays.copyOf(wordLetterMasks, numArcs);
+
+    LOG.info("Froze GADDAG with {} states and {} arcs", numStates, numArcs);
+  }
+
+  @Override
+  public int getInitArc() {
+    return INIT_ARC;
+  }
+
+  @Override
+  public int nextArc(int arc, char letter) {
+    return getArc(arcTargets[arc], letter);
+  }
+
+  @Override
+  public boolean hasWordLetter(int arc, char letter) {
+    int position = getLetterPosition(letter);
+
+    return position >= 0 && position < NUM_LETTERS
+      && ((wordLetterMasks[arc] >> position) & 1) == 1;
+  }
+
+  /**
+   * Find the outgoing arc for the provided letter.
+   *
+   * @param state
+   * @param letter
+   * @return handle for the arc, or NULL_ARC if the state has no such arc
+   */
+  public int getArc(int state, char letter) {
+    int position = getLetterPosition(letter);
+
+    if (position < 0 || position >= NUM_LETTERS) {
+      return NULL_ARC;
+    }
+
+    int mask = childMasks[state];
+
+    if (((mask >> position) & 1) == 0) {
+      return NULL_ARC;
+    }
+
+    return firstArcs[state] + Integer.bitCount(mask & ((1 << position) - 1));
+  }
+
+  public int getEdgeTarget(int arc) {
+    return arcTargets[arc];
+  }
+
+  @Override
+  public boolean isWord(String word) {
+    if (word == null || word.length() == 0)
+      throw new RuntimeException("Can't check null or empty word");
+
+    int arc = getArc(INITIAL_STATE, word.charAt(0));
+
+    if (arc == NULL_ARC) {
+      return false;
+    }
+
+    // Needs concat operator now
+    arc = nextArc(arc, GadDag.CONCAT_OPERATOR);
+
+    if (arc == NULL_ARC) {
+      return false;
+    }
+
+    for (int i = 1; i < word.length() - 1; i++) {
+      arc = nextArc(arc, word.charAt(i));
+
+      if (arc == NULL_ARC) {
+        return false;
+      }
+    }
+
+    return hasWordLetter(arc, word.charAt(word.length() - 1));
+  }
+
+  public int getNumStates() {
+    return childMasks.length;
+  }
+
+  public int getNumArcs() {
+    return arcTargets.length;
+  }
+
+  /**
+   * @return approximate number of bytes used by the packed arrays
+   */
+  public long getSizeInBytes() {
+    return 4L * (childMasks.length + firstArcs.length + arcTargets.length + wordLetterMasks.length);
+  }
+
+  /**
+   * Maps a letter to its bit position. Matches {@link org.sidoh.words_with_robots.data_structures.BitFieldLetterSet},
+   * so A-Z are 0-25 and the concat operator is 26.
+   *
+   * @param letter
+   * @return
+   */
+  protected static int getLetterPosition(char letter) {
+    return Character.toUpperCase(letter) - 0x41;
+  }
+
+  protected static int getWordLetterMask(GadDagEdge edge) {
+    int mask = 0;
+
+    for (int i = 0; i < NUM_LETTERS; i++) {
+      if (edge.hasWordLetter((char)(0x41 + i))) {
+        mask |= (1 << i);
+      }
+    }
+
+    return mask;
+  }
+}
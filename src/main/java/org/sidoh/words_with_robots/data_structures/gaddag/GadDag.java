@@ -8,8 +8,15 @@ import org.slf4j.LoggerFactory;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
-
-public class GadDag extends GraphForGadDag {
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class GadDag extends GraphForGadDag implements TraversableGadDag {
   private static final Logger LOG = LoggerFactory.getLogger(GadDag.class);
 
   // This is used to maintain which letters nodes have as outgoing edges
@@ -21,15 +28,27 @@ public class GadDag extends GraphForGadDag {
   public static final long INITIAL_STATE = 0;
   public static final char CONCAT_OPERATOR = 91;
 
+  // Traversal status of states during minimize()
+  private static final byte UNVISITED = 0;
+  private static final byte VISITING = 1;
+  private static final byte VISITED = 2;
+
   private long stateCounter = 1;
   private final GadDagEdge initEdge;
 
+  // Edges indexed by their id so that they can be referred to by TraversableGadDag arc handles
+  private final List<GadDagEdge> edgesById = new ArrayList<GadDagEdge>();
+
+  // States and edge ids given back by releaseState(), handed out again before new ones are created
+  private final Deque<Long> releasedStates = new ArrayDeque<Long>();
+  private final Deque<Integer> releasedEdgeIds = new ArrayDeque<Integer>();
+
   public GadDag() {
-    super(new GadDagEdgeFactory());
+    super(new GadDagEdgeFactory(), true);
     addVertex(INITIAL_STATE);
     addVertex(NULL_STATE);
 
-    this.initEdge = new GadDagEdge((char)92, LETTER_SET_FACTORY);
+    this.initEdge = createEdge((char)92);
 
     addEdge(NULL_STATE, INITIAL_STATE, initEdge);
   }
@@ -52,6 +71,24 @@ public class GadDag extends GraphForGadDag {
     return numLines;
   }
 
+  /**
+   * Loads a dictionary straight into a minimal GADDAG. Unlike {@link #loadDictionary(Reader)}, the
+   * unminimized graph never exists in memory: equivalent states are merged as soon as they're complete
+   * (see {@link IncrementalGadDagBuilder}), so the peak heap stays close to the size of the result.
+   * Words can be in any order. The result is already compacted and minimized.
+   *
+   * @param reader
+   * @return number of words loaded
+   * @throws IOException
+   */
+  public int loadMinimalDictionary(Reader reader) throws IOException {
+    if (edgeSet().size() != 1) {
+      throw new IllegalStateException("Can only load a minimal dictionary into an empty GADDAG");
+    }
+
+    return new IncrementalGadDagBuilder(this).load(reader);
+  }
+
   public boolean isWord(String word) {
     if (word == null || word.length() == 0)
       throw new RuntimeException("Can't check null or empty word");
@@ -67,7 +104,7 @@ public class GadDag extends GraphForGadDag {
     }
 
     // Follow arc
-    st = getEdgeTarget( arc );
+    st = getEdgeTargetVertex( arc );
 
     // Needs concat operator now
     arc = getArc( st, CONCAT_OPERATOR );
@@ -77,7 +114,7 @@ public class GadDag extends GraphForGadDag {
       return false;
     }
 
-    st = getEdgeTarget( arc );
+    st = getEdgeTargetVertex( arc );
 
     for (int i = 1; i < word.length() - 1; i++) {
       arc = getArc( st, word.charAt(i) );
@@ -87,7 +124,7 @@ public class GadDag extends GraphForGadDag {
         return false;
       }
 
-      st = getEdgeTarget( arc );
+      st = getEdgeTargetVertex( arc );
     }
 
     return arc.hasWordLetter( word.charAt(word.length() - 1) );
@@ -98,7 +135,7 @@ public class GadDag extends GraphForGadDag {
   }
 
   public GadDagEdge nextEdge( GadDagEdge edge, char b ) {
-    GadDagEdgeSet outgoing = (GadDagEdgeSet) outgoingEdgesOf( getEdgeTarget( edge ) );
+    GadDagEdgeSet outgoing = getOutgoingEdges( getEdgeTargetVertex( edge ) );
 
     return outgoing.getEdgeForLetter( b );
   }
@@ -107,6 +144,23 @@ public class GadDag extends GraphForGadDag {
     return initEdge;
   }
 
+  @Override
+  public int getInitArc() {
+    return initEdge.getId();
+  }
+
+  @Override
+  public int nextArc(int arc, char letter) {
+    GadDagEdge next = nextEdge(edgesById.get(arc), letter);
+
+    return next == null ? NULL_ARC : next.getId();
+  }
+
+  @Override
+  public boolean hasWordLetter(int arc, char letter) {
+    return edgesById.get(arc).hasWordLetter(letter);
+  }
+
   public void addWord(String word) {
     long st = getInitialState();
 
@@ -114,7 +168,7 @@ public class GadDag extends GraphForGadDag {
 
     // create path for a_n a_(n-1) ... a_1
     for (int i = word.length() - 1; i >= 2; i--) {
-      st = getEdgeTarget(addArc(st, word.charAt(i)));
+      st = getEdgeTargetVertex(addArc(st, word.charAt(i)));
     }
     addFinalArc(st, word.charAt(1), word.charAt(0));
 
@@ -122,9 +176,9 @@ public class GadDag extends GraphForGadDag {
     st = getInitialState();
 
     for (int i = word.length() - 2; i >= 0; i--) {
-      st = getEdgeTarget(addArc(st, word.charAt(i)));
+      st = getEdgeTargetVertex(addArc(st, word.charAt(i)));
     }
-    st = getEdgeTarget(addFinalArc(st, CONCAT_OPERATOR, word.charAt(word.length() - 1)));
+    st = getEdgeTargetVertex(addFinalArc(st, CONCAT_OPERATOR, word.charAt(word.length() - 1)));
 
     long firstForceState = st;
 
@@ -134,9 +188,9 @@ public class GadDag extends GraphForGadDag {
       st = getInitialState();
 
       for (int j = i; j >= 0; j--) {
-        st = getEdgeTarget(addArc(st, word.charAt(j)));
+        st = getEdgeTargetVertex(addArc(st, word.charAt(j)));
       }
-      st = getEdgeTarget(addArc(st, CONCAT_OPERATOR));
+      st = getEdgeTargetVertex(addArc(st, CONCAT_OPERATOR));
       GadDagEdge forcedArc = forceArc(st, word.charAt(i + 1), forceSt);
 
       if (firstForceState == forceSt)
@@ -144,41 +198,227 @@ public class GadDag extends GraphForGadDag {
     }
   }
 
+  /**
+   * Adds the paths for a word that start with the provided letter. These are the same paths that
+   * {@link #addWord(String)} creates, but they're added as a plain trie instead of forcing arcs into
+   * shared suffixes, since those suffixes hang off of other letters. {@link #minimize()} recovers the
+   * sharing afterwards.
+   *
+   * @param word
+   * @param firstLetter
+   */
+  void addWordPaths(String word, char firstLetter) {
+    int n = word.length();
+
+    // path for a_n a_(n-1) ... a_1
+    if (word.charAt(n - 1) == firstLetter) {
+      long st = getInitialState();
+
+      for (int i = n - 1; i >= 2; i--) {
+        st = getEdgeTargetVertex(addArc(st, word.charAt(i)));
+      }
+      addFinalArc(st, word.charAt(1), word.charAt(0));
+    }
+
+    // paths for a_i ... a_1 <> a_(i+1) ... a_n
+    for (int i = n - 2; i >= 0; i--) {
+      if (word.charAt(i) != firstLetter) {
+        continue;
+      }
+
+      long st = getInitialState();
+
+      for (int j = i; j >= 0; j--) {
+        st = getEdgeTargetVertex(addArc(st, word.charAt(j)));
+      }
+
+      if (i == n - 2) {
+        addFinalArc(st, CONCAT_OPERATOR, word.charAt(n - 1));
+      }
+      else {
+        st = getEdgeTargetVertex(addArc(st, CONCAT_OPERATOR));
+
+        for (int j = i + 1; j < n - 2; j++) {
+          st = getEdgeTargetVertex(addArc(st, word.charAt(j)));
+        }
+        addFinalArc(st, word.charAt(n - 2), word.charAt(n - 1));
+      }
+    }
+  }
+
+  /**
+   * Copies the states reachable from another GADDAG's initial state into this one, attaching them
+   * under this GADDAG's initial state. The other GADDAG's initial state shouldn't have arcs for any
+   * letters this one's initial state already has arcs for.
+   *
+   * @param other
+   */
+  void graft(GadDag other) {
+    Map<Long, Long> states = new HashMap<Long, Long>();
+    Deque<Long> queue = new ArrayDeque<Long>();
+
+    states.put(other.getInitialState(), getInitialState());
+    queue.add(other.getInitialState());
+
+    while (! queue.isEmpty()) {
+      Long otherSt = queue.removeFirst();
+      Long st = states.get(otherSt);
+
+      for (GadDagEdge otherEdge : other.outgoingEdgesOf(otherSt)) {
+        Long otherTarget = other.getEdgeTarget(otherEdge);
+        Long target = states.get(otherTarget);
+
+        if (target == null) {
+          target = getNewState();
+          addVertex(target);
+          states.put(otherTarget, target);
+          queue.add(otherTarget);
+        }
+
+        GadDagEdge edge = createEdge(otherEdge.getDestinationLetter());
+        for (char c = 'A'; c <= CONCAT_OPERATOR; c++) {
+          if (otherEdge.hasWordLetter(c)) {
+            edge.addWordLetter(c);
+          }
+        }
+
+        addEdgeUnchecked(st, target, edge);
+      }
+    }
+  }
+
   public void compact() {
     int edgesProcessed = 0;
     for (Long v : this.vertexSet()) {
-      GadDagEdgeSet edgeSet = (GadDagEdgeSet) outgoingEdgesOf(v);
+      GadDagEdgeSet edgeSet = getOutgoingEdges(v);
       edgeSet.compact();
       edgesProcessed += edgeSet.size();
     }
     LOG.info("Finished compacting {} edges", edgesProcessed);
   }
 
+  /**
+   * Merges equivalent states. Two states are equivalent if they have outgoing edges for the same
+   * letters, with the same word letters, leading to equivalent states. States are visited bottom-up,
+   * so each state's children have already been replaced by their representatives by the time its
+   * signature is computed.
+   *
+   * Should be called after {@link #compact()}, once all words have been added. Incoming edge sets
+   * aren't maintained for merged states.
+   */
+  public void minimize() {
+    int statesBefore = vertexSet().size();
+    int edgesBefore = edgeSet().size();
+
+    long[] representatives = new long[(int) stateCounter];
+    byte[] status = new byte[(int) stateCounter];
+    Map<StateSignature, Long> register = new HashMap<StateSignature, Long>();
+    List<Long> merged = new ArrayList<Long>();
+
+    Deque<Long> stack = new ArrayDeque<Long>();
+    stack.push(getInitialState());
+
+    // Iterative post-order traversal. Words can be long enough to overflow the stack with recursion.
+    while (! stack.isEmpty()) {
+      Long st = stack.peek();
+      int index = st.intValue();
+
+      if (status[index] == UNVISITED) {
+        status[index] = VISITING;
+
+        for (GadDagEdge edge : outgoingEdgesOf(st)) {
+          Long target = getEdgeTarget(edge);
+
+          if (status[target.intValue()] == UNVISITED) {
+            stack.push(target);
+          }
+        }
+      }
+      else {
+        stack.pop();
+
+        if (status[index] == VISITING) {
+          status[index] = VISITED;
+
+          for (GadDagEdge edge : outgoingEdgesOf(st)) {
+            long target = getEdgeTargetVertex(edge);
+
+            if (representatives[(int) target] != target) {
+              setEdgeTarget(edge, representatives[(int) target]);
+            }
+          }
+
+          StateSignature signature = new StateSignature(this, st);
+          Long representative = register.get(signature);
+
+          if (representative == null || st == getInitialState()) {
+            register.put(signature, st);
+            representatives[index] = st;
+          }
+          else {
+            representatives[index] = representative;
+            merged.add(st);
+          }
+        }
+      }
+    }
+
+    for (Long st : merged) {
+      for (GadDagEdge edge : outgoingEdgesOf(st)) {
+        edgesById.set(edge.getId(), null);
+      }
+      pruneVertex(st);
+    }
+
+    LOG.info("Minimized GADDAG from {} states and {} edges to {} states and {} edges",
+      statesBefore, edgesBefore, vertexSet().size(), edgeSet().size());
+  }
+
   public long getInitialState() {
     return INITIAL_STATE;
   }
 
   public long getNewState() {
+    if (! releasedStates.isEmpty()) {
+      return releasedStates.pop();
+    }
+
     return stateCounter++;
   }
 
+  /**
+   * Removes a state that nothing points to anymore along with its outgoing edges. The state and edge
+   * ids are reused for states and edges created afterwards.
+   *
+   * @param st
+   */
+  void releaseState(long st) {
+    for (GadDagEdge edge : getOutgoingEdges(st)) {
+      edgesById.set(edge.getId(), null);
+      releasedEdgeIds.push(edge.getId());
+    }
+
+    pruneVertex(st);
+    releasedStates.push(st);
+  }
+
   public GadDagEdge getArc(long st, char letter) {
     assertVertexExist(st);
 
-   return  ((GadDagEdgeSet) outgoingEdgesOf(st)).getEdgeForLetter(letter);
+   return  getOutgoingEdges(st).getEdgeForLetter(letter);
   }
 
   public GadDagEdge addArc(long st, char letter) {
     assertVertexExist(st);
 
-    GadDagEdgeSet edges = (GadDagEdgeSet) outgoingEdgesOf(st);
+    GadDagEdgeSet edges = getOutgoingEdges(st);
     GadDagEdge edge = edges.getEdgeForLetter(letter);
 
     if (edge == null) {
       long newState = getNewState();
       addVertex(newState);
 
-      edge = new GadDagEdge(letter, LETTER_SET_FACTORY);
+      edge = createEdge(letter);
       addEdge(st, newState, edge);
     }
 
@@ -200,13 +440,13 @@ public class GadDag extends GraphForGadDag {
     assertVertexExist(st);
     assertVertexExist(destSt);
 
-    GadDagEdgeSet edges = (GadDagEdgeSet) outgoingEdgesOf(st);
+    GadDagEdgeSet edges = getOutgoingEdges(st);
     GadDagEdge existingEdge = edges.getEdgeForLetter(letter);
 
-    if (existingEdge != null && getEdgeTarget(existingEdge) != destSt)
+    if (existingEdge != null && getEdgeTargetVertex(existingEdge) != destSt)
       throw new IllegalStateException();
     else if (existingEdge == null) {
-      GadDagEdge newEdge = new GadDagEdge(letter, LETTER_SET_FACTORY);
+      GadDagEdge newEdge = createEdge(letter);
       addEdge(st, destSt, newEdge);
 
       return newEdge;
@@ -216,6 +456,27 @@ public class GadDag extends GraphForGadDag {
     }
   }
 
+  /**
+   * Creates a new edge and assigns it an arc handle.
+   *
+   * @param letter
+   * @return
+   */
+  protected GadDagEdge createEdge(char letter) {
+    GadDagEdge edge = new GadDagEdge(letter, LETTER_SET_FACTORY);
+
+    if (! releasedEdgeIds.isEmpty()) {
+      edge.setId(releasedEdgeIds.pop());
+      edgesById.set(edge.getId(), edge);
+    }
+    else {
+      edge.setId(edgesById.size());
+      edgesById.add(edge);
+    }
+
+    return edge;
+  }
+
   protected static byte[] getWordBytes(String word) {
     byte[] bytes = word.getBytes();
 
@@ -224,4 +485,37 @@ public class GadDag extends GraphForGadDag {
 
     return bytes;
   }
+
+  /**
+   * Identifies a state by its outgoing edges: their letters, word letters and targets.
+   */
+  static final class StateSignature {
+    private final long[] values;
+    private final int hashCode;
+
+    StateSignature(GadDag gaddag, Long st) {
+      GadDagEdgeSet edges = gaddag.getOutgoingEdges(st);
+      long[] values = new long[2 * edges.size()];
+      int i = 0;
+
+      // Compacted edge sets are sorted by letter, so equivalent states produce the same values
+      for (GadDagEdge edge : edges) {
+        values[i++] = ((long) edge.getDestinationLetter() << 32) | FrozenGadDag.getWordLetterMask(edge);
+        values[i++] = gaddag.getEdgeTargetVertex(edge);
+      }
+
+      this.values = values;
+      this.hashCode = Arrays.hashCode(values);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof StateSignature && Arrays.equals(values, ((StateSignature) o).values);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
 }
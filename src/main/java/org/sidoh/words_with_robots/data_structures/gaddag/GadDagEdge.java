@@ -5,6 +5,12 @@ import org.sidoh.words_with_robots.data_structures.LetterSet;
 public final class GadDagEdge extends IntrusiveEdge {
   private final LetterSet wordLetters;
   private final byte destinationLetter;
+  private int id = TraversableGadDag.NULL_ARC;
+
+  // Only used by graphs in GADDAG mode, which don't keep boxed vertices on their edges
+  private int targetVertex = NO_VERTEX;
+
+  static final int NO_VERTEX = Integer.MIN_VALUE;
 
   public GadDagEdge(char destinationLetter, LetterSet.Factory letterSetFactory) {
     this.wordLetters = letterSetFactory.build();
@@ -26,4 +32,23 @@ public final class GadDagEdge extends IntrusiveEdge {
   public char getDestinationLetter() {
     return (char)destinationLetter;
   }
+
+  /**
+   * @return the handle the owning GadDag uses to refer to this edge
+   */
+  public int getId() {
+    return id;
+  }
+
+  void setId(int id) {
+    this.id = id;
+  }
+
+  int getTargetVertex() {
+    return targetVertex;
+  }
+
+  void setTargetVertex(int targetVertex) {
+    this.targetVertex = targetVertex;
+  }
 }
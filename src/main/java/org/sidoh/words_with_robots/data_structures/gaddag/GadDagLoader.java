@@ -1,14 +1,39 @@
 package org.sidoh.words_with_robots.data_structures.gaddag;
 
+import org.sidoh.words_with_robots.util.dictionary.DictionaryHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 
+/**
+ * Builds a GADDAG from a word list. If an output file is provided, a binary image of the GADDAG is
+ * written to it, which can be loaded much faster than rebuilding the GADDAG (see {@link ByteBufferGadDag}).
+ *
+ * Usage: GadDagLoader &lt;word list&gt; [&lt;output image&gt;]
+ */
 public class GadDagLoader {
+  private static final Logger LOG = LoggerFactory.getLogger(GadDagLoader.class);
+
   public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.err.println("Usage: GadDagLoader <word list> [<output image>]");
+      System.exit(1);
+    }
+
     File dict = new File(args[0]);
-    GadDag gaddag = new GadDag();
+    FrozenGadDag gaddag = DictionaryHelper.buildGadDag(new FileReader(dict));
+
+    if (args.length > 1) {
+      File image = new File(args[1]);
+      ByteBufferGadDag.write(gaddag, image);
+
+      // Make sure what was written can be read back
+      ByteBufferGadDag.map(image);
 
-    gaddag.loadDictionary(new FileReader(dict));
+      LOG.info("Wrote GADDAG image to {} ({} bytes)", image, image.length());
+    }
   }
 }
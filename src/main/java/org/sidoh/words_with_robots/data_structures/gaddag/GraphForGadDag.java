@@ -60,12 +60,15 @@ import org.jgrapht.util.ArrayUnenforcedSet;
 import org.jgrapht.util.TypeUtil;
 
 import java.io.Serializable;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 
@@ -78,6 +81,11 @@ import java.util.Set;
  * <p>This graph implementation guarantees deterministic vertex and edge set
  * ordering (via {@link LinkedHashMap} and {@link LinkedHashSet}).</p>
  *
+ * <p>In GADDAG mode, only outgoing edges are tracked. Vertices must fit in an
+ * int and index an array of outgoing edge sets, and edges store their target
+ * vertex themselves instead of being kept in an edge map. Operations that need
+ * incoming edges or edge sources aren't supported in this mode.</p>
+ *
  * @author Barak Naveh
  * @since Jul 24, 2003
  */
@@ -104,6 +112,7 @@ public class GraphForGadDag
   private transient Set<Long> unmodifiableVertexSet = null;
   private Specifics specifics;
   private boolean allowingMultipleEdges;
+  private boolean gadDagMode;
 
   private transient TypeUtil<Long> vertexTypeDecl = null;
 
@@ -119,15 +128,31 @@ public class GraphForGadDag
    * null</code>.
    */
   public GraphForGadDag(EdgeFactory<Long, GadDagEdge> ef)
+  {
+    this(ef, false);
+  }
+
+  /**
+   * Construct a new directed graph.
+   *
+   * @param ef the edge factory of the new graph.
+   * @param gadDagMode if true, only track what GADDAG traversal needs (see
+   * class comment)
+   *
+   * @throws NullPointerException if the specified edge factory is <code>
+   * null</code>.
+   */
+  public GraphForGadDag(EdgeFactory<Long, GadDagEdge> ef, boolean gadDagMode)
   {
     if (ef == null) {
       throw new NullPointerException();
     }
 
-    edgeMap = new LinkedHashMap<GadDagEdge, IntrusiveEdge>();
+    edgeMap = gadDagMode ? null : new LinkedHashMap<GadDagEdge, IntrusiveEdge>();
     edgeFactory = ef;
     allowingLoops = false;
     allowingMultipleEdges = false;
+    this.gadDagMode = gadDagMode;
 
     specifics = createSpecifics();
 
@@ -221,11 +246,7 @@ public class GraphForGadDag
 
       return null;
     } else {
-      IntrusiveEdge intrusiveEdge =
-              createIntrusiveEdge(e, sourceVertex, targetVertex);
-
-      edgeMap.put(e, intrusiveEdge);
-      specifics.addEdgeToTouchingVertices(e);
+      specifics.addEdge(e, sourceVertex, targetVertex);
 
       return e;
     }
@@ -255,11 +276,7 @@ public class GraphForGadDag
       throw new IllegalArgumentException(LOOPS_NOT_ALLOWED);
     }
 
-    IntrusiveEdge intrusiveEdge =
-            createIntrusiveEdge(e, sourceVertex, targetVertex);
-
-    edgeMap.put(e, intrusiveEdge);
-    specifics.addEdgeToTouchingVertices(e);
+    specifics.addEdge(e, sourceVertex, targetVertex);
 
     return true;
   }
@@ -301,9 +318,7 @@ public class GraphForGadDag
    */
   public Long getEdgeSource(GadDagEdge e)
   {
-    return TypeUtil.uncheckedCast(
-            getIntrusiveEdge(e).source,
-            vertexTypeDecl);
+    return specifics.getEdgeSource(e);
   }
 
   /**
@@ -311,9 +326,62 @@ public class GraphForGadDag
    */
   public Long getEdgeTarget(GadDagEdge e)
   {
-    return TypeUtil.uncheckedCast(
-            getIntrusiveEdge(e).target,
-            vertexTypeDecl);
+    return specifics.getEdgeTarget(e);
+  }
+
+  /**
+   * Same as {@link #getEdgeTarget(GadDagEdge)}, but doesn't box the vertex in
+   * GADDAG mode.
+   */
+  long getEdgeTargetVertex(GadDagEdge e)
+  {
+    return specifics.getEdgeTargetVertex(e);
+  }
+
+  /**
+   * Same as {@link #outgoingEdgesOf(Long)}, but doesn't box the vertex in
+   * GADDAG mode.
+   */
+  GadDagEdgeSet getOutgoingEdges(long vertex)
+  {
+    return specifics.getOutgoingEdges(vertex);
+  }
+
+  /**
+   * Points an existing edge at a different vertex. Only the outgoing edge set of the edge's source is
+   * kept up to date, which is all GADDAG traversal uses.
+   */
+  void setEdgeTarget(GadDagEdge e, Long targetVertex)
+  {
+    assertVertexExist(targetVertex);
+
+    specifics.setEdgeTarget(e, targetVertex);
+  }
+
+  /**
+   * Adds an edge without checking for an existing edge between the same vertices. Once equivalent
+   * states have been merged, a state can have edges for several letters leading to the same state.
+   */
+  void addEdgeUnchecked(Long sourceVertex, Long targetVertex, GadDagEdge e)
+  {
+    specifics.addEdge(e, sourceVertex, targetVertex);
+  }
+
+  /**
+   * Removes a vertex along with its outgoing edges. Unlike {@link #removeVertex(Long)}, this doesn't
+   * touch incoming edge sets, so it's only safe to use on vertices that are no longer reachable.
+   */
+  void pruneVertex(Long v)
+  {
+    specifics.pruneVertex(v);
+  }
+
+  /**
+   * @return true if this graph was created in GADDAG mode
+   */
+  public boolean isGadDagMode()
+  {
+    return gadDagMode;
   }
 
   private IntrusiveEdge getIntrusiveEdge(GadDagEdge e)
@@ -343,7 +411,7 @@ public class GraphForGadDag
       GraphForGadDag newGraph =
               TypeUtil.uncheckedCast(super.clone(), typeDecl);
 
-      newGraph.edgeMap = new LinkedHashMap<GadDagEdge, IntrusiveEdge>();
+      newGraph.edgeMap = gadDagMode ? null : new LinkedHashMap<GadDagEdge, IntrusiveEdge>();
 
       newGraph.edgeFactory = this.edgeFactory;
       newGraph.unmodifiableEdgeSet = null;
@@ -368,7 +436,7 @@ public class GraphForGadDag
    */
   public boolean containsEdge(GadDagEdge e)
   {
-    return edgeMap.containsKey(e);
+    return specifics.containsEdge(e);
   }
 
   /**
@@ -393,7 +461,7 @@ public class GraphForGadDag
   public Set<GadDagEdge> edgeSet()
   {
     if (unmodifiableEdgeSet == null) {
-      unmodifiableEdgeSet = Collections.unmodifiableSet(edgeMap.keySet());
+      unmodifiableEdgeSet = Collections.unmodifiableSet(specifics.getEdgeSet());
     }
 
     return unmodifiableEdgeSet;
@@ -520,7 +588,11 @@ public class GraphForGadDag
 
   private Specifics createSpecifics()
   {
-    return new DirectedSpecifics();
+    if (gadDagMode) {
+      return new GadDagSpecifics();
+    } else {
+      return new DirectedSpecifics();
+    }
   }
 
   //~ Inner Classes ----------------------------------------------------------
@@ -629,6 +701,76 @@ public class GraphForGadDag
      * @param e
      */
     public abstract void removeEdgeFromTouchingVertices(GadDagEdge e);
+
+    /**
+     * Records a new edge between two existing vertices.
+     *
+     * @param e
+     * @param sourceVertex
+     * @param targetVertex
+     */
+    public void addEdge(GadDagEdge e, Long sourceVertex, Long targetVertex)
+    {
+      IntrusiveEdge intrusiveEdge =
+              createIntrusiveEdge(e, sourceVertex, targetVertex);
+
+      edgeMap.put(e, intrusiveEdge);
+      addEdgeToTouchingVertices(e);
+    }
+
+    public boolean containsEdge(GadDagEdge e)
+    {
+      return edgeMap.containsKey(e);
+    }
+
+    public Set<GadDagEdge> getEdgeSet()
+    {
+      return edgeMap.keySet();
+    }
+
+    public Long getEdgeSource(GadDagEdge e)
+    {
+      return TypeUtil.uncheckedCast(
+              getIntrusiveEdge(e).source,
+              vertexTypeDecl);
+    }
+
+    public Long getEdgeTarget(GadDagEdge e)
+    {
+      return TypeUtil.uncheckedCast(
+              getIntrusiveEdge(e).target,
+              vertexTypeDecl);
+    }
+
+    public long getEdgeTargetVertex(GadDagEdge e)
+    {
+      return getEdgeTarget(e);
+    }
+
+    public void setEdgeTarget(GadDagEdge e, Long targetVertex)
+    {
+      getIntrusiveEdge(e).target = targetVertex;
+    }
+
+    public GadDagEdgeSet getOutgoingEdges(long vertex)
+    {
+      return (GadDagEdgeSet) outgoingEdgesOf(vertex);
+    }
+
+    /**
+     * Removes a vertex and its outgoing edges, leaving incoming edge
+     * containers alone.
+     *
+     * @param vertex
+     */
+    public void pruneVertex(Long vertex)
+    {
+      for (GadDagEdge e : outgoingEdgesOf(vertex)) {
+        edgeMap.remove(e);
+      }
+
+      getVertexSet().remove(vertex);
+    }
   }
 
   /**
@@ -890,6 +1032,331 @@ public class GraphForGadDag
     }
   }
 
+  /**
+   * Specifics for GADDAG mode. Each vertex indexes an array of outgoing edge
+   * sets (offset by one so that {@link GadDag#NULL_STATE} fits), and edges
+   * store their target vertex as an int. There are no incoming edge sets and
+   * no edge map.
+   */
+  private class GadDagSpecifics
+          extends Specifics
+          implements Serializable
+  {
+    private static final long serialVersionUID = -2870476815950335384L;
+    private static final String NOT_IN_GADDAG_MODE =
+            "no such operation in GADDAG mode";
+    private static final int VERTEX_OFFSET = 1;
+
+    private GadDagEdgeSet[] outgoing = new GadDagEdgeSet[16];
+    private int numVertices = 0;
+    private int numEdges = 0;
+
+    private final Set<Long> vertexSet = new VertexSet();
+    private final Set<GadDagEdge> edgeSet = new EdgeSet();
+
+    public void addVertex(Long v)
+    {
+      int index = getIndex(v);
+
+      if (index >= outgoing.length) {
+        outgoing = Arrays.copyOf(outgoing, Math.max(index + 1, 2 * outgoing.length));
+      }
+
+      outgoing[index] = (GadDagEdgeSet) edgeSetFactory.createEdgeSet(v);
+      numVertices++;
+    }
+
+    public Set<Long> getVertexSet()
+    {
+      return vertexSet;
+    }
+
+    /**
+     * @see Graph#getAllEdges(Object, Object)
+     */
+    public Set<GadDagEdge> getAllEdges(Long sourceVertex, Long targetVertex)
+    {
+      Set<GadDagEdge> edges = null;
+
+      if (containsVertex(sourceVertex)
+              && containsVertex(targetVertex))
+      {
+        edges = new ArrayUnenforcedSet<GadDagEdge>();
+
+        for (GadDagEdge e : getOutgoingEdges(sourceVertex)) {
+          if (e.getTargetVertex() == targetVertex) {
+            edges.add(e);
+          }
+        }
+      }
+
+      return edges;
+    }
+
+    /**
+     * @see Graph#getEdge(Object, Object)
+     */
+    public GadDagEdge getEdge(Long sourceVertex, Long targetVertex)
+    {
+      if (containsVertex(sourceVertex)
+              && containsVertex(targetVertex))
+      {
+        for (GadDagEdge e : getOutgoingEdges(sourceVertex)) {
+          if (e.getTargetVertex() == targetVertex) {
+            return e;
+          }
+        }
+      }
+
+      return null;
+    }
+
+    public void addEdge(GadDagEdge e, Long sourceVertex, Long targetVertex)
+    {
+      e.setTargetVertex(targetVertex.intValue());
+
+      if (getOutgoingEdges(sourceVertex).add(e)) {
+        numEdges++;
+      }
+    }
+
+    public void addEdgeToTouchingVertices(GadDagEdge e)
+    {
+      throw new UnsupportedOperationException(NOT_IN_GADDAG_MODE);
+    }
+
+    public int degreeOf(Long vertex)
+    {
+      throw new UnsupportedOperationException(NOT_IN_GADDAG_MODE);
+    }
+
+    public Set<GadDagEdge> edgesOf(Long vertex)
+    {
+      throw new UnsupportedOperationException(NOT_IN_GADDAG_MODE);
+    }
+
+    public int inDegreeOf(Long vertex)
+    {
+      throw new UnsupportedOperationException(NOT_IN_GADDAG_MODE);
+    }
+
+    public Set<GadDagEdge> incomingEdgesOf(Long vertex)
+    {
+      throw new UnsupportedOperationException(NOT_IN_GADDAG_MODE);
+    }
+
+    public int outDegreeOf(Long vertex)
+    {
+      return getOutgoingEdges(vertex).size();
+    }
+
+    public Set<GadDagEdge> outgoingEdgesOf(Long vertex)
+    {
+      return getOutgoingEdges(vertex);
+    }
+
+    public void removeEdgeFromTouchingVertices(GadDagEdge e)
+    {
+      throw new UnsupportedOperationException(NOT_IN_GADDAG_MODE);
+    }
+
+    public boolean containsEdge(GadDagEdge e)
+    {
+      return e.getTargetVertex() != GadDagEdge.NO_VERTEX;
+    }
+
+    public Set<GadDagEdge> getEdgeSet()
+    {
+      return edgeSet;
+    }
+
+    public Long getEdgeSource(GadDagEdge e)
+    {
+      throw new UnsupportedOperationException(NOT_IN_GADDAG_MODE);
+    }
+
+    public Long getEdgeTarget(GadDagEdge e)
+    {
+      return (long) e.getTargetVertex();
+    }
+
+    public long getEdgeTargetVertex(GadDagEdge e)
+    {
+      return e.getTargetVertex();
+    }
+
+    public void setEdgeTarget(GadDagEdge e, Long targetVertex)
+    {
+      e.setTargetVertex(targetVertex.intValue());
+    }
+
+    public GadDagEdgeSet getOutgoingEdges(long vertex)
+    {
+      GadDagEdgeSet edges = null;
+      long index = vertex + VERTEX_OFFSET;
+
+      if (index >= 0 && index < outgoing.length) {
+        edges = outgoing[(int) index];
+      }
+
+      if (edges == null) {
+        throw new IllegalArgumentException("no such vertex in graph: " + vertex);
+      }
+
+      return edges;
+    }
+
+    public void pruneVertex(Long vertex)
+    {
+      GadDagEdgeSet edges = getOutgoingEdges(vertex);
+
+      for (GadDagEdge e : edges) {
+        e.setTargetVertex(GadDagEdge.NO_VERTEX);
+      }
+
+      numEdges -= edges.size();
+      outgoing[getIndex(vertex)] = null;
+      numVertices--;
+    }
+
+    private int getIndex(Long vertex)
+    {
+      long index = vertex + VERTEX_OFFSET;
+
+      if (index < 0 || index > Integer.MAX_VALUE - 1) {
+        throw new IllegalArgumentException("vertex out of range for GADDAG mode: " + vertex);
+      }
+
+      return (int) index;
+    }
+
+    /**
+     * View of the vertices that have an outgoing edge set.
+     */
+    private class VertexSet
+            extends AbstractSet<Long>
+            implements Serializable
+    {
+      private static final long serialVersionUID = 4417367163577870153L;
+
+      public int size()
+      {
+        return numVertices;
+      }
+
+      public boolean contains(Object o)
+      {
+        if (!(o instanceof Long)) {
+          return false;
+        }
+
+        long index = (Long) o + VERTEX_OFFSET;
+
+        return index >= 0 && index < outgoing.length && outgoing[(int) index] != null;
+      }
+
+      public boolean remove(Object o)
+      {
+        if (contains(o)) {
+          pruneVertex((Long) o);
+
+          return true;
+        } else {
+          return false;
+        }
+      }
+
+      public Iterator<Long> iterator()
+      {
+        return new Iterator<Long>() {
+          private int next = advance(0);
+
+          public boolean hasNext()
+          {
+            return next < outgoing.length;
+          }
+
+          public Long next()
+          {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+
+            int index = next;
+            next = advance(index + 1);
+
+            return (long) (index - VERTEX_OFFSET);
+          }
+
+          public void remove()
+          {
+            throw new UnsupportedOperationException();
+          }
+
+          private int advance(int index)
+          {
+            while (index < outgoing.length && outgoing[index] == null) {
+              index++;
+            }
+
+            return index;
+          }
+        };
+      }
+    }
+
+    /**
+     * View of the edges in every vertex's outgoing edge set.
+     */
+    private class EdgeSet
+            extends AbstractSet<GadDagEdge>
+            implements Serializable
+    {
+      private static final long serialVersionUID = -3146410373209389848L;
+
+      public int size()
+      {
+        return numEdges;
+      }
+
+      public boolean contains(Object o)
+      {
+        return o instanceof GadDagEdge && containsEdge((GadDagEdge) o);
+      }
+
+      public Iterator<GadDagEdge> iterator()
+      {
+        return new Iterator<GadDagEdge>() {
+          private final Iterator<Long> vertices = vertexSet.iterator();
+          private Iterator<GadDagEdge> edges = Collections.<GadDagEdge>emptySet().iterator();
+
+          public boolean hasNext()
+          {
+            while (!edges.hasNext() && vertices.hasNext()) {
+              edges = getOutgoingEdges(vertices.next()).iterator();
+            }
+
+            return edges.hasNext();
+          }
+
+          public GadDagEdge next()
+          {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+
+            return edges.next();
+          }
+
+          public void remove()
+          {
+            throw new UnsupportedOperationException();
+          }
+        };
+      }
+    }
+  }
+
   /**
    * A container of for vertex edges.
    *
@@ -0,0 +1,219 @@
+package org.sidoh.words_with_robots.data_structures.gaddag;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+
+/**
+ * Builds a minimal GADDAG without ever holding the unminimized graph, using the incremental
+ * construction for sorted input described by Daciuk et al. Paths are added in lexicographic order,
+ * so once a path diverges from the previous one, the states below the point where they diverge can't
+ * change anymore. Those states are frozen right away: each is either replaced by an equivalent state
+ * from the register or added to it.
+ *
+ * A GADDAG's paths don't come out in order even when the words do, so the words are kept (as one
+ * block of characters) and the paths are generated one first letter at a time. Each letter's paths
+ * are sorted before they're added, and since every path starting with one letter sorts before every
+ * path starting with the next, the whole GADDAG is built in a single ordered pass.
+ */
+class IncrementalGadDagBuilder {
+  private static final Logger LOG = LoggerFactory.getLogger(IncrementalGadDagBuilder.class);
+
+  private final GadDag gaddag;
+  private final Map<GadDag.StateSignature, Long> register = new HashMap<GadDag.StateSignature, Long>();
+
+  // The words, concatenated
+  private final StringBuilder letters = new StringBuilder();
+  private int[] wordOffsets = new int[1024];
+  private int numWords = 0;
+
+  // The path that was added last. pathEdges[i] leads from pathStates[i] to pathStates[i + 1].
+  private long[] pathStates = new long[16];
+  private GadDagEdge[] pathEdges = new GadDagEdge[16];
+  private int pathLength = 0;
+
+  private int statesMerged = 0;
+
+  IncrementalGadDagBuilder(GadDag gaddag) {
+    this.gaddag = gaddag;
+    this.pathStates[0] = gaddag.getInitialState();
+  }
+
+  /**
+   * @param reader word list with one word per line. Isn't closed.
+   * @return number of words loaded
+   * @throws IOException
+   */
+  int load(Reader reader) throws IOException {
+    long start = System.currentTimeMillis();
+    SortedSet<Character> firstLetters = readWords(reader);
+
+    for (char firstLetter : firstLetters) {
+      List<String> paths = getPaths(firstLetter);
+      Collections.sort(paths);
+
+      String previous = null;
+      for (String path : paths) {
+        if (! path.equals(previous)) {
+          addPath(path);
+        }
+        previous = path;
+      }
+    }
+
+    freeze(0);
+    gaddag.getOutgoingEdges(gaddag.getInitialState()).compact();
+
+    LOG.info("Built minimal GADDAG with {} states and {} edges from {} words in {} ms ({} states merged)",
+      gaddag.vertexSet().size(), gaddag.edgeSet().size(), numWords, System.currentTimeMillis() - start, statesMerged);
+
+    return numWords;
+  }
+
+  /**
+   * @return the distinct letters in the words, which are the letters paths can start with
+   */
+  private SortedSet<Character> readWords(Reader reader) throws IOException {
+    SortedSet<Character> firstLetters = Sets.newTreeSet();
+    BufferedReader lineReader = new BufferedReader(reader);
+    String line = lineReader.readLine();
+
+    while (line != null) {
+      if (line.length() == 0) {
+        line = lineReader.readLine();
+        continue;
+      }
+
+      if (numWords + 1 >= wordOffsets.length) {
+        wordOffsets = Arrays.copyOf(wordOffsets, 2 * wordOffsets.length);
+      }
+
+      letters.append(line);
+      wordOffsets[++numWords] = letters.length();
+
+      for (int i = 0; i < line.length(); i++) {
+        firstLetters.add(line.charAt(i));
+      }
+
+      line = lineReader.readLine();
+    }
+
+    return firstLetters;
+  }
+
+  /**
+   * Builds the paths starting with the provided letter. These are the same paths
+   * {@link GadDag#addWordPaths(String, char)} adds. Each path is encoded as its arc letters followed
+   * by the word letter on its last arc, which sorts the same way as the arc letters alone.
+   */
+  private List<String> getPaths(char firstLetter) {
+    List<String> paths = Lists.newArrayList();
+    StringBuilder path = new StringBuilder();
+
+    for (int w = 0; w < numWords; w++) {
+      int start = wordOffsets[w];
+      int n = wordOffsets[w + 1] - start;
+
+      // a_n a_(n-1) ... a_1, which is the word reversed
+      if (letters.charAt(start + n - 1) == firstLetter) {
+        path.setLength(0);
+        for (int i = n - 1; i >= 0; i--) {
+          path.append(letters.charAt(start + i));
+        }
+        paths.add(path.toString());
+      }
+
+      // a_i ... a_1 <> a_(i+1) ... a_n
+      for (int i = n - 2; i >= 0; i--) {
+        if (letters.charAt(start + i) != firstLetter) {
+          continue;
+        }
+
+        path.setLength(0);
+        for (int j = i; j >= 0; j--) {
+          path.append(letters.charAt(start + j));
+        }
+        path.append(GadDag.CONCAT_OPERATOR);
+        path.append(letters, start + i + 1, start + n);
+        paths.add(path.toString());
+      }
+    }
+
+    return paths;
+  }
+
+  /**
+   * Adds a path that sorts after every path added so far.
+   *
+   * @param path arc letters followed by the word letter for the last arc
+   */
+  private void addPath(String path) {
+    int numArcs = path.length() - 1;
+    int prefix = 0;
+
+    while (prefix < pathLength && prefix < numArcs
+      && pathEdges[prefix].getDestinationLetter() == path.charAt(prefix)) {
+      prefix++;
+    }
+
+    // Nothing will be added below the part of the previous path that this one doesn't share
+    freeze(prefix);
+
+    if (numArcs >= pathEdges.length) {
+      pathStates = Arrays.copyOf(pathStates, 2 * (numArcs + 1));
+      pathEdges = Arrays.copyOf(pathEdges, 2 * (numArcs + 1));
+    }
+
+    for (int i = prefix; i < numArcs; i++) {
+      long st = gaddag.getNewState();
+      gaddag.addVertex(st);
+
+      GadDagEdge edge = gaddag.createEdge(path.charAt(i));
+      gaddag.addEdgeUnchecked(pathStates[i], st, edge);
+
+      pathEdges[i] = edge;
+      pathStates[i + 1] = st;
+    }
+
+    pathEdges[numArcs - 1].addWordLetter(path.charAt(numArcs));
+    pathLength = numArcs;
+  }
+
+  /**
+   * Freezes the states on the current path below the provided depth, deepest first so that each
+   * state's children are already in the register when its signature is computed.
+   *
+   * @param depth
+   */
+  private void freeze(int depth) {
+    for (int i = pathLength; i > depth; i--) {
+      long st = pathStates[i];
+      gaddag.getOutgoingEdges(st).compact();
+
+      GadDag.StateSignature signature = new GadDag.StateSignature(gaddag, st);
+      Long equivalent = register.get(signature);
+
+      if (equivalent == null) {
+        register.put(signature, st);
+      }
+      else {
+        gaddag.setEdgeTarget(pathEdges[i - 1], equivalent);
+        gaddag.releaseState(st);
+        statesMerged++;
+      }
+    }
+
+    pathLength = depth;
+  }
+}
@@ -0,0 +1,188 @@
+package org.sidoh.words_with_robots.data_structures.gaddag;
+
+import com.google.common.collect.Lists;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds a GADDAG on several threads. Every path in a GADDAG starts with one of the word's letters, so
+ * words are partitioned by the first letter of each of their paths and the subgraph under each of the
+ * initial state's arcs is built and minimized independently. The subgraphs are then grafted under a
+ * single initial state and minimized again to merge states they have in common.
+ *
+ * The minimal GADDAG for a word list is unique, so the result is identical to loading the same words
+ * into a {@link GadDag} and calling {@link GadDag#compact()} and {@link GadDag#minimize()}.
+ */
+public class ParallelGadDagBuilder {
+  private static final Logger LOG = LoggerFactory.getLogger(ParallelGadDagBuilder.class);
+
+  private final int numThreads;
+
+  public ParallelGadDagBuilder() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  public ParallelGadDagBuilder(int numThreads) {
+    if (numThreads < 1) {
+      throw new IllegalArgumentException("Need at least one thread");
+    }
+    this.numThreads = numThreads;
+  }
+
+  /**
+   * Build a GADDAG from a word list with one word per line. The reader isn't closed.
+   *
+   * @param reader
+   * @return a compacted and minimized GADDAG
+   * @throws IOException
+   */
+  public GadDag build(Reader reader) throws IOException {
+    List<String> words = Lists.newArrayList();
+    BufferedReader lineReader = new BufferedReader(reader);
+    String line = lineReader.readLine();
+
+    while (line != null) {
+      words.add(line);
+      line = lineReader.readLine();
+    }
+
+    return build(words);
+  }
+
+  /**
+   * Build a GADDAG from a list of words.
+   *
+   * @param words
+   * @return a compacted and minimized GADDAG
+   */
+  public GadDag build(List<String> words) {
+    long start = System.currentTimeMillis();
+    List<Partition> partitions = partition(words);
+
+    // Start the biggest partitions first so that a large one doesn't end up running on its own at the end
+    List<Partition> bySize = Lists.newArrayList(partitions);
+    Collections.sort(bySize, new Comparator<Partition>() {
+      @Override
+      public int compare(Partition partition, Partition partition1) {
+        return partition1.words.size() - partition.words.size();
+      }
+    });
+
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+
+    try {
+      for (Partition partition : bySize) {
+        partition.subgraph = executor.submit(partition);
+      }
+
+      GadDag gaddag = new GadDag();
+
+      // Graft in letter order so that the result doesn't depend on which partitions finish first
+      for (Partition partition : partitions) {
+        gaddag.graft(partition.subgraph.get());
+        partition.subgraph = null;
+      }
+
+      LOG.info("Built {} GADDAG partitions on {} threads in {} ms",
+        partitions.size(), numThreads, System.currentTimeMillis() - start);
+
+      gaddag.compact();
+      gaddag.minimize();
+
+      LOG.info("Built GADDAG from {} words in {} ms", words.size(), System.currentTimeMillis() - start);
+
+      return gaddag;
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+    catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Groups words by the first letters of their paths. A word ends up in the partition for each distinct
+   * letter it contains.
+   *
+   * @param words
+   * @return partitions sorted by letter
+   */
+  protected static List<Partition> partition(List<String> words) {
+    Partition[] byLetter = new Partition[FrozenGadDag.NUM_LETTERS];
+
+    for (String word : words) {
+      int seen = 0;
+
+      for (int i = 0; i < word.length(); i++) {
+        char letter = word.charAt(i);
+        int position = FrozenGadDag.getLetterPosition(letter);
+
+        if (position < 0 || position >= FrozenGadDag.NUM_LETTERS) {
+          throw new IllegalArgumentException("Unsupported letter in word: " + word);
+        }
+
+        if ((seen & (1 << position)) == 0) {
+          seen |= (1 << position);
+
+          if (byLetter[position] == null) {
+            byLetter[position] = new Partition(letter);
+          }
+          byLetter[position].words.add(word);
+        }
+      }
+    }
+
+    List<Partition> partitions = Lists.newArrayList();
+    for (Partition partition : byLetter) {
+      if (partition != null) {
+        partitions.add(partition);
+      }
+    }
+
+    return partitions;
+  }
+
+  /**
+   * Words whose paths start with the same letter, and the task that builds the subgraph for them.
+   */
+  protected static class Partition implements Callable<GadDag> {
+    private final char letter;
+    private final List<String> words = Lists.newArrayList();
+    private Future<GadDag> subgraph;
+
+    public Partition(char letter) {
+      this.letter = letter;
+    }
+
+    @Override
+    public GadDag call() {
+      GadDag gaddag = new GadDag();
+
+      for (String word : words) {
+        gaddag.addWordPaths(word, letter);
+      }
+
+      gaddag.compact();
+      gaddag.minimize();
+
+      return gaddag;
+    }
+  }
+}
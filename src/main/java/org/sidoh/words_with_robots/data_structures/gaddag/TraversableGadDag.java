@@ -0,0 +1,44 @@
+package org.sidoh.words_with_robots.data_structures.gaddag;
+
+/**
+ * Defines the read-only operations move generation needs from a GADDAG. Arcs are referred to by int
+ * handles rather than objects so that implementations backed by primitive arrays can be traversed
+ * without allocating anything. A handle is only meaningful to the instance that produced it.
+ *
+ * Implementations have to allow these operations to be called from several threads at once, as long as
+ * nothing is modifying the GADDAG at the same time. Move generation traverses the same instance from
+ * every thread it runs on.
+ */
+public interface TraversableGadDag {
+  /**
+   * Returned in place of an arc handle when the requested arc doesn't exist
+   */
+  public static final int NULL_ARC = -1;
+
+  /**
+   * @return handle for the arc leading into the initial state. Traversals should start here.
+   */
+  public int getInitArc();
+
+  /**
+   * Follow an arc and find the outgoing arc for the provided letter from the state it points to.
+   *
+   * @param arc handle for the arc to follow
+   * @param letter letter on the outgoing arc
+   * @return handle for the outgoing arc, or NULL_ARC if there isn't one
+   */
+  public int nextArc(int arc, char letter);
+
+  /**
+   * @param arc handle for an arc
+   * @param letter
+   * @return true if following the arc and then appending the provided letter completes a word
+   */
+  public boolean hasWordLetter(int arc, char letter);
+
+  /**
+   * @param word
+   * @return true iff the provided word is in the dictionary
+   */
+  public boolean isWord(String word);
+}
@@ -4,6 +4,8 @@ import org.sidoh.wwf_api.game_state.Board;
 import org.sidoh.wwf_api.game_state.Move;
 import org.sidoh.wwf_api.types.game_state.Rack;
 
+import java.util.List;
+
 public interface AllMovesGenerator<T extends Board> {
   /**
    * Given a board and a rack, generate all possible moves.
@@ -14,6 +16,29 @@ public interface AllMovesGenerator<T extends Board> {
    */
   public Iterable<Move> generateAllMoves(Rack rack, T board);
 
+  /**
+   * Given a board and a rack, generate all possible moves and pass each one to the visitor as it's
+   * found, in the order generateAllMoves would give them. Generation stops as soon as the visitor
+   * returns false.
+   *
+   * @param rack
+   * @param board
+   * @param visitor
+   * @return false if the visitor stopped generation early
+   */
+  public boolean generateAllMoves(Rack rack, T board, MoveVisitor visitor);
+
+  /**
+   * Given a board and a rack, generate the k highest scoring moves. Moves with the same score come in
+   * the order generateAllMoves would give them.
+   *
+   * @param rack
+   * @param board
+   * @param k maximum number of moves to return
+   * @return the moves, highest scoring first
+   */
+  public List<Move> generateTopMoves(Rack rack, T board, int k);
+
   /**
    * Returns the rank of the provided move in relation to a list of all moves.
    *
@@ -23,6 +48,17 @@ public interface AllMovesGenerator<T extends Board> {
    */
   public int getMoveScoreRank(Iterable<Move> allMoves, Move move);
 
+  /**
+   * Returns the rank of the provided move in relation to all moves possible with the provided rack,
+   * without keeping the moves around.
+   *
+   * @param rack
+   * @param board
+   * @param move the move in question
+   * @return
+   */
+  public int getMoveScoreRank(Rack rack, T board, Move move);
+
   /**
    *
    * @param board
@@ -0,0 +1,178 @@
+package org.sidoh.words_with_robots.move_generation;
+
+import org.sidoh.wwf_api.game_state.TileBuilder;
+import org.sidoh.wwf_api.game_state.WordsWithFriendsBoard;
+import org.sidoh.wwf_api.types.game_state.Letter;
+import org.sidoh.wwf_api.types.game_state.Tile;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * The tiles on a rack, counted by letter. Move generation takes tiles out and puts them back as it
+ * goes, so nothing is copied, and tiles with the same letter are only tried once.
+ *
+ * Each letter has a slot. Blanks bound to a letter are worth less than a tile with the same letter, so
+ * they're counted in a separate slot for each letter. Blanks that aren't bound yet go in
+ * {@link #BLANK_SLOT}, and are bound to whichever letter they're played as with
+ * {@link #takeBlank(int)}.
+ */
+public class CountedRack {
+  public static final int NUM_LETTERS = 26;
+  public static final int NUM_SLOTS = 2 * NUM_LETTERS;
+  public static final int BLANK_SLOT = NUM_SLOTS;
+
+  private static final Letter[] LETTERS = new Letter[NUM_LETTERS];
+  static {
+    for (TileBuilder tileBuilder : WordsWithFriendsBoard.TILES) {
+      Letter letter = tileBuilder.build().getLetter();
+
+      if ( ! letter.getValue().equals(WordsWithFriendsBoard.BLANK_LETTER) ) {
+        LETTERS[getLetterIndex(letter.getValue())] = letter;
+      }
+    }
+  }
+
+  // Tiles grouped by slot. The tiles for a slot that haven't been taken are
+  // tiles[starts[slot]] through tiles[starts[slot] + counts[slot] - 1].
+  private final Tile[] tiles;
+  private final int[] starts;
+  private final int[] counts;
+  private int size;
+
+  // Copies of the unbound blanks bound to each letter, indexed by position in tiles. They're made the
+  // first time they're needed.
+  private Tile[][] boundBlanks;
+
+  public CountedRack(Collection<Tile> rackTiles) {
+    this.tiles = new Tile[rackTiles.size()];
+    this.starts = new int[NUM_SLOTS + 1];
+    this.counts = new int[NUM_SLOTS + 1];
+
+    for (Tile tile : rackTiles) {
+      counts[getSlot(tile)]++;
+    }
+
+    for (int slot = 1; slot <= BLANK_SLOT; slot++) {
+      starts[slot] = starts[slot - 1] + counts[slot - 1];
+    }
+
+    // Counts are rebuilt as tiles are put in their slots
+    Arrays.fill(counts, 0);
+    for (Tile tile : rackTiles) {
+      int slot = getSlot(tile);
+      tiles[starts[slot] + counts[slot]++] = tile;
+    }
+
+    this.size = tiles.length;
+  }
+
+  /**
+   * @return number of tiles that haven't been taken
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return total value of the tiles that haven't been taken
+   */
+  public int getValue() {
+    int value = 0;
+    for (int slot = 0; slot <= BLANK_SLOT; slot++) {
+      for (int i = 0; i < counts[slot]; i++) {
+        value += tiles[starts[slot] + i].getValue();
+      }
+    }
+
+    return value;
+  }
+
+  /**
+   * @param slot
+   * @return true if there's a tile in the slot that hasn't been taken
+   */
+  public boolean has(int slot) {
+    return counts[slot] > 0;
+  }
+
+  /**
+   * Take a tile out of a slot. It should be put back with {@link #putBack(int)} once it's no longer
+   * being used, in the reverse order tiles were taken.
+   *
+   * @param slot
+   * @return the tile
+   */
+  public Tile take(int slot) {
+    size--;
+    return tiles[starts[slot] + --counts[slot]];
+  }
+
+  /**
+   * Take an unbound blank out of {@link #BLANK_SLOT}, bound to a letter. The blank is still worth 0
+   * points. It should be put back in {@link #BLANK_SLOT} like any other tile.
+   *
+   * @param letterIndex the letter to bind the blank to, starting at 0 for 'A'
+   * @return a copy of the blank bound to the letter
+   */
+  public Tile takeBlank(int letterIndex) {
+    int position = starts[BLANK_SLOT] + --counts[BLANK_SLOT];
+    size--;
+
+    if (boundBlanks == null) {
+      boundBlanks = new Tile[tiles.length][];
+    }
+    if (boundBlanks[position] == null) {
+      boundBlanks[position] = new Tile[NUM_LETTERS];
+    }
+
+    Tile bound = boundBlanks[position][letterIndex];
+    if (bound == null) {
+      bound = tiles[position].deepCopy().setLetter(LETTERS[letterIndex]);
+      boundBlanks[position][letterIndex] = bound;
+    }
+
+    return bound;
+  }
+
+  /**
+   * Put back the last tile taken from a slot
+   *
+   * @param slot
+   */
+  public void putBack(int slot) {
+    size++;
+    counts[slot]++;
+  }
+
+  /**
+   * @param slot
+   * @return the letter for tiles in the slot, starting at 0 for 'A'
+   */
+  public static int getLetterIndex(int slot) {
+    return slot % NUM_LETTERS;
+  }
+
+  private static int getLetterIndex(String letter) {
+    return Character.toUpperCase(letter.charAt(0)) - 'A';
+  }
+
+  /**
+   * @param tile
+   * @return the slot the tile goes in
+   */
+  static int getSlot(Tile tile) {
+    if (tile.getLetter().getValue().equals(WordsWithFriendsBoard.BLANK_LETTER)) {
+      return BLANK_SLOT;
+    }
+
+    int letter = getLetterIndex(tile.getLetter().getValue());
+
+    if (letter < 0 || letter >= NUM_LETTERS) {
+      throw new IllegalArgumentException("Tile doesn't have a letter: " + tile);
+    }
+
+    // Blanks that have already been bound to a letter are still worth 0 points
+    return tile.getValue() == 0 ? NUM_LETTERS + letter : letter;
+  }
+}
@@ -0,0 +1,69 @@
+package org.sidoh.words_with_robots.move_generation;
+
+import org.sidoh.wwf_api.game_state.Move;
+import org.sidoh.wwf_api.game_state.WordsWithFriendsBoard;
+import org.sidoh.wwf_api.types.game_state.Rack;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Defines an all moves generator that can use {@link CrossChecks} kept by the caller. Searches that make
+ * and undo moves on the same board can update the cross-checks as they go instead of having them
+ * computed from scratch for every position.
+ */
+public interface CrossCheckedMovesGenerator extends AllMovesGenerator<WordsWithFriendsBoard> {
+  /**
+   * @param board
+   * @return cross-checks for the provided board
+   */
+  public CrossChecks getCrossChecks(WordsWithFriendsBoard board);
+
+  /**
+   * Given a board, a rack and cross-checks for the board, generate all possible moves. The cross-checks
+   * shouldn't change while the moves are iterated over.
+   *
+   * @param rack
+   * @param board
+   * @param crossChecks
+   * @return
+   */
+  public Iterable<Move> generateAllMoves(Rack rack, WordsWithFriendsBoard board, CrossChecks crossChecks);
+
+  /**
+   * Like {@link #generateAllMoves(Rack, WordsWithFriendsBoard, CrossChecks)}, but moves for different
+   * anchors are generated by tasks run by the provided executor. Neither the board nor the cross-checks
+   * should change until this returns.
+   *
+   * @param rack
+   * @param board
+   * @param crossChecks
+   * @param executor
+   * @return
+   */
+  public List<Move> generateAllMoves(Rack rack, WordsWithFriendsBoard board, CrossChecks crossChecks, ExecutorService executor);
+
+  /**
+   * Like {@link #generateAllMoves(Rack, WordsWithFriendsBoard, CrossChecks)}, but the moves come with the
+   * score each one is worth instead of a result. Moves that are going to be used should be given a
+   * result with {@link WordsWithFriendsBoard#scoreMove(Move)}.
+   *
+   * @param rack
+   * @param board
+   * @param crossChecks
+   * @return
+   */
+  public ScoredMoves generateScoredMoves(Rack rack, WordsWithFriendsBoard board, CrossChecks crossChecks);
+
+  /**
+   * Like {@link #generateScoredMoves(Rack, WordsWithFriendsBoard, CrossChecks)}, but only the k highest
+   * scoring moves are kept, highest first.
+   *
+   * @param rack
+   * @param board
+   * @param crossChecks
+   * @param k maximum number of moves to return
+   * @return
+   */
+  public ScoredMoves generateTopMoves(Rack rack, WordsWithFriendsBoard board, CrossChecks crossChecks, int k);
+}
@@ -0,0 +1,437 @@
+package org.sidoh.words_with_robots.move_generation;
+
+import org.sidoh.words_with_robots.data_structures.gaddag.TraversableGadDag;
+import org.sidoh.wwf_api.game_state.Move;
+import org.sidoh.wwf_api.game_state.WordsWithFriendsBoard;
+import org.sidoh.wwf_api.types.game_state.Tile;
+import org.sidoh.wwf_api.types.game_state.WordOrientation;
+
+import java.util.Arrays;
+
+/**
+ * The letters that can be played on each empty square without forming an invalid word across the
+ * play. A horizontal play forms a vertical word with the tiles above and below each tile it places,
+ * and vice versa. Letters are stored as bitmasks with bit 0 for 'A', so checking a letter is a
+ * single lookup.
+ *
+ * For a square with tiles above (U) and below (D), the letters L that make U + L + D a word are
+ * found by walking D backwards from the GADDAG's initial state once, then trying each letter and
+ * walking U backwards from it. That's the reversed path the GADDAG stores for every word.
+ *
+ * Alongside each mask is the score of the tiles already in the word across the play, so that moves can
+ * be scored as they're generated. It's {@link #NO_CROSS_WORD} if there aren't any.
+ *
+ * Cross-checks also track the anchors: empty squares next to a tile. They can be kept up to date as
+ * moves are made with {@link #update(WordsWithFriendsBoard, Move)}, which only recomputes the squares
+ * at the ends of the lines through the new tiles, and {@link #rollback()} undoes the last update. This
+ * is meant for searches that make a move, look ahead and then back up.
+ *
+ * Cross-checks are only meaningful for the GADDAG they were computed with, so they hold on to it.
+ */
+public class CrossChecks {
+  public static final int ALL_LETTERS = (1 << 26) - 1;
+  public static final int NO_CROSS_WORD = -1;
+
+  private static final int DIMENSIONS = WordsWithFriendsBoard.DIMENSIONS;
+
+  // Each undo log entry is the slot index followed by its previous state
+  private static final int UNDO_ENTRY_SIZE = 6;
+  private static final int OCCUPIED = 1;
+  private static final int ANCHOR = 2;
+
+  private final TraversableGadDag gaddag;
+
+  // Indexed by slot index. For horizontal plays, these check the vertical words, and vice versa.
+  private final int[] horizontal;
+  private final int[] vertical;
+  private final int[] horizontalScores;
+  private final int[] verticalScores;
+  private final boolean[] occupied;
+  private final boolean[] anchors;
+  private final boolean exact;
+
+  // Changes made by update, so that they can be rolled back. marks has the size of the log before
+  // each update.
+  private int[] undoLog = new int[64 * UNDO_ENTRY_SIZE];
+  private int undoSize;
+  private int[] marks = new int[8];
+  private int numMarks;
+
+  // Squares that tiles were placed on by the update in progress
+  private final int[] placed = new int[DIMENSIONS];
+
+  private CrossChecks(TraversableGadDag gaddag, int[] horizontal, int[] vertical, boolean exact) {
+    this.gaddag = gaddag;
+    this.horizontal = horizontal;
+    this.vertical = vertical;
+    this.horizontalScores = new int[DIMENSIONS * DIMENSIONS];
+    this.verticalScores = new int[DIMENSIONS * DIMENSIONS];
+    this.occupied = new boolean[DIMENSIONS * DIMENSIONS];
+    this.anchors = new boolean[DIMENSIONS * DIMENSIONS];
+    this.exact = exact;
+  }
+
+  /**
+   * Compute cross-checks for every empty square on a board.
+   *
+   * @param gaddag dictionary to check words against
+   * @param board
+   * @return
+   */
+  public static CrossChecks compute(TraversableGadDag gaddag, WordsWithFriendsBoard board) {
+    int[] horizontal = new int[DIMENSIONS * DIMENSIONS];
+    int[] vertical = new int[DIMENSIONS * DIMENSIONS];
+
+    for (int index = 0; index < horizontal.length; index++) {
+      if (board.getSlot(index).getTile() == null) {
+        horizontal[index] = computeAllowedLetters(gaddag, board, index, DIMENSIONS);
+        vertical[index] = computeAllowedLetters(gaddag, board, index, 1);
+      }
+    }
+
+    return new CrossChecks(gaddag, horizontal, vertical, true).findAnchors(board);
+  }
+
+  /**
+   * @param gaddag
+   * @param board
+   * @return cross-checks that allow every letter everywhere. Moves generated with these need to be
+   *   validated afterwards.
+   */
+  public static CrossChecks allowAll(TraversableGadDag gaddag, WordsWithFriendsBoard board) {
+    int[] allowed = new int[DIMENSIONS * DIMENSIONS];
+    Arrays.fill(allowed, ALL_LETTERS);
+
+    return new CrossChecks(gaddag, allowed, allowed, false).findAnchors(board);
+  }
+
+  /**
+   * @return cross-checks for the same board that are updated separately from these. The copy can't roll
+   *   back updates made before it was copied.
+   */
+  public CrossChecks copy() {
+    int[] horizontalCopy = horizontal.clone();
+    int[] verticalCopy = vertical == horizontal ? horizontalCopy : vertical.clone();
+    CrossChecks copy = new CrossChecks(gaddag, horizontalCopy, verticalCopy, exact);
+
+    System.arraycopy(horizontalScores, 0, copy.horizontalScores, 0, horizontalScores.length);
+    System.arraycopy(verticalScores, 0, copy.verticalScores, 0, verticalScores.length);
+    System.arraycopy(occupied, 0, copy.occupied, 0, occupied.length);
+    System.arraycopy(anchors, 0, copy.anchors, 0, anchors.length);
+
+    return copy;
+  }
+
+  /**
+   * @return the GADDAG these cross-checks were computed with
+   */
+  public TraversableGadDag getGadDag() {
+    return gaddag;
+  }
+
+  /**
+   * @return true if only the letters that form valid words are allowed
+   */
+  public boolean isExact() {
+    return exact;
+  }
+
+  /**
+   * @param orientation orientation of the play
+   * @return bitmask of allowed letters for each slot index. Only meaningful for empty squares.
+   */
+  public int[] getAllowedLetters(WordOrientation orientation) {
+    return orientation == WordOrientation.HORIZONTAL ? horizontal : vertical;
+  }
+
+  /**
+   * @param orientation orientation of the play
+   * @return score of the tiles in the word formed across the play through each slot index, not counting
+   *   the tile placed there, or NO_CROSS_WORD if there are none. Only meaningful for empty squares.
+   */
+  public int[] getCrossScores(WordOrientation orientation) {
+    return orientation == WordOrientation.HORIZONTAL ? horizontalScores : verticalScores;
+  }
+
+  /**
+   * @param index slot index
+   * @param orientation orientation of the play
+   * @param letter
+   * @return true if the provided letter can be played on the square
+   */
+  public boolean isAllowed(int index, WordOrientation orientation, char letter) {
+    return (getAllowedLetters(orientation)[index] & getLetterBit(letter)) != 0;
+  }
+
+  /**
+   * @param index slot index
+   * @return true if the square is empty and next to a tile
+   */
+  public boolean isAnchor(int index) {
+    return anchors[index];
+  }
+
+  /**
+   * Update the cross-checks after a move was made on the board they were computed for. Only the
+   * squares next to the new tiles and at the ends of the lines through them can change, so only those
+   * are recomputed.
+   *
+   * @param board the board after the move was made
+   * @param move
+   */
+  public void update(WordsWithFriendsBoard board, Move move) {
+    if (numMarks == marks.length) {
+      marks = Arrays.copyOf(marks, 2 * marks.length);
+    }
+    marks[numMarks++] = undoSize;
+
+    int step = move.getOrientation() == WordOrientation.HORIZONTAL ? 1 : DIMENSIONS;
+    int first = move.getRow() * DIMENSIONS + move.getCol();
+    int numPlaced = 0;
+
+    // The new tiles are the ones in the move's word that weren't on the board before
+    for (int index = first; board.getSlot(index).getTile() != null; index += step) {
+      if (! occupied[index]) {
+        save(index);
+        occupied[index] = true;
+        anchors[index] = false;
+
+        if (exact) {
+          horizontal[index] = 0;
+          vertical[index] = 0;
+        }
+
+        placed[numPlaced++] = index;
+      }
+
+      if (! hasNext(index, step)) {
+        break;
+      }
+    }
+
+    if (numPlaced == 0) {
+      return;
+    }
+
+    // The new tiles are all in one line, so the squares at its ends only need to be updated once
+    updateAround(board, placed[0], step);
+
+    for (int i = 0; i < numPlaced; i++) {
+      updateAround(board, placed[i], step == 1 ? DIMENSIONS : 1);
+    }
+  }
+
+  /**
+   * Undo the last update that hasn't been rolled back yet.
+   */
+  public void rollback() {
+    if (numMarks == 0) {
+      throw new IllegalStateException("There's no update to roll back");
+    }
+
+    int mark = marks[--numMarks];
+
+    while (undoSize > mark) {
+      undoSize -= UNDO_ENTRY_SIZE;
+
+      int index = undoLog[undoSize];
+      horizontal[index] = undoLog[undoSize + 1];
+      vertical[index] = undoLog[undoSize + 2];
+      occupied[index] = (undoLog[undoSize + 3] & OCCUPIED) != 0;
+      anchors[index] = (undoLog[undoSize + 3] & ANCHOR) != 0;
+      horizontalScores[index] = undoLog[undoSize + 4];
+      verticalScores[index] = undoLog[undoSize + 5];
+    }
+  }
+
+  /**
+   * @param letter
+   * @return the bit for the provided letter in an allowed letters mask
+   */
+  public static int getLetterBit(char letter) {
+    return 1 << (Character.toUpperCase(letter) - 'A');
+  }
+
+  /**
+   * Compute the letters that can go on an empty square given the tiles on either side of it along
+   * one direction.
+   *
+   * @param gaddag
+   * @param board
+   * @param index slot index of an empty square
+   * @param step distance between adjacent slot indexes along the direction to check. 1 checks the
+   *   row (for vertical plays) and DIMENSIONS checks the column (for horizontal plays).
+   * @return bitmask of allowed letters
+   */
+  protected static int computeAllowedLetters(TraversableGadDag gaddag, WordsWithFriendsBoard board, int index, int step) {
+    // Find the extent of the tiles before and after the square
+    int first = index;
+    while (hasPrevious(first, step) && board.getSlot(first - step).getTile() != null) {
+      first -= step;
+    }
+
+    int last = index;
+    while (hasNext(last, step) && board.getSlot(last + step).getTile() != null) {
+      last += step;
+    }
+
+    if (first == index && last == index) {
+      return ALL_LETTERS;
+    }
+
+    // Walk the tiles after the square, last one first
+    int arc = gaddag.getInitArc();
+    for (int i = last; i > index && arc != TraversableGadDag.NULL_ARC; i -= step) {
+      arc = gaddag.nextArc(arc, getLetter(board, i));
+    }
+
+    if (arc == TraversableGadDag.NULL_ARC) {
+      return 0;
+    }
+
+    int allowed = 0;
+
+    for (char letter = 'A'; letter <= 'Z'; letter++) {
+      boolean isWord;
+
+      if (first == index) {
+        isWord = gaddag.hasWordLetter(arc, letter);
+      }
+      else {
+        // Walk the tiles before the square backwards. The first of them completes the word.
+        int letterArc = gaddag.nextArc(arc, letter);
+        for (int i = index - step; i > first && letterArc != TraversableGadDag.NULL_ARC; i -= step) {
+          letterArc = gaddag.nextArc(letterArc, getLetter(board, i));
+        }
+
+        isWord = letterArc != TraversableGadDag.NULL_ARC
+          && gaddag.hasWordLetter(letterArc, getLetter(board, first));
+      }
+
+      if (isWord) {
+        allowed |= getLetterBit(letter);
+      }
+    }
+
+    return allowed;
+  }
+
+  /**
+   * @param board
+   * @param index slot index of an empty square
+   * @param step distance between adjacent slot indexes along the direction to check, like in
+   *   computeAllowedLetters
+   * @return sum of the values of the tiles on either side of the square, or NO_CROSS_WORD if there
+   *   aren't any
+   */
+  protected static int computeCrossScore(WordsWithFriendsBoard board, int index, int step) {
+    boolean found = false;
+    int score = 0;
+
+    for (int i = index; hasPrevious(i, step) && board.getSlot(i - step).getTile() != null; i -= step) {
+      score += board.getSlot(i - step).getTile().getValue();
+      found = true;
+    }
+
+    for (int i = index; hasNext(i, step) && board.getSlot(i + step).getTile() != null; i += step) {
+      score += board.getSlot(i + step).getTile().getValue();
+      found = true;
+    }
+
+    return found ? score : NO_CROSS_WORD;
+  }
+
+  private CrossChecks findAnchors(WordsWithFriendsBoard board) {
+    for (int index = 0; index < occupied.length; index++) {
+      occupied[index] = board.getSlot(index).getTile() != null;
+
+      if (! occupied[index]) {
+        horizontalScores[index] = computeCrossScore(board, index, DIMENSIONS);
+        verticalScores[index] = computeCrossScore(board, index, 1);
+      }
+    }
+
+    for (int index = 0; index < anchors.length; index++) {
+      anchors[index] = ! occupied[index]
+        && ((hasPrevious(index, 1) && occupied[index - 1])
+          || (hasNext(index, 1) && occupied[index + 1])
+          || (hasPrevious(index, DIMENSIONS) && occupied[index - DIMENSIONS])
+          || (hasNext(index, DIMENSIONS) && occupied[index + DIMENSIONS]));
+    }
+
+    return this;
+  }
+
+  /**
+   * Recompute the squares on either side of the line of tiles through a new tile. They're next to a
+   * tile, so they're anchors.
+   *
+   * @param step 1 for the row through the tile and DIMENSIONS for the column
+   */
+  private void updateAround(WordsWithFriendsBoard board, int index, int step) {
+    int before = index;
+    while (hasPrevious(before, step) && occupied[before]) {
+      before -= step;
+    }
+
+    int after = index;
+    while (hasNext(after, step) && occupied[after]) {
+      after += step;
+    }
+
+    if (! occupied[before]) {
+      updateSquare(board, before, step);
+    }
+    if (! occupied[after]) {
+      updateSquare(board, after, step);
+    }
+  }
+
+  private void updateSquare(WordsWithFriendsBoard board, int index, int step) {
+    save(index);
+    anchors[index] = true;
+
+    // Tiles along the row limit vertical plays, and tiles along the column limit horizontal plays
+    if (step == 1) {
+      verticalScores[index] = computeCrossScore(board, index, 1);
+
+      if (exact) {
+        vertical[index] = computeAllowedLetters(gaddag, board, index, 1);
+      }
+    }
+    else {
+      horizontalScores[index] = computeCrossScore(board, index, DIMENSIONS);
+
+      if (exact) {
+        horizontal[index] = computeAllowedLetters(gaddag, board, index, DIMENSIONS);
+      }
+    }
+  }
+
+  private void save(int index) {
+    if (undoSize == undoLog.length) {
+      undoLog = Arrays.copyOf(undoLog, 2 * undoLog.length);
+    }
+
+    undoLog[undoSize] = index;
+    undoLog[undoSize + 1] = horizontal[index];
+    undoLog[undoSize + 2] = vertical[index];
+    undoLog[undoSize + 3] = (occupied[index] ? OCCUPIED : 0) | (anchors[index] ? ANCHOR : 0);
+    undoLog[undoSize + 4] = horizontalScores[index];
+    undoLog[undoSize + 5] = verticalScores[index];
+    undoSize += UNDO_ENTRY_SIZE;
+  }
+
+  private static boolean hasPrevious(int index, int step) {
+    return step == 1 ? index % DIMENSIONS > 0 : index >= DIMENSIONS;
+  }
+
+  private static boolean hasNext(int index, int step) {
+    return step == 1 ? index % DIMENSIONS < DIMENSIONS - 1 : index < DIMENSIONS * (DIMENSIONS - 1);
+  }
+
+  private static char getLetter(WordsWithFriendsBoard board, int index) {
+    Tile tile = board.getSlot(index).getTile();
+    return tile.getLetter().getValue().charAt(0);
+  }
+}
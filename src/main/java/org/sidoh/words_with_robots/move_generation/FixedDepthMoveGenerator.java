@@ -4,7 +4,6 @@ import com.google.common.collect.Lists;
 import org.sidoh.words_with_robots.move_generation.context.FixedDepthReturnContext;
 import org.sidoh.words_with_robots.move_generation.params.FixedDepthParams;
 import org.sidoh.words_with_robots.move_generation.util.MoveScoreComparator;
-import org.sidoh.wwf_api.game_state.GameStateHelper;
 import org.sidoh.wwf_api.game_state.Move;
 import org.sidoh.wwf_api.game_state.WordsWithFriendsBoard;
 import org.sidoh.wwf_api.types.api.GameState;
@@ -15,29 +14,138 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * (roughly) implements a fixed-depth search move generator. attempts to make a few optimizations by limiting the
  * branching factor and ignoring a few low-score moves.
  *
+ * If the all moves generator is a {@link CrossCheckedMovesGenerator}, cross-checks are computed once for the
+ * root of the search and updated as moves are made and undone rather than recomputed for every node. Moves
+ * also come with their scores, so only the ones the search gets to are given a result, and only the best
+ * branchingFactorLimit of them are generated.
+ *
+ * The search works on a single {@link SearchState}: each move is made on it before searching the position
+ * after it and undone afterwards, rather than copying the board and the game state for every node.
+ *
+ * With more than one searchThreads, the search is split up among threads with young brothers wait: at each
+ * node deep enough to be worth it, the first move is searched by itself, since it's the most likely to cause a
+ * cutoff and narrows the bounds for the rest. The rest are then searched by the node's thread and helpers
+ * from a pool, each with its own copy of the position. Helpers pick up the node's bounds as they tighten,
+ * and a cutoff cancels the searches of the moves still going. Threads only wait on helpers that have
+ * started, so helpers splitting nodes of their own can't deadlock the pool. The pool can be provided, and
+ * is shared by copies of the generator. If it isn't, the generator starts one the first time it's needed.
+ *
+ * If an executor is provided and the all moves generator is a {@link ParallelMovesGenerator}, moves for the
+ * root of the search are generated with tasks run by the executor. Deeper nodes are small enough that
+ * splitting them up costs more than it saves.
+ *
+ * Positions are hashed with {@link ZobristHash} as the search goes, and results are kept in a
+ * {@link TranspositionTable}. A position reached again, through different orders of the same moves, or by
+ * a later search with the same table, is only searched again if the stored result isn't deep enough or
+ * doesn't settle it. Even then, the move that was best last time is tried first. Values are stored
+ * relative to the score difference at the position, so they don't depend on how it was reached. If no
+ * table is provided, each search gets its own.
  */
 public class FixedDepthMoveGenerator implements GameStateMoveGenerator<FixedDepthReturnContext> {
   private static final Logger LOG = LoggerFactory.getLogger(FixedDepthMoveGenerator.class);
-  private static final GameStateHelper stateHelper = GameStateHelper.getInstance();
+
+  // Splitting nodes any shallower than this costs more than it saves: their children don't generate moves
+  private static final int MIN_SPLIT_DEPTH = 2;
+
+  // How long helper threads in a pool the generator started are kept around without anything to do
+  private static final long HELPER_KEEP_ALIVE_SECONDS = 60;
+  private static final ThreadFactory HELPER_THREAD_FACTORY = new ThreadFactory() {
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, FixedDepthMoveGenerator.class.getSimpleName());
+      thread.setDaemon(true);
+      return thread;
+    }
+  };
+
   private final AllMovesGenerator<WordsWithFriendsBoard> allMovesGenerator;
+  private final CrossCheckedMovesGenerator crossCheckedMovesGenerator;
+  private final ParallelMovesGenerator parallelMovesGenerator;
+  private final ExecutorService executor;
+  private final ExecutorService searchExecutor;
   private final FixedDepthParams params;
+  private ThreadPoolExecutor helperPool;
+  private TranspositionTable transpositionTable;
+  private long moveOrderSeed;
 
   public FixedDepthMoveGenerator(AllMovesGenerator<WordsWithFriendsBoard> allMovesGenerator) {
     this(allMovesGenerator, new FixedDepthParams());
   }
 
   public FixedDepthMoveGenerator(AllMovesGenerator<WordsWithFriendsBoard> allMovesGenerator, FixedDepthParams params) {
+    this(allMovesGenerator, params, null);
+  }
+
+  public FixedDepthMoveGenerator(AllMovesGenerator<WordsWithFriendsBoard> allMovesGenerator, FixedDepthParams params, ExecutorService executor) {
+    this(allMovesGenerator, params, executor, null);
+  }
+
+  /**
+   * @param allMovesGenerator
+   * @param params
+   * @param executor runs tasks that generate moves for the root of the search. Can be null to generate them
+   *   on the searching thread.
+   * @param searchExecutor runs helpers that search alongside the searching thread when searchThreads is more
+   *   than 1. Can be null for the generator to start its own pool.
+   */
+  public FixedDepthMoveGenerator(AllMovesGenerator<WordsWithFriendsBoard> allMovesGenerator,
+    FixedDepthParams params,
+    ExecutorService executor,
+    ExecutorService searchExecutor) {
     this.allMovesGenerator = allMovesGenerator;
+    this.crossCheckedMovesGenerator = allMovesGenerator instanceof CrossCheckedMovesGenerator
+      ? (CrossCheckedMovesGenerator) allMovesGenerator
+      : null;
+    this.parallelMovesGenerator = allMovesGenerator instanceof ParallelMovesGenerator
+      ? (ParallelMovesGenerator) allMovesGenerator
+      : null;
+    this.executor = executor;
+    this.searchExecutor = searchExecutor;
     this.params = params;
   }
 
   public FixedDepthMoveGenerator deepCopy() {
-    return new FixedDepthMoveGenerator(allMovesGenerator, params.deepCopy());
+    return new FixedDepthMoveGenerator(allMovesGenerator, params.deepCopy(), executor, getSearchExecutor())
+      .withTranspositionTable(transpositionTable)
+      .withMoveOrderSeed(moveOrderSeed);
+  }
+
+  /**
+   * Share a transposition table with other searches, such as the searches for each depth of an iterative
+   * deepening search. It should only be shared by searches from the same position.
+   *
+   * @param transpositionTable
+   * @return
+   */
+  public FixedDepthMoveGenerator withTranspositionTable(TranspositionTable transpositionTable) {
+    this.transpositionTable = transpositionTable;
+    return this;
+  }
+
+  /**
+   * Search the moves at each node in a different order, for helper searches that share a transposition
+   * table with a main search and shouldn't just search the same nodes it does. The first move is still
+   * searched first, and the rest of the moves that would be considered are rotated by an amount that
+   * depends on the seed and the position. The same moves are considered, so values are the same.
+   *
+   * @param moveOrderSeed 0 to search moves in the usual order
+   * @return
+   */
+  public FixedDepthMoveGenerator withMoveOrderSeed(long moveOrderSeed) {
+    this.moveOrderSeed = moveOrderSeed;
+    return this;
   }
 
   public FixedDepthMoveGenerator updateParam(FixedDepthParams._Fields key, Object value) {
@@ -47,69 +155,168 @@ public class FixedDepthMoveGenerator implements GameStateMoveGenerator<FixedDept
 
   @Override
   public FixedDepthReturnContext generateMove(GameState state) {
+    SearchState searchState = new SearchState(state);
+    if ( crossCheckedMovesGenerator != null ) {
+      searchState.setCrossChecks(crossCheckedMovesGenerator.getCrossChecks(searchState.getBoard()));
+    }
+
     // Perform search
-    AlphaBetaClosure inputClosure = AlphaBetaClosure.newClosure(state, params);
-    AlphaBetaClosure closure = alphaBetaSearch(inputClosure);
+    SearchContext search = new SearchContext(searchState,
+      transpositionTable != null ? transpositionTable : new TranspositionTable(),
+      getSearchExecutor());
+    long start = System.currentTimeMillis();
+    double value = alphaBetaSearch(search, params.getMaxDepth(), Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    long elapsed = System.currentTimeMillis() - start;
+
+    LOG.info("searched {} nodes in {}ms ({} nodes/sec)",
+      search.getNodesSearched(),
+      elapsed,
+      elapsed == 0 ? "-" : 1000 * search.getNodesSearched() / elapsed);
+
+    Move returnMove = search.getReturnMove();
 
     // Pass if we have to
-    if ( closure.getReturnMove() == null || closure.getReturnMove().getMoveType() == MoveType.PASS ) {
-      closure.setReturnMove(Move.pass());
+    if ( returnMove == null || returnMove.getMoveType() == MoveType.PASS ) {
+      returnMove = Move.pass();
 
-      LOG.info("couldn't generate move -- forcing a PASS. ab-search returned {}", closure.getReturnValue());
+      LOG.info("couldn't generate move -- forcing a PASS. ab-search returned {}", value);
     }
     else {
+      returnMove = searchState.toGameMove(returnMove);
+
       LOG.info("generated move: {}. It had index {}, and is worth {} points. ab-search returned: {}",
-        closure.getReturnMove().getResult().getResultingWords(),
-        closure.getReturnMoveIndex(),
-        closure.getReturnMove().getResult().getScore(),
-        closure.getReturnValue());
+        returnMove.getResult().getResultingWords(),
+        search.getReturnMoveIndex(),
+        returnMove.getResult().getScore(),
+        value);
     }
 
-    return new FixedDepthReturnContext(closure.getReturnMove())
-      .setTerminal(closure.reachedTerminalState());
+    return new FixedDepthReturnContext(returnMove)
+      .setTerminal(search.reachedTerminalState())
+      .setNodesSearched(search.getNodesSearched());
   }
 
-  protected AlphaBetaClosure alphaBetaSearch(AlphaBetaClosure closure) {
+  /**
+   * Helpers are only waited for once they've started, and the search is over once the searching thread
+   * returns, so the pool is never shut down. Helpers still queued find nothing left to search.
+   *
+   * @return the pool helpers are run by, or null if searchThreads doesn't call for any
+   */
+  protected synchronized ExecutorService getSearchExecutor() {
+    int numHelpers = params.getSearchThreads() - 1;
+
+    if ( searchExecutor != null || numHelpers <= 0 ) {
+      return searchExecutor;
+    }
+
+    if ( helperPool == null ) {
+      helperPool = new ThreadPoolExecutor(numHelpers,
+        numHelpers,
+        HELPER_KEEP_ALIVE_SECONDS,
+        TimeUnit.SECONDS,
+        new LinkedBlockingQueue<Runnable>(),
+        HELPER_THREAD_FACTORY);
+      helperPool.allowCoreThreadTimeOut(true);
+    }
+    // searchThreads can be updated between searches. The maximum size can't go below the core size.
+    else if ( numHelpers > helperPool.getMaximumPoolSize() ) {
+      helperPool.setMaximumPoolSize(numHelpers);
+      helperPool.setCorePoolSize(numHelpers);
+    }
+    else if ( numHelpers < helperPool.getMaximumPoolSize() ) {
+      helperPool.setCorePoolSize(numHelpers);
+      helperPool.setMaximumPoolSize(numHelpers);
+    }
+
+    return helperPool;
+  }
+
+  /**
+   * Search the position the search state is in. Moves are made on the search state and undone before
+   * returning, so it's left the way it was found.
+   *
+   * @param search
+   * @param remainingDepth
+   * @param alpha
+   * @param beta
+   * @return the value of the position
+   */
+  protected double alphaBetaSearch(SearchContext search, int remainingDepth, double alpha, double beta) {
+    SearchState state = search.getState();
+    int maxPlayer = search.getMaxPlayer();
+    boolean isMax = state.getToMove() == maxPlayer;
+    search.nodesSearched++;
+
     // If this is a terminal state, evaluate the game state.
-    if ( closure.getRemainingDepth() == 0 || closure.getRack().getTilesSize() == 0 ) {
-      double score = evaluateState(closure);
-      return closure
-        .setReturnValue( score )
-        .setReachedTerminalState( closure.getRack() == null || closure.getRack().getTilesSize() == 0 );
+    if ( remainingDepth == 0 || state.getNumTiles(state.getToMove()) == 0 ) {
+      search.reachedTerminalState = state.getNumTiles(state.getToMove()) == 0;
+      return evaluateState(state, maxPlayer);
     }
 
-    if ( Thread.currentThread().isInterrupted() ) {
-      return closure;
+    if ( search.isStopped() ) {
+      search.reachedTerminalState = false;
+      return evaluateState(state, maxPlayer);
     }
 
-    double alpha = closure.getAlpha();
-    double beta = closure.getBeta();
-    MinimaxPlayer player = closure.getPlayer();
+    TranspositionTable transpositionTable = search.getTranspositionTable();
+    boolean isRoot = remainingDepth == params.getMaxDepth();
+
+    // See if this position has been searched already. Values are stored relative to the current score
+    // difference.
+    double baseValue = evaluateState(state, maxPlayer);
+    long hash = state.getHash();
+    long entry = transpositionTable.probe(hash);
+    int hashMoveIndex = TranspositionTable.getMoveIndex(entry);
+
+    // The root has to come up with a move, so it's always searched
+    if ( entry != TranspositionTable.NO_ENTRY && ! isRoot && TranspositionTable.getDepth(entry) >= remainingDepth ) {
+      double value = baseValue + TranspositionTable.getValue(entry);
+      int bound = TranspositionTable.getBound(entry);
+
+      if ( bound == TranspositionTable.EXACT
+        || (bound == TranspositionTable.LOWER_BOUND && value >= beta)
+        || (bound == TranspositionTable.UPPER_BOUND && value <= alpha) ) {
+        search.reachedTerminalState = TranspositionTable.isTerminal(entry);
+        return value;
+      }
+    }
 
     // If not, generate moves.
-    List<Move> moves = getSortedMoves(closure);
+    List<Move> moves = getSortedMoves(state, remainingDepth);
 
     // If no moves are possible, this is a terminal state
     if ( moves.isEmpty() ) {
-      return closure
-        .setReturnValue( evaluateState(closure) )
-        .setReturnMove(Move.pass())
-        .setReachedTerminalState(true);
+      search.reachedTerminalState = true;
+      return baseValue;
     }
 
+    double originalAlpha = alpha;
+    double originalBeta = beta;
     Move returnMove = null;
-    AlphaBetaClosure returnClosure = null;
+    int returnMoveIndex = -1;
+    int returnMoveRank = -1;
+    boolean reachedTerminalState = false;
 
-    LOG.debug("At depth {}, considering {} possible moves", closure.getRemainingDepth(), moves.size());
+    LOG.debug("At depth {}, considering {} possible moves", remainingDepth, moves.size());
 
     int movesConsidered = 0;
 
-    for (Move move : moves) {
-      // Create copy of board so as to not mess with future calls
-      WordsWithFriendsBoard board = closure.getBoard().clone();
+    // The best move from the last time this position was searched goes first
+    int hashMove = hashMoveIndex < moves.size() ? hashMoveIndex : -1;
+    int numCandidates = 0;
+    int orderOffset = 0;
+    if ( moveOrderSeed != 0 ) {
+      numCandidates = countCandidates(state, moves, hashMove);
+      orderOffset = numCandidates > 2 ? (int) (((hash ^ moveOrderSeed) >>> 1) % (numCandidates - 1)) : 0;
+    }
 
-      // Make move for recursive calls
-      board.move( move );
+    for (int i = 0; i < moves.size(); i++) {
+      int moveIndex = getMoveIndex(i, hashMove, numCandidates, orderOffset);
+      Move move = moves.get(moveIndex);
+
+      if ( move.getResult() == null ) {
+        state.getBoard().scoreMove(move);
+      }
 
       // Stop considering moves if this one sucks and we've already considered better moves.
       if ( move.getResult().getScore() < params.getMinScore() && movesConsidered > 0 ) {
@@ -122,32 +329,51 @@ public class FixedDepthMoveGenerator implements GameStateMoveGenerator<FixedDept
         break;
       }
 
-      LOG.debug("considering move with score {}", move.getResult().getScore());
+      // Young brothers wait: once the first move has been searched, the rest can be searched in parallel
+      if ( movesConsidered > 0 && search.canSplit(remainingDepth) ) {
+        SplitPoint split = new SplitPoint(search, remainingDepth, isMax, alpha, beta, returnMove, returnMoveIndex, returnMoveRank, reachedTerminalState);
 
-      // Generate new game state stuff
-      GameState updatedState = stateHelper.applyMove(closure.getState(), move);
-      Rack updatedRack = stateHelper.buildRack(player.getOtherUserId(), updatedState);
+        // The rest of the moves that would be considered, in the order they'd be considered in
+        for (int j = i; j < moves.size() && movesConsidered + split.getNumMoves() < params.getBranchingFactorLimit(); j++) {
+          int splitMoveIndex = getMoveIndex(j, hashMove, numCandidates, orderOffset);
+          Move splitMove = moves.get(splitMoveIndex);
 
-      AlphaBetaClosure callClosure = closure
-        .clone()
-        .setAlpha(alpha)
-        .setBeta(beta)
-        .setRemainingDepth(closure.getRemainingDepth() - 1)
-        .setRack(updatedRack)
-        .setState(updatedState)
-        .setBoard(board)
-        .setReturnMove(move)
-        .setReturnMoveIndex(movesConsidered)
-        .setPlayer(player.getOther());
+          if ( splitMove.getResult() == null ) {
+            state.getBoard().scoreMove(splitMove);
+          }
+          if ( splitMove.getResult().getScore() < params.getMinScore() ) {
+            break;
+          }
+
+          split.addMove(splitMove, splitMoveIndex, movesConsidered + split.getNumMoves());
+        }
 
-      callClosure = alphaBetaSearch(callClosure);
+        split.search();
+
+        alpha = split.alpha;
+        beta = split.beta;
+        returnMove = split.returnMove;
+        returnMoveIndex = split.returnMoveIndex;
+        returnMoveRank = split.returnMoveRank;
+        reachedTerminalState = split.reachedTerminalState;
+        break;
+      }
+
+      LOG.debug("considering move with score {}", move.getResult().getScore());
+
+      // Make the move for the recursive call, and take it back before trying the next one
+      state.makeMove(move);
+      double value = alphaBetaSearch(search, remainingDepth - 1, alpha, beta);
+      state.undoMove();
 
       // The following logic is handled differently depending on which player we're considering
-      if ( player.isMax() ) {
-        if ( callClosure.getReturnValue() > alpha ) {
-          alpha = callClosure.getReturnValue();
-          returnClosure = callClosure;
+      if ( isMax ) {
+        if ( value > alpha ) {
+          alpha = value;
           returnMove = move;
+          returnMoveIndex = moveIndex;
+          returnMoveRank = movesConsidered;
+          reachedTerminalState = search.reachedTerminalState;
         }
 
         if (beta <= alpha) {
@@ -155,10 +381,12 @@ public class FixedDepthMoveGenerator implements GameStateMoveGenerator<FixedDept
         }
       }
       else {
-        if ( callClosure.getReturnValue() < beta ) {
-          beta = callClosure.getReturnValue();
-          returnClosure = callClosure;
+        if ( value < beta ) {
+          beta = value;
           returnMove = move;
+          returnMoveIndex = moveIndex;
+          returnMoveRank = movesConsidered;
+          reachedTerminalState = search.reachedTerminalState;
         }
 
         if ( beta <= alpha ) {
@@ -169,246 +397,462 @@ public class FixedDepthMoveGenerator implements GameStateMoveGenerator<FixedDept
       movesConsidered++;
     }
 
-    // If null, this branch has failed to turn up a better move than a sibling branch.
-    if ( returnClosure == null ) {
-      returnClosure = new AlphaBetaClosure()
-        .setAlpha(alpha)
-        .setBeta(beta)
-        .setReturnValue( player.isMax() ? alpha : beta )
-        .setPlayer(player)
-        .setReturnMove( null );
+    double value = isMax ? alpha : beta;
+    LOG.debug("best in this branch: {}", value);
+
+    if ( ! search.isStopped() ) {
+      storeResult(transpositionTable, hash, remainingDepth, originalAlpha, originalBeta, value, baseValue, returnMoveIndex, reachedTerminalState);
     }
 
-    LOG.debug("best in this branch: {}", (player.isMax() ? alpha : beta));
+    if ( isRoot ) {
+      search.returnMove = returnMove;
+      search.returnMoveIndex = returnMoveRank;
+    }
+    search.reachedTerminalState = reachedTerminalState;
 
-    return returnClosure
-      .setAlpha(alpha)
-      .setBeta(beta)
-      .setReturnValue(
-        player.isMax() ? alpha : beta)
-      .setReturnMove( returnMove );
+    return value;
   }
 
-  protected List<Move> getSortedMoves(AlphaBetaClosure closure) {
-    List<Move> allMoves = Lists.newArrayList(allMovesGenerator.generateAllMoves(closure.getRack(), closure.getBoard()));
-    Collections.sort(allMoves, MoveScoreComparator.rawScoreComparator());
+  /**
+   * @param i
+   * @param firstIndex index of the move to try first, or -1 to go in order
+   * @return index of the i-th move to try
+   */
+  protected static int getMoveIndex(int i, int firstIndex) {
+    if ( firstIndex < 0 || i > firstIndex ) {
+      return i;
+    }
+    return i == 0 ? firstIndex : i - 1;
+  }
 
-    return allMoves;
+  /**
+   * @param i
+   * @param firstIndex index of the move to try first, or -1 to go in order
+   * @param numCandidates how many moves would be considered
+   * @param offset how far to rotate the candidates after the first one
+   * @return index of the i-th move to try
+   */
+  protected static int getMoveIndex(int i, int firstIndex, int numCandidates, int offset) {
+    if ( offset != 0 && i > 0 && i < numCandidates ) {
+      i = 1 + (i - 1 + offset) % (numCandidates - 1);
+    }
+    return getMoveIndex(i, firstIndex);
   }
 
-  protected static double evaluateState(AlphaBetaClosure closure) {
-    MinimaxPlayer player = closure.getPlayer();
-    GameState state = closure.getState();
+  /**
+   * Count the moves the search would consider at a node: at most branchingFactorLimit of them, and after
+   * the first, only ones scoring at least minScore. Moves are scored along the way.
+   *
+   * @param state
+   * @param moves
+   * @param firstIndex index of the move to try first, or -1 to go in order
+   * @return
+   */
+  private int countCandidates(SearchState state, List<Move> moves, int firstIndex) {
+    int numCandidates = 0;
 
-    MinimaxPlayer max = player.isMax() ? player : player.getOther();
+    for (int i = 0; i < moves.size() && numCandidates < params.getBranchingFactorLimit(); i++) {
+      Move move = moves.get(getMoveIndex(i, firstIndex));
 
-    double myScore = stateHelper.getScore(max.getUserId(), state);
-    double opScore = stateHelper.getScore(max.getOtherUserId(), state);
+      if ( move.getResult() == null ) {
+        state.getBoard().scoreMove(move);
+      }
+      if ( move.getResult().getScore() < params.getMinScore() && numCandidates > 0 ) {
+        break;
+      }
+
+      numCandidates++;
+    }
 
-    return myScore - opScore;
+    return numCandidates;
   }
 
   /**
-   * A helper class to make switching between min/max easy.
+   * Store the result of searching a position in the transposition table. Whether the value is exact or a
+   * bound depends on the window it was searched with.
+   *
+   * @param transpositionTable
+   * @param hash the position's hash
+   * @param remainingDepth how deep the position was searched
+   * @param alpha alpha the position was searched with
+   * @param beta beta the position was searched with
+   * @param value value found
+   * @param baseValue score difference at the position
+   * @param moveIndex index of the best move in the position's move list, or -1 if there wasn't one
+   * @param terminal
    */
-  public static class MinimaxPlayer {
-    private final long[] players;
-    private final int selected;
-    private final boolean isMin;
-    private final MinimaxPlayer other;
+  protected static void storeResult(TranspositionTable transpositionTable,
+    long hash,
+    int remainingDepth,
+    double alpha,
+    double beta,
+    double value,
+    double baseValue,
+    int moveIndex,
+    boolean terminal) {
+    double relativeValue = value - baseValue;
 
-    public MinimaxPlayer(long uid1, long uid2, long selected, boolean isMin) {
-      this( new long[] { uid1, uid2 },
-        uid1 == selected ? 0 : 1,
-        isMin);
+    // Only whole values fit in the table. Score differences always are.
+    if ( relativeValue != (int) relativeValue ) {
+      return;
     }
 
-    public MinimaxPlayer(long[] uids, int selected, boolean isMin) {
-      this.players = uids;
-      this.selected = selected;
-      this.isMin = isMin;
-      this.other = new MinimaxPlayer(this);
+    int bound;
+    if ( value <= alpha ) {
+      bound = TranspositionTable.UPPER_BOUND;
     }
-
-    private MinimaxPlayer(MinimaxPlayer other) {
-      this.players = other.players;
-      this.selected = other.selected + 1;
-      this.isMin = !other.isMin;
-      this.other = other;
+    else if ( value >= beta ) {
+      bound = TranspositionTable.LOWER_BOUND;
     }
-
-    public boolean isMin() {
-      return isMin;
+    else {
+      bound = TranspositionTable.EXACT;
     }
 
-    public boolean isMax() {
-      return !isMin;
-    }
+    transpositionTable.store(hash, (int) relativeValue, bound, remainingDepth, moveIndex, terminal);
+  }
 
-    public long getUserId() {
-      return players[ selected ];
-    }
+  protected List<Move> getSortedMoves(SearchState state, int remainingDepth) {
+    Iterable<Move> moves;
+    Rack rack = state.getRack();
 
-    public long getOtherUserId() {
-      return players[ (selected + 1) % 2 ];
+    // Only the root is worth generating moves for in parallel
+    if ( executor != null && parallelMovesGenerator != null && remainingDepth == params.getMaxDepth() ) {
+      moves = state.getCrossChecks() == null
+        ? parallelMovesGenerator.generateAllMoves(rack, state.getBoard(), executor)
+        : crossCheckedMovesGenerator.generateAllMoves(rack, state.getBoard(), state.getCrossChecks(), executor);
     }
-
-    public MinimaxPlayer getOther() {
-      return other;
+    else if ( state.getCrossChecks() != null ) {
+      // The search never gets past the branching factor limit, so there's no need to generate the
+      // moves after it. Results are filled in as moves are considered.
+      return crossCheckedMovesGenerator.generateTopMoves(rack,
+        state.getBoard(),
+        state.getCrossChecks(),
+        Math.max(1, params.getBranchingFactorLimit()));
     }
-
-    public static MinimaxPlayer fromGameState(GameState state) {
-      List<Long> playerIds = Lists.newArrayList(state.getMeta().getUsersById().keySet());
-      return new MinimaxPlayer(playerIds.get(0), playerIds.get(1), state.getMeta().getCurrentMoveUserId(), false);
+    else {
+      moves = allMovesGenerator.generateAllMoves(rack, state.getBoard());
     }
+
+    List<Move> allMoves = Lists.newArrayList(moves);
+    Collections.sort(allMoves, MoveScoreComparator.rawScoreComparator());
+
+    return allMoves;
   }
 
   /**
-   * A closure to pass around state between nodes in the search tree. Much nicer than a shitload of arguments.
+   * @param state
+   * @param maxPlayer the player the search is for
+   * @return how far ahead the player is
    */
-  protected static class AlphaBetaClosure {
-    private Rack rack;
-    private WordsWithFriendsBoard board;
-    private GameState state;
-    private int remainingDepth;
+  protected static double evaluateState(SearchState state, int maxPlayer) {
+    return state.getScore(maxPlayer) - state.getScore(1 - maxPlayer);
+  }
+
+  /**
+   * A node whose moves are being searched by more than one thread. Threads take the next move that
+   * hasn't been searched, search it with the node's current bounds and record the result. A cutoff cancels
+   * the searches still going at the node, and at the split points below it.
+   */
+  private class SplitPoint {
+    private final SearchContext owner;
+    private final SplitPoint parent;
+    private final int remainingDepth;
+    private final boolean isMax;
+    private final List<Move> moves = Lists.newArrayList();
+    private final List<Integer> moveIndexes = Lists.newArrayList();
+    private final List<Integer> moveRanks = Lists.newArrayList();
+
+    // The position at the node, for helpers to copy. The owner's state changes as it searches.
+    private SearchState state;
+
+    // Guarded by this
+    private int next;
+    private int numHelpers;
+    private Throwable error;
     private double alpha;
     private double beta;
-    private MinimaxPlayer player;
-    private double returnValue;
     private Move returnMove;
     private int returnMoveIndex;
+    private int returnMoveRank;
     private boolean reachedTerminalState;
 
-    public AlphaBetaClosure() {  }
-
-    public AlphaBetaClosure clone() {
-      AlphaBetaClosure value = new AlphaBetaClosure();
-      value.rack = rack;
-      value.board = board;
-      value.state = state;
-      value.remainingDepth = remainingDepth;
-      value.alpha = alpha;
-      value.beta = beta;
-      value.player = player;
-      value.returnValue = returnValue;
-      value.returnMove = returnMove;
-      value.returnMoveIndex = returnMoveIndex;
-      value.reachedTerminalState = reachedTerminalState;
-
-      return value;
+    private volatile boolean cancelled;
+
+    /**
+     * The bounds and the best move are what the node found before it was split.
+     */
+    public SplitPoint(SearchContext owner,
+      int remainingDepth,
+      boolean isMax,
+      double alpha,
+      double beta,
+      Move returnMove,
+      int returnMoveIndex,
+      int returnMoveRank,
+      boolean reachedTerminalState) {
+      this.owner = owner;
+      this.parent = owner.splitPoint;
+      this.remainingDepth = remainingDepth;
+      this.isMax = isMax;
+      this.alpha = alpha;
+      this.beta = beta;
+      this.returnMove = returnMove;
+      this.returnMoveIndex = returnMoveIndex;
+      this.returnMoveRank = returnMoveRank;
+      this.reachedTerminalState = reachedTerminalState;
     }
 
-    public Rack getRack() {
-      return rack;
+    /**
+     * @param move a move to search
+     * @param moveIndex its index in the node's move list
+     * @param moveRank how many moves are considered at the node before it
+     */
+    public void addMove(Move move, int moveIndex, int moveRank) {
+      moves.add(move);
+      moveIndexes.add(moveIndex);
+      moveRanks.add(moveRank);
     }
 
-    public WordsWithFriendsBoard getBoard() {
-      return board;
+    public int getNumMoves() {
+      return moves.size();
     }
 
-    public GameState getState() {
-      return state;
+    public boolean isCancelled() {
+      return cancelled || (parent != null && parent.isCancelled());
     }
 
-    public int getRemainingDepth() {
-      return remainingDepth;
-    }
+    /**
+     * Search the moves with the owner's thread and helpers from the pool, and wait for the helpers to finish.
+     */
+    public void search() {
+      int numHelpers = Math.min(moves.size() - 1, params.getSearchThreads() - 1);
 
-    public double getAlpha() {
-      return alpha;
-    }
+      if ( numHelpers > 0 ) {
+        state = owner.getState().copy();
 
-    public double getBeta() {
-      return beta;
-    }
+        for (int i = 0; i < numHelpers; i++) {
+          owner.helpers.execute(new Runnable() {
+            @Override
+            public void run() {
+              help();
+            }
+          });
+        }
+      }
 
-    public MinimaxPlayer getPlayer() {
-      return player;
-    }
+      SplitPoint previous = owner.splitPoint;
+      owner.splitPoint = this;
+      try {
+        searchMoves(owner);
+      }
+      finally {
+        owner.splitPoint = previous;
+      }
 
-    public double getReturnValue() {
-      return returnValue;
-    }
+      // Only helpers that have started are waited for, so this never waits on a helper stuck in the queue
+      boolean interrupted = false;
+      synchronized (this) {
+        while ( this.numHelpers > 0 ) {
+          try {
+            wait();
+          }
+          catch (InterruptedException e) {
+            owner.stopped.set(true);
+            interrupted = true;
+          }
+        }
+      }
 
-    public Move getReturnMove() {
-      return returnMove;
+      if ( interrupted ) {
+        Thread.currentThread().interrupt();
+      }
+      if ( error != null ) {
+        throw new RuntimeException("Helper failed while searching", error);
+      }
     }
 
-    public int getReturnMoveIndex() {
-      return returnMoveIndex;
-    }
+    private void help() {
+      synchronized (this) {
+        if ( next == moves.size() || isCancelled() ) {
+          return;
+        }
+        numHelpers++;
+      }
 
-    public boolean reachedTerminalState() {
-      return reachedTerminalState;
+      SearchContext helper = new SearchContext(owner, state.copy(), this);
+      try {
+        searchMoves(helper);
+      }
+      catch (Throwable e) {
+        synchronized (this) {
+          error = e;
+          cancelled = true;
+        }
+      }
+      finally {
+        owner.helperNodes.addAndGet(helper.nodesSearched);
+
+        synchronized (this) {
+          numHelpers--;
+          notifyAll();
+        }
+      }
     }
 
-    public AlphaBetaClosure setReturnMoveIndex(int returnMoveIndex) {
-      this.returnMoveIndex = returnMoveIndex;
-      return this;
+    private void searchMoves(SearchContext search) {
+      while ( true ) {
+        int i;
+        double currentAlpha;
+        double currentBeta;
+
+        synchronized (this) {
+          if ( next == moves.size() || isCancelled() ) {
+            return;
+          }
+
+          i = next++;
+          currentAlpha = alpha;
+          currentBeta = beta;
+        }
+
+        Move move = moves.get(i);
+        search.getState().makeMove(move);
+        double value = alphaBetaSearch(search, remainingDepth - 1, currentAlpha, currentBeta);
+        boolean terminal = search.reachedTerminalState;
+        search.getState().undoMove();
+
+        // A search that was stopped didn't finish, so its value doesn't mean anything
+        if ( ! search.isStopped() ) {
+          update(i, value, terminal);
+        }
+      }
     }
 
-    public AlphaBetaClosure setReturnMove(Move returnMove) {
-      this.returnMove = returnMove;
-      return this;
+    private synchronized void update(int i, double value, boolean terminal) {
+      if ( isMax ? value > alpha : value < beta ) {
+        if ( isMax ) {
+          alpha = value;
+        }
+        else {
+          beta = value;
+        }
+
+        returnMove = moves.get(i);
+        returnMoveIndex = moveIndexes.get(i);
+        returnMoveRank = moveRanks.get(i);
+        reachedTerminalState = terminal;
+      }
+
+      if ( beta <= alpha ) {
+        cancelled = true;
+      }
     }
+  }
+
+  /**
+   * What a search needs to keep track of besides the position: the table, how many nodes it's looked at
+   * and what it found. Nodes leave whether the search below them reached the end of the game here for
+   * their parent to pick up.
+   *
+   * Each thread searching has its own context and its own copy of the position. The table, the pool of
+   * helper threads and whether the search has been stopped are shared.
+   */
+  protected static class SearchContext {
+    private final SearchState state;
+    private final int maxPlayer;
+    private final TranspositionTable transpositionTable;
+    private final ExecutorService helpers;
+    private final AtomicBoolean stopped;
+    private final AtomicLong helperNodes;
+    private SplitPoint splitPoint;
+    private long nodesSearched;
+    private boolean reachedTerminalState;
+    private Move returnMove;
+    private int returnMoveIndex;
 
-    public AlphaBetaClosure setReturnValue(double returnValue) {
-      this.returnValue = returnValue;
-      return this;
+    /**
+     * @param state
+     * @param transpositionTable
+     * @param helpers runs helpers that search nodes with the searching thread, or null to only search with it
+     */
+    public SearchContext(SearchState state, TranspositionTable transpositionTable, ExecutorService helpers) {
+      this.state = state;
+      this.maxPlayer = state.getToMove();
+      this.transpositionTable = transpositionTable;
+      this.helpers = helpers;
+      this.stopped = new AtomicBoolean();
+      this.helperNodes = new AtomicLong();
+      this.returnMoveIndex = -1;
     }
 
-    public AlphaBetaClosure setRack(Rack rack) {
-      this.rack = rack;
-      return this;
+    private SearchContext(SearchContext owner, SearchState state, SplitPoint splitPoint) {
+      this.state = state;
+      this.maxPlayer = owner.maxPlayer;
+      this.transpositionTable = owner.transpositionTable;
+      this.helpers = owner.helpers;
+      this.stopped = owner.stopped;
+      this.helperNodes = owner.helperNodes;
+      this.splitPoint = splitPoint;
+      this.returnMoveIndex = -1;
     }
 
-    public AlphaBetaClosure setBoard(WordsWithFriendsBoard board) {
-      this.board = board;
-      return this;
+    public SearchState getState() {
+      return state;
     }
 
-    public AlphaBetaClosure setState(GameState state) {
-      this.state = state;
-      return this;
+    /**
+     * @return the player the search is for: the one whose turn it is at the root
+     */
+    public int getMaxPlayer() {
+      return maxPlayer;
     }
 
-    public AlphaBetaClosure setRemainingDepth(int remainingDepth) {
-      this.remainingDepth = remainingDepth;
-      return this;
+    public TranspositionTable getTranspositionTable() {
+      return transpositionTable;
     }
 
-    public AlphaBetaClosure setAlpha(double alpha) {
-      this.alpha = alpha;
-      return this;
+    /**
+     * @return true if the search was interrupted, or the part of it this context is searching was cut off
+     */
+    public boolean isStopped() {
+      if ( Thread.currentThread().isInterrupted() ) {
+        stopped.set(true);
+      }
+
+      return stopped.get() || (splitPoint != null && splitPoint.isCancelled());
     }
 
-    public AlphaBetaClosure setBeta(double beta) {
-      this.beta = beta;
-      return this;
+    /**
+     * @param remainingDepth
+     * @return true if the moves at a node this deep should be split up among threads
+     */
+    public boolean canSplit(int remainingDepth) {
+      return helpers != null && remainingDepth >= MIN_SPLIT_DEPTH && ! isStopped();
     }
 
-    public AlphaBetaClosure setPlayer(MinimaxPlayer player) {
-      this.player = player;
-      return this;
+    /**
+     * @return number of nodes searched, including by helpers
+     */
+    public long getNodesSearched() {
+      return nodesSearched + helperNodes.get();
     }
 
-    public AlphaBetaClosure setReachedTerminalState(boolean value) {
-      this.reachedTerminalState = value;
-      return this;
+    public boolean reachedTerminalState() {
+      return reachedTerminalState;
     }
 
-    public static AlphaBetaClosure newClosure(GameState state, FixedDepthParams params) {
-      MinimaxPlayer player = MinimaxPlayer.fromGameState(state);
-      WordsWithFriendsBoard board = stateHelper.createBoardFromState(state);
+    /**
+     * @return the best move found for the root, or null if there wasn't one
+     */
+    public Move getReturnMove() {
+      return returnMove;
+    }
 
-      return new AlphaBetaClosure()
-        .setAlpha(Double.NEGATIVE_INFINITY)
-        .setBeta(Double.POSITIVE_INFINITY)
-        .setPlayer(player)
-        .setState(state)
-        .setBoard(board)
-        .setRack(stateHelper.buildRack(player.getUserId(), state))
-        .setRemainingDepth(params.getMaxDepth());
+    /**
+     * @return how many moves were considered at the root before the best one
+     */
+    public int getReturnMoveIndex() {
+      return returnMoveIndex;
     }
   }
 }
@@ -1,9 +1,10 @@
 package org.sidoh.words_with_robots.move_generation;
 
-import org.sidoh.words_with_robots.data_structures.CollectionsHelper;
+import com.google.common.collect.Lists;
 import org.sidoh.words_with_robots.data_structures.gaddag.GadDag;
-import org.sidoh.words_with_robots.data_structures.gaddag.GadDagEdge;
+import org.sidoh.words_with_robots.data_structures.gaddag.TraversableGadDag;
 import org.sidoh.words_with_robots.move_generation.context.WwfMoveGeneratorReturnContext;
+import org.sidoh.words_with_robots.util.dictionary.DictionaryService;
 import org.sidoh.wwf_api.game_state.Direction;
 import org.sidoh.wwf_api.game_state.GameStateHelper;
 import org.sidoh.wwf_api.game_state.Move;
@@ -11,145 +12,623 @@ import org.sidoh.wwf_api.game_state.SlotIterator;
 import org.sidoh.wwf_api.game_state.WordsWithFriendsBoard;
 import org.sidoh.wwf_api.types.api.GameState;
 import org.sidoh.wwf_api.types.game_state.Rack;
-import org.sidoh.wwf_api.types.game_state.Slot;
 import org.sidoh.wwf_api.types.game_state.Tile;
 import org.sidoh.wwf_api.types.game_state.WordOrientation;
 
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 /**
- * A move generator that uses a GADDAG.
+ * A move generator that uses a GADDAG. Tiles are only placed where {@link CrossChecks} allow them, so
+ * every generated move is valid.
+ *
+ * The dictionary can be swapped out by a {@link DictionaryService} while moves are being generated.
+ * The snapshot is pinned by the board's {@link CrossChecks}: every anchor is traversed, and every move
+ * that has to be checked is validated, with the snapshot they were computed from. A search that keeps
+ * its cross-checks up to date as it goes sticks with one snapshot throughout, and a new snapshot is
+ * picked up by the next one.
+ *
+ * Moves are scored as they're generated, so they only need to be given a result with
+ * {@link WordsWithFriendsBoard#scoreMove(Move)} if they're used. See
+ * {@link #generateScoredMoves(Rack, WordsWithFriendsBoard, CrossChecks)}.
+ *
+ * Moves for a board can be generated on several threads at once. Each anchor's traversal only reads the
+ * board, the cross-checks and the GADDAG, and keeps its own copy of the rack.
  */
 public class GadDagWwfMoveGenerator extends WordsWithFriendsAllMovesGenerator
   implements MoveGenerator<WordsWithFriendsBoard, WwfMoveGeneratorReturnContext>,
-             GameStateMoveGenerator<WwfMoveGeneratorReturnContext> {
+             GameStateMoveGenerator<WwfMoveGeneratorReturnContext>,
+             CrossCheckedMovesGenerator {
 
   private static final GameStateHelper stateHelper = GameStateHelper.getInstance();
 
-  private final GadDag gaddag;
+  private final DictionaryService dictionary;
 
-  public GadDagWwfMoveGenerator(GadDag gaddag) {
-    this.gaddag = gaddag;
+  public GadDagWwfMoveGenerator(TraversableGadDag gaddag) {
+    this(new DictionaryService(gaddag));
   }
 
+  public GadDagWwfMoveGenerator(DictionaryService dictionary) {
+    this.dictionary = dictionary;
+  }
+
+  /**
+   * Generating moves for a single anchor uses the current snapshot. Generating them for a whole board
+   * goes through {@link #getAnchorMoveGenerator(WordsWithFriendsBoard)} instead, which uses the same
+   * snapshot for every anchor.
+   */
   @Override
-  protected Set<Move> generateMoves(int row, int col, Rack rack, WordsWithFriendsBoard board) {
-    SlotIterator.Iterator left = new SlotIterator.Iterator(row, col, WordsWithFriendsBoard.DIMENSIONS, WordsWithFriendsBoard.DIMENSIONS, WordOrientation.HORIZONTAL, Direction.BACKWARDS);
-    SlotIterator.Iterator up = new SlotIterator.Iterator(row, col, WordsWithFriendsBoard.DIMENSIONS, WordsWithFriendsBoard.DIMENSIONS, WordOrientation.VERTICAL, Direction.BACKWARDS);
+  protected List<Move> generateMoves(int row, int col, Rack rack, WordsWithFriendsBoard board) {
+    return getAnchorMoveGenerator(board).generateMoves(row, col, rack);
+  }
 
-    Move blankMoveLeft = Move.play(Collections.<Tile>emptyList(), row, col, WordOrientation.HORIZONTAL);
-    Move blankMoveUp = Move.play(Collections.<Tile>emptyList(), row, col, WordOrientation.VERTICAL);
+  @Override
+  public Iterable<Move> generateAllMoves(Rack rack, WordsWithFriendsBoard board, CrossChecks crossChecks) {
+    return generateAllMoves(rack, board, getAnchorMoveGenerator(board, crossChecks));
+  }
 
-    Set<Move> moves = new HashSet<Move>();
+  @Override
+  public List<Move> generateAllMoves(Rack rack, WordsWithFriendsBoard board, CrossChecks crossChecks, ExecutorService executor) {
+    return generateAllMoves(rack, board, getAnchorMoveGenerator(board, crossChecks), executor);
+  }
+
+  @Override
+  public ScoredMoves generateScoredMoves(Rack rack, WordsWithFriendsBoard board, CrossChecks crossChecks) {
+    // If there have been no moves, then only valid to play on (7, 7).
+    if ( ! board.hasTiles() ) {
+      return generateMoves(crossChecks, 7, 7, rack, board);
+    }
+
+    ScoredMoves moves = new ScoredMoves(new CountedRack(rack.getTiles()));
+
+    for (int i = 0; i < WordsWithFriendsBoard.DIMENSIONS * WordsWithFriendsBoard.DIMENSIONS; i++) {
+      if ( ! crossChecks.isAnchor(i) ) {
+        continue;
+      }
 
-    gen(board, up, "", new HashSet<Tile>(rack.getTiles()), gaddag.getInitEdge(), blankMoveUp, moves);
-    gen(board, left, "", new HashSet<Tile>(rack.getTiles()), gaddag.getInitEdge(), blankMoveLeft, moves);
+      ScoredMoves anchorMoves = generateMoves(crossChecks,
+        WordsWithFriendsBoard.getRowFromIndex(i),
+        WordsWithFriendsBoard.getColFromIndex(i),
+        rack,
+        board);
+
+      if ( crossChecks.isExact() ) {
+        moves.addAll(anchorMoves);
+      }
+      else {
+        for (int j = 0; j < anchorMoves.size(); j++) {
+          if ( isValidMove(crossChecks.getGadDag(), board, anchorMoves.get(j)) ) {
+            moves.add(anchorMoves.getPackedMove(j), anchorMoves.getScore(j));
+          }
+        }
+      }
+    }
 
     return moves;
   }
 
+  /**
+   * Generates the k highest scoring moves, highest first, and gives them results.
+   *
+   * @param rack
+   * @param board
+   * @param k
+   * @return
+   */
   @Override
-  protected boolean isWord(String word) {
-    return gaddag.isWord(word);
+  public List<Move> generateTopMoves(Rack rack, WordsWithFriendsBoard board, int k) {
+    List<Move> moves = Lists.newArrayList(generateTopMoves(rack, board, getCrossChecks(board), k));
+
+    for (Move move : moves) {
+      board.scoreMove(move);
+    }
+
+    return moves;
+  }
+
+  @Override
+  public ScoredMoves generateTopMoves(Rack rack, WordsWithFriendsBoard board, CrossChecks crossChecks, int k) {
+    CountedRack tiles = new CountedRack(rack.getTiles());
+    TopScoredMoves topMoves = new TopScoredMoves(k);
+
+    // Moves have to be validated before they can push better ones out
+    if ( ! crossChecks.isExact() ) {
+      ScoredMoves moves = generateScoredMoves(rack, board, crossChecks);
+      for (int i = 0; i < moves.size(); i++) {
+        topMoves.add(moves.getPackedMove(i), moves.getScore(i));
+      }
+    }
+    // If there have been no moves, then only valid to play on (7, 7).
+    else if ( ! board.hasTiles() ) {
+      generateMoves(crossChecks, 7, 7, tiles, board, topMoves);
+    }
+    else {
+      for (int i = 0; i < WordsWithFriendsBoard.DIMENSIONS * WordsWithFriendsBoard.DIMENSIONS; i++) {
+        if ( crossChecks.isAnchor(i) ) {
+          generateMoves(crossChecks, WordsWithFriendsBoard.getRowFromIndex(i), WordsWithFriendsBoard.getColFromIndex(i), tiles, board, topMoves);
+        }
+      }
+    }
+
+    return topMoves.toScoredMoves(tiles);
+  }
+
+  /**
+   * Computes cross-checks for the board so that only valid moves are generated for its anchors. All
+   * of the anchors use the same dictionary snapshot.
+   *
+   * @param board
+   * @return
+   */
+  @Override
+  protected AnchorMoveGenerator getAnchorMoveGenerator(WordsWithFriendsBoard board) {
+    return getAnchorMoveGenerator(board, getCrossChecks(board));
+  }
+
+  /**
+   * @param board
+   * @return cross-checks for the provided board using the current dictionary snapshot
+   */
+  @Override
+  public CrossChecks getCrossChecks(WordsWithFriendsBoard board) {
+    return getCrossChecks(dictionary.getSnapshot(), board);
+  }
+
+  /**
+   * @param gaddag
+   * @param board
+   * @return cross-checks to generate moves on the provided board with
+   */
+  protected CrossChecks getCrossChecks(TraversableGadDag gaddag, WordsWithFriendsBoard board) {
+    return CrossChecks.compute(gaddag, board);
+  }
+
+  private AnchorMoveGenerator getAnchorMoveGenerator(final WordsWithFriendsBoard board, final CrossChecks crossChecks) {
+    return new AnchorMoveGenerator() {
+      @Override
+      public List<Move> generateMoves(int row, int col, Rack rack) {
+        return GadDagWwfMoveGenerator.this.generateMoves(crossChecks, row, col, rack, board);
+      }
+
+      @Override
+      public boolean needsValidation() {
+        return ! crossChecks.isExact();
+      }
+
+      @Override
+      public boolean isValidMove(Move move) {
+        return GadDagWwfMoveGenerator.this.isValidMove(crossChecks.getGadDag(), board, move);
+      }
+
+      @Override
+      public boolean isAnchor(int index) {
+        return crossChecks.isAnchor(index);
+      }
+    };
+  }
+
+  private ScoredMoves generateMoves(CrossChecks crossChecks, int row, int col, Rack rack, WordsWithFriendsBoard board) {
+    // Every tile taken from the rack is put back once moves are generated, so the moves can be built
+    // from it afterwards
+    CountedRack tiles = new CountedRack(rack.getTiles());
+    ScoredMoves moves = new ScoredMoves(tiles);
+
+    generateMoves(crossChecks, row, col, tiles, board, moves);
+
+    return moves;
   }
 
-  private void gen(WordsWithFriendsBoard board, SlotIterator.Iterator itr, String word, Set<Tile> tiles, GadDagEdge edge, Move move, Set<Move> moves) {
-    int index = itr.current();
-    Slot slot = board.getSlot(index);
+  private void generateMoves(CrossChecks crossChecks, int row, int col, CountedRack tiles, WordsWithFriendsBoard board, PackedMoveCollector moves) {
+    int index = row * WordsWithFriendsBoard.DIMENSIONS + col;
+    SlotIterator.Iterator left = new SlotIterator.Iterator(row, col, WordsWithFriendsBoard.DIMENSIONS, WordsWithFriendsBoard.DIMENSIONS, WordOrientation.HORIZONTAL, Direction.BACKWARDS);
+    SlotIterator.Iterator up = new SlotIterator.Iterator(row, col, WordsWithFriendsBoard.DIMENSIONS, WordsWithFriendsBoard.DIMENSIONS, WordOrientation.VERTICAL, Direction.BACKWARDS);
+
+    // Both directions share the rack. Every tile taken from it is put back before gen returns.
+    // A single tile next to tiles on its left or right is found going across as well, so it's only
+    // kept from there
+    boolean acrossNeighbors = (col > 0 && board.getSlot(index - 1).getTile() != null)
+      || (col < WordsWithFriendsBoard.DIMENSIONS - 1 && board.getSlot(index + 1).getTile() != null);
+
+    new AnchorTraversal(crossChecks, WordOrientation.VERTICAL, index, board, tiles, moves, acrossNeighbors)
+      .gen(up, crossChecks.getGadDag().getInitArc(), index, 0L, 0, 1, 0);
+    new AnchorTraversal(crossChecks, WordOrientation.HORIZONTAL, index, board, tiles, moves, false)
+      .gen(left, crossChecks.getGadDag().getInitArc(), index, 0L, 0, 1, 0);
+  }
 
-    if (slot.getTile() != null) {
-      goOn(board, itr.clone(), slot.getTile(), word, tiles, gaddag.nextEdge(edge, slot.getTile().getLetter().getValue()), edge, move.clone(), moves);
+  @Override
+  protected boolean isWord(String word) {
+    return dictionary.getWordSet().isWord(word);
+  }
+
+  /**
+   * @param gaddag the snapshot the move was generated from
+   * @param board
+   * @param move
+   * @return true if the move only forms words in the snapshot
+   */
+  protected boolean isValidMove(TraversableGadDag gaddag, WordsWithFriendsBoard board, Move move) {
+    if ( move.getResult() == null ) {
+      board.scoreMove(move);
     }
-    else if (tiles.size() > 0) {
-      for (Tile tile : tiles) {
-        goOn(board, itr.clone(), tile, word, CollectionsHelper.minus(tiles, tile), gaddag.nextEdge(edge, tile.getLetter().getValue()), edge, move.clone(), moves);
+
+    for (String word : move.getResult().getResultingWords()) {
+      if ( ! dictionary.isWord(gaddag, word) ) {
+        return false;
       }
     }
+
+    return true;
   }
 
-  private void goOn(WordsWithFriendsBoard board, SlotIterator.Iterator itr, Tile l, String word, Set<Tile> tiles, GadDagEdge newEdge, GadDagEdge oldEdge, Move move, Set<Move> moves) {
-    Slot slot = board.getSlot( itr.current() );
+  /**
+   * Finds the moves in one direction through a single anchor.
+   *
+   * Each move is only found from one anchor: the first one it places a tile on. While moving left (or up)
+   * from the anchor, tiles aren't placed on other anchors, since moves that do are found from those.
+   *
+   * The move so far is kept packed like {@link PackedMoves}: start is the slot index the word starts on,
+   * which is only known once the traversal turns right, and placed has the tiles placed so far.
+   *
+   * The score is added up along the way the same way the board scores moves. mainScore is the sum of the
+   * tiles in the move's word so far, with letter multipliers for the new tiles, and wordMultiplier is the
+   * product of the word multipliers under them. crossScore is the total of the words formed across the
+   * play by the new tiles, which are complete as soon as the tile is placed.
+   *
+   * If the collector doesn't keep every move, paths that can't score more than its minimum are skipped.
+   * See {@link LineBounds} for how the most a path can be worth is worked out.
+   */
+  private static class AnchorTraversal {
+    private static final int BOARD_TILE = -1;
+
+    private final TraversableGadDag gaddag;
+    private final CrossChecks crossChecks;
+    private final WordOrientation orientation;
+    private final int[] allowedLetters;
+    private final WordsWithFriendsBoard board;
+    private final CountedRack tiles;
+    private final int[] crossScores;
+    private final PackedMoveCollector moves;
+    private final boolean skipSingleTiles;
+    private final int rackSize;
+
+    // For bounding what a path can score. They're only computed once some moves can be skipped.
+    private final int anchor;
+    private int remainingValue;
+    private LineBounds bounds;
+
+    private AnchorTraversal(CrossChecks crossChecks, WordOrientation orientation, int anchor, WordsWithFriendsBoard board,
+                            CountedRack tiles, PackedMoveCollector moves, boolean skipSingleTiles) {
+      this.gaddag = crossChecks.getGadDag();
+      this.crossChecks = crossChecks;
+      this.orientation = orientation;
+      this.allowedLetters = crossChecks.getAllowedLetters(orientation);
+      this.crossScores = crossChecks.getCrossScores(orientation);
+      this.board = board;
+      this.tiles = tiles;
+      this.moves = moves;
+      this.skipSingleTiles = skipSingleTiles;
+      this.rackSize = tiles.size();
+      this.anchor = anchor;
+      this.remainingValue = tiles.getValue();
+    }
 
-    if (itr.offset() <= 0) {
-      word = l.getLetter().getValue().concat(word);
+    /**
+     * @return the most any move found by continuing from the square at index could be worth
+     */
+    private int getMaxScore(int index, boolean forwards, int mainScore, int wordMultiplier, int crossScore) {
+      if (bounds == null) {
+        bounds = new LineBounds(board, crossScores, orientation, anchor);
+      }
 
-      if ( slot.getTile() == null && itr.hasNext() )
-        move = move.playBack(l);
-      else
-        move = move.moveBack();
+      int remaining = tiles.size();
+      int position = bounds.getPosition(index);
+      int ray = LineBounds.getRay(position, remaining);
 
-      boolean noLeft = ! itr.hasNext();
+      int tileValue, squares, letterMultiplier, squareWordMultiplier, crossWordScore, crossMultiplier;
 
-      if ( ! noLeft ) {
-        noLeft = board.getSlot( itr.next() ).getTile() == null;
-        itr.stepForwards();
+      if (forwards) {
+        tileValue = bounds.forwards.tileValue[ray];
+        squares = bounds.forwards.squares[ray];
+        letterMultiplier = bounds.forwards.letterMultiplier[ray];
+        squareWordMultiplier = bounds.forwards.wordMultiplier[ray];
+        crossWordScore = bounds.forwards.crossScore[ray];
+        crossMultiplier = bounds.forwards.crossMultiplier[ray];
+      }
+      else {
+        // Tiles can still go after the anchor once the traversal turns around
+        int afterAnchor = LineBounds.getRay(bounds.getPosition(anchor) + 1, remaining);
+
+        tileValue = bounds.backwards.tileValue[ray] + bounds.forwards.tileValue[afterAnchor];
+        squares = bounds.backwards.squares[ray] + bounds.forwards.squares[afterAnchor];
+        letterMultiplier = Math.max(bounds.backwards.letterMultiplier[ray], bounds.forwards.letterMultiplier[afterAnchor]);
+        squareWordMultiplier = bounds.backwards.wordMultiplier[ray] * bounds.forwards.wordMultiplier[afterAnchor];
+        crossWordScore = bounds.backwards.crossScore[ray] + bounds.forwards.crossScore[afterAnchor];
+        crossMultiplier = Math.max(bounds.backwards.crossMultiplier[ray], bounds.forwards.crossMultiplier[afterAnchor]);
       }
 
-      if ( oldEdge.hasWordLetter(l.getLetter().getValue()) && noLeft ) {
-        moves.add(move.moveForward());
+      int maxMainScore = (mainScore + tileValue + remainingValue * letterMultiplier) * wordMultiplier * squareWordMultiplier;
+      int maxCrossScore = crossScore + crossWordScore + remainingValue * crossMultiplier;
+
+      return maxMainScore + maxCrossScore + (squares >= remaining ? PremiumSquares.getBonus(rackSize) : 0);
+    }
+
+    private void gen(SlotIterator.Iterator itr, int arc, int start, long placed, int mainScore, int wordMultiplier, int crossScore) {
+      int index = itr.current();
+
+      int minScore = moves.getMinScore();
+      if (minScore != Integer.MIN_VALUE && getMaxScore(index, itr.offset() > 0, mainScore, wordMultiplier, crossScore) <= minScore) {
+        return;
+      }
+
+      Tile boardTile = board.getSlot(index).getTile();
+
+      if (boardTile != null) {
+        char letter = getLetter(boardTile);
+        goOn(itr.clone(), letter, BOARD_TILE, gaddag.nextArc(arc, letter), arc, start, placed,
+          mainScore + boardTile.getValue(), wordMultiplier, crossScore);
       }
+      // Anchors before the one this started from get their own traversals
+      else if (tiles.size() > 0 && ! (itr.offset() < 0 && crossChecks.isAnchor(index))) {
+        int letterMultiplier = PremiumSquares.getLetterMultiplier(index);
+        int squareWordMultiplier = PremiumSquares.getWordMultiplier(index);
+        int crossWordScore = crossScores[index];
+
+        // Tiles with the same letter lead to the same moves, so only one from each slot is tried
+        for (int rackSlot = 0; rackSlot < CountedRack.NUM_SLOTS; rackSlot++) {
+          int letterIndex = CountedRack.getLetterIndex(rackSlot);
+
+          // Skip letters that would form an invalid word across the play
+          if ( ! tiles.has(rackSlot) || (allowedLetters[index] & (1 << letterIndex)) == 0) {
+            continue;
+          }
+
+          char letter = (char)('A' + letterIndex);
+          int value = tiles.take(rackSlot).getValue();
+          int letterScore = value * letterMultiplier;
+
+          remainingValue -= value;
+          goOn(itr.clone(), letter, PackedMoves.packTile(letterIndex, rackSlot >= CountedRack.NUM_LETTERS),
+            gaddag.nextArc(arc, letter), arc, start, placed,
+            mainScore + letterScore,
+            wordMultiplier * squareWordMultiplier,
+            crossScore + scoreCrossWord(crossWordScore, letterScore, squareWordMultiplier));
+          remainingValue += value;
+          tiles.putBack(rackSlot);
+        }
+
+        // A blank can be played as any letter, so follow every arc that the cross-checks allow
+        if (tiles.has(CountedRack.BLANK_SLOT)) {
+          for (int letterIndex = 0; letterIndex < CountedRack.NUM_LETTERS; letterIndex++) {
+            char letter = (char)('A' + letterIndex);
+
+            if ((allowedLetters[index] & (1 << letterIndex)) == 0) {
+              continue;
+            }
+
+            int nextArc = gaddag.nextArc(arc, letter);
+
+            // Nothing to follow and no word to finish with this letter
+            if (nextArc == TraversableGadDag.NULL_ARC && ! gaddag.hasWordLetter(arc, letter)) {
+              continue;
+            }
+
+            // Blanks are worth nothing themselves, but they still complete the word across the play.
+            // They're only bound to the letter if the move is built.
+            tiles.take(CountedRack.BLANK_SLOT);
+            goOn(itr.clone(), letter, PackedMoves.packTile(letterIndex, true), nextArc, arc, start, placed,
+              mainScore,
+              wordMultiplier * squareWordMultiplier,
+              crossScore + scoreCrossWord(crossWordScore, 0, squareWordMultiplier));
+            tiles.putBack(CountedRack.BLANK_SLOT);
+          }
+        }
+      }
+    }
+
+    private void goOn(SlotIterator.Iterator itr, char letter, int tile, int newArc, int oldArc, int start, long placed,
+                      int mainScore, int wordMultiplier, int crossScore) {
+      if (itr.offset() <= 0) {
+        if ( tile != BOARD_TILE )
+          placed = PackedMoves.prependTile(placed, tile);
+
+        // Until the traversal turns right, the word starts on the current square
+        start = itr.current();
 
-      if ( newEdge != null ) {
-        SlotIterator.Iterator moveItr = itr.atOffset(itr.offset() - 1);
+        boolean roomLeft = itr.hasNext();
+        boolean noLeft = ! roomLeft;
 
-        if ( moveItr.hasNext() ) {
-          gen(board, moveItr, word, tiles, newEdge, move, moves);
+        if ( roomLeft ) {
+          noLeft = board.getSlot( itr.next() ).getTile() == null;
+          itr.stepForwards();
         }
 
-        SlotIterator.Iterator forwardsItr = itr.atOffset(0).withDirection(Direction.FORWARDS);
+        // Words found while moving left end at the anchor, so there can't be a tile right after it
+        if ( gaddag.hasWordLetter(oldArc, letter) && noLeft && isEmptyAfterAnchor(itr) ) {
+          record(start, placed, mainScore, wordMultiplier, crossScore);
+        }
+
+        if ( newArc != TraversableGadDag.NULL_ARC ) {
+          if ( roomLeft ) {
+            gen(itr.atOffset(itr.offset() - 1), newArc, start, placed, mainScore, wordMultiplier, crossScore);
+          }
 
-        if ( itr.hasNext() )
-          itr.next();
+          SlotIterator.Iterator forwardsItr = itr.atOffset(0).withDirection(Direction.FORWARDS);
 
-        // Skip over the hook tile
-        if ( forwardsItr.hasNext() )
-          forwardsItr.next();
+          // Skip over the hook tile
+          boolean roomRight = forwardsItr.hasNext();
+          if ( roomRight )
+            forwardsItr.next();
 
-        newEdge = gaddag.nextEdge( newEdge, GadDag.CONCAT_OPERATOR );
-        noLeft = !itr.hasNext() || board.getSlot(itr.current()).getTile() == null;
-        boolean roomRight = forwardsItr.hasNext();
+          newArc = gaddag.nextArc( newArc, GadDag.CONCAT_OPERATOR );
 
-        if ( newEdge != null && noLeft && roomRight ) {
-          gen(board, forwardsItr, word, tiles, newEdge, move, moves);
+          if ( newArc != TraversableGadDag.NULL_ARC && noLeft && roomRight ) {
+            gen(forwardsItr, newArc, start, placed, mainScore, wordMultiplier, crossScore);
+          }
         }
       }
-    }
-    else if (itr.offset() > 0) {
-      word = word.concat(l.getLetter().getValue());
+      else if (itr.offset() > 0) {
+        // The tile has already been taken from the rack
+        if ( tile != BOARD_TILE )
+          placed = PackedMoves.appendTile(placed, rackSize - tiles.size() - 1, tile);
+
+        boolean roomRight = itr.hasNext();
+        boolean noRight = ! roomRight;
 
-      if ( slot.getTile() == null && itr.hasNext() )
-        move = move.playFront(l);
+        if ( roomRight ) {
+          noRight = board.getSlot( itr.next() ).getTile() == null;
+          itr.stepBackwards();
+        }
 
-      boolean noRight = ! itr.hasNext();
+        if ( gaddag.hasWordLetter( oldArc, letter ) && noRight ) {
+          record(start, placed, mainScore, wordMultiplier, crossScore);
+        }
 
-      if ( ! noRight ) {
-        noRight = board.getSlot( itr.next() ).getTile() == null;
-        itr.stepBackwards();
+        if ( newArc != TraversableGadDag.NULL_ARC && roomRight ) {
+          gen(itr.atOffset(itr.offset() + 1), newArc, start, placed, mainScore, wordMultiplier, crossScore);
+        }
       }
+    }
 
-      if ( oldEdge.hasWordLetter( l.getLetter().getValue() ) && noRight ) {
-        moves.add(move.moveForward());
+    private void record(int start, long placed, int mainScore, int wordMultiplier, int crossScore) {
+      int numPlaced = rackSize - tiles.size();
+
+      if ( ! (skipSingleTiles && numPlaced == 1) ) {
+        moves.add(PackedMoves.pack(placed, numPlaced, start, orientation),
+          mainScore * wordMultiplier + crossScore + PremiumSquares.getBonus(numPlaced));
       }
+    }
+
+    private static int scoreCrossWord(int crossWordScore, int letterScore, int wordMultiplier) {
+      return crossWordScore == CrossChecks.NO_CROSS_WORD ? 0 : (crossWordScore + letterScore) * wordMultiplier;
+    }
+
+    private boolean isEmptyAfterAnchor(SlotIterator.Iterator itr) {
+      SlotIterator.Iterator afterAnchor = itr.atOffset(0).withDirection(Direction.FORWARDS);
+      return ! afterAnchor.hasNext() || board.getSlot(afterAnchor.next()).getTile() == null;
+    }
+  }
 
-      SlotIterator.Iterator rItr = itr.atOffset(itr.offset() + 1);
-      if ( newEdge != null && rItr.hasNext() ) {
-        gen(board, rItr, word, tiles, newEdge, move, moves);
+  /**
+   * Bounds what the squares along the line through an anchor can add to a move. Tiles placed after a
+   * square always go on the empty squares closest to it, since words can't have gaps. So if n more tiles
+   * can be placed, the move can only get to the first n empty squares going each way, and the tiles up to
+   * the one after that.
+   *
+   * For each position along the line and each n, each {@link Ray} has the total value of those tiles, the
+   * number of empty squares (up to n), the product of their word multipliers, their best letter
+   * multiplier, the most the cross words through them already score and the most a tile's value is
+   * multiplied by in a cross word through them. They're optimistic: every tile left on the rack is assumed
+   * to get the best of the multipliers.
+   */
+  private static class LineBounds {
+    private static final int NUM_COUNTS = WordsWithFriendsBoard.TILES_PER_PLAYER + 1;
+
+    private final WordOrientation orientation;
+    private final Ray forwards;
+    private final Ray backwards;
+
+    private LineBounds(WordsWithFriendsBoard board, int[] crossScores, WordOrientation orientation, int anchor) {
+      int step = orientation == WordOrientation.HORIZONTAL ? 1 : WordsWithFriendsBoard.DIMENSIONS;
+      int first = orientation == WordOrientation.HORIZONTAL
+        ? anchor - WordsWithFriendsBoard.getColFromIndex(anchor)
+        : WordsWithFriendsBoard.getColFromIndex(anchor);
+
+      this.orientation = orientation;
+      this.forwards = new Ray(board, crossScores, first, step, 1);
+      this.backwards = new Ray(board, crossScores, first, step, -1);
+    }
+
+    /**
+     * @param index slot index on the line
+     * @return how far along the line the slot is
+     */
+    private int getPosition(int index) {
+      return orientation == WordOrientation.HORIZONTAL
+        ? WordsWithFriendsBoard.getColFromIndex(index)
+        : WordsWithFriendsBoard.getRowFromIndex(index);
+    }
+
+    /**
+     * @param position where the ray starts, which may be just off the line
+     * @param count number of tiles that could be placed
+     * @return index into a ray's arrays
+     */
+    private static int getRay(int position, int count) {
+      return position * NUM_COUNTS + count;
+    }
+
+    private static class Ray {
+      // One extra position for rays that start just off the end of the line, which have nothing on them
+      private final int[] tileValue = new int[(WordsWithFriendsBoard.DIMENSIONS + 1) * NUM_COUNTS];
+      private final int[] squares = new int[tileValue.length];
+      private final int[] wordMultiplier = new int[tileValue.length];
+      private final int[] letterMultiplier = new int[tileValue.length];
+      private final int[] crossScore = new int[tileValue.length];
+      private final int[] crossMultiplier = new int[tileValue.length];
+
+      private Ray(WordsWithFriendsBoard board, int[] crossScores, int first, int step, int direction) {
+        for (int start = 0; start <= WordsWithFriendsBoard.DIMENSIONS; start++) {
+          int count = 0;
+          int value = 0;
+          int wordProduct = 1;
+          int bestLetter = 0;
+          int cross = 0;
+          int bestCross = 0;
+
+          for (int position = start; position >= 0 && position < WordsWithFriendsBoard.DIMENSIONS && count < NUM_COUNTS; position += direction) {
+            int index = first + position * step;
+            Tile tile = board.getSlot(index).getTile();
+
+            if (tile != null) {
+              value += tile.getValue();
+              continue;
+            }
+
+            // What the ray is worth with one fewer tile stops just before this square
+            set(getRay(start, count), count, value, wordProduct, bestLetter, cross, bestCross);
+            count++;
+
+            wordProduct *= PremiumSquares.getWordMultiplier(index);
+            bestLetter = Math.max(bestLetter, PremiumSquares.getLetterMultiplier(index));
+
+            if (crossScores[index] != CrossChecks.NO_CROSS_WORD) {
+              cross += crossScores[index] * PremiumSquares.getWordMultiplier(index);
+              bestCross = Math.max(bestCross, PremiumSquares.getLetterMultiplier(index) * PremiumSquares.getWordMultiplier(index));
+            }
+          }
+
+          // There are no more empty squares, so more tiles don't help
+          for (int n = count; n < NUM_COUNTS; n++) {
+            set(getRay(start, n), count, value, wordProduct, bestLetter, cross, bestCross);
+          }
+        }
+      }
+
+      private void set(int ray, int count, int value, int wordProduct, int bestLetter, int cross, int bestCross) {
+        squares[ray] = count;
+        tileValue[ray] = value;
+        wordMultiplier[ray] = wordProduct;
+        letterMultiplier[ray] = bestLetter;
+        crossScore[ray] = cross;
+        crossMultiplier[ray] = bestCross;
       }
     }
   }
 
+  private static char getLetter(Tile tile) {
+    return tile.getLetter().getValue().charAt(0);
+  }
+
   @Override
   public WwfMoveGeneratorReturnContext generateMove(Rack rack, WordsWithFriendsBoard board) {
+    ScoredMoves moves = generateScoredMoves(rack, board, getCrossChecks(board));
+    int best = moves.getBestIndex();
     Move bestMove = null;
 
-    for (Move move : generateAllMoves(rack, board)) {
-      board.scoreMove(move);
-
-      if ( bestMove == null || move.getResult().getScore() > bestMove.getResult().getScore() ) {
-        bestMove = move;
-      }
+    // Only the move that's returned needs a result
+    if ( best != -1 ) {
+      bestMove = moves.get(best);
+      board.scoreMove(bestMove);
     }
 
     return new WwfMoveGeneratorReturnContext(bestMove);
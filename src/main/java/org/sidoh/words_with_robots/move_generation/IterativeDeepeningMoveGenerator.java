@@ -16,25 +16,142 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+/**
+ * Searches deeper and deeper with a {@link FixedDepthMoveGenerator} until it runs out of time, and returns
+ * the move from the deepest search that finished. Each depth shares a transposition table with the ones
+ * before it.
+ *
+ * With helperThreads, helper searches run alongside the main one from the same position (lazy SMP). They
+ * start a ply or two deeper than the main search and search moves in a different order, so they fill the
+ * table with results the main search hasn't gotten to yet. The table is the only thing they share with it;
+ * their moves are thrown away, and they're stopped when the main search returns.
+ */
 public class IterativeDeepeningMoveGenerator implements GameStateMoveGenerator<WwfMoveGeneratorReturnContext> {
   private static final Logger LOG = LoggerFactory.getLogger(IterativeDeepeningMoveGenerator.class);
   private static final GameStateHelper stateHelper = GameStateHelper.getInstance();
+  private static final ThreadFactory HELPER_THREAD_FACTORY = new ThreadFactory() {
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, IterativeDeepeningMoveGenerator.class.getSimpleName());
+      thread.setDaemon(true);
+      return thread;
+    }
+  };
+
+  // Spreads helpers' move order seeds out so that no two of them rotate moves the same way
+  private static final long MOVE_ORDER_SEED_STEP = 0x9E3779B97F4A7C15L;
 
   private final FixedDepthMoveGenerator fixedDepthGenerator;
   private AllMovesGenerator<WordsWithFriendsBoard> allMovesGenerator;
   private IterativeDeepeningParams params = new IterativeDeepeningParams();
 
   public IterativeDeepeningMoveGenerator(AllMovesGenerator<WordsWithFriendsBoard> allMovesGenerator) {
+    this(allMovesGenerator, null);
+  }
+
+  /**
+   * @param allMovesGenerator
+   * @param executor runs tasks that generate moves for the root of each search. Can be null to generate
+   *   them on the searching thread.
+   */
+  public IterativeDeepeningMoveGenerator(AllMovesGenerator<WordsWithFriendsBoard> allMovesGenerator, ExecutorService executor) {
     this.allMovesGenerator = allMovesGenerator;
-    this.fixedDepthGenerator = new FixedDepthMoveGenerator(allMovesGenerator);
+    this.fixedDepthGenerator = new FixedDepthMoveGenerator(allMovesGenerator, new FixedDepthParams(), executor);
+  }
+
+  public IterativeDeepeningMoveGenerator updateParam(IterativeDeepeningParams._Fields key, Object value) {
+    params.setFieldValue(key, value);
+    return this;
+  }
+
+  /**
+   * Update a parameter of the fixed-depth searches run for each depth, such as searchThreads. maxDepth is
+   * set by this generator, so updating it does nothing.
+   *
+   * @param key
+   * @param value
+   * @return
+   */
+  public IterativeDeepeningMoveGenerator updateFixedDepthParam(FixedDepthParams._Fields key, Object value) {
+    fixedDepthGenerator.updateParam(key, value);
+    return this;
   }
 
   @Override
   public WwfMoveGeneratorReturnContext generateMove(GameState state) {
+    // Each depth picks up where the last one left off
+    TranspositionTable transpositionTable = new TranspositionTable();
+    ExecutorService helpers = startHelpers(state, transpositionTable);
+
+    try {
+      return search(state, transpositionTable);
+    }
+    finally {
+      if ( helpers != null ) {
+        helpers.shutdownNow();
+      }
+    }
+  }
+
+  /**
+   * Start the helper searches. Each one keeps searching deeper until it's interrupted or reaches the end of
+   * the game.
+   *
+   * @param state
+   * @param transpositionTable the main search's table
+   * @return the pool running the helpers, or null if there aren't any
+   */
+  private ExecutorService startHelpers(final GameState state, TranspositionTable transpositionTable) {
+    int numHelpers = params.getHelperThreads();
+    if ( numHelpers <= 0 ) {
+      return null;
+    }
+
+    ExecutorService helpers = Executors.newFixedThreadPool(numHelpers, HELPER_THREAD_FACTORY);
+
+    for (int i = 0; i < numHelpers; i++) {
+      // The main search starts at depth 2. Staggering the helpers keeps them from all searching the same depth.
+      final int startDepth = 3 + i % 2;
+      final FixedDepthMoveGenerator helper = fixedDepthGenerator
+        .deepCopy()
+        .withTranspositionTable(transpositionTable)
+        .withMoveOrderSeed((i + 1) * MOVE_ORDER_SEED_STEP);
+
+      helpers.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            for (int depth = startDepth; ! Thread.currentThread().isInterrupted(); depth++) {
+              FixedDepthReturnContext answer = helper
+                .updateParam(FixedDepthParams._Fields.MAX_DEPTH, depth)
+                .generateMove(state);
+
+              if ( answer.isTerminal() ) {
+                break;
+              }
+            }
+          }
+          catch (RuntimeException e) {
+            // Helpers are stopped by interrupting them, which can surface as an exception from move generation
+            if ( ! Thread.currentThread().isInterrupted() ) {
+              LOG.error("Helper search failed", e);
+            }
+          }
+        }
+      });
+    }
+
+    return helpers;
+  }
+
+  private WwfMoveGeneratorReturnContext search(GameState state, TranspositionTable transpositionTable) {
     LOG.info("Generating move. Starting at depth 2");
     boolean verboseStats = params.isVerboseStatsEnabled();
     long maxExecutionTime = params.getMaxExecutionTime();
@@ -57,7 +174,8 @@ public class IterativeDeepeningMoveGenerator implements GameStateMoveGenerator<W
 
       FixedDepthMoveGenerator clone = fixedDepthGenerator
         .deepCopy()
-        .updateParam(FixedDepthParams._Fields.MAX_DEPTH, currentDepth);
+        .updateParam(FixedDepthParams._Fields.MAX_DEPTH, currentDepth)
+        .withTranspositionTable(transpositionTable);
       Future<FixedDepthReturnContext> future = MoveGenerators.asNonBlockingGenerator(clone)
         .generateMove(state)
         .getFuture();
@@ -75,12 +193,16 @@ public class IterativeDeepeningMoveGenerator implements GameStateMoveGenerator<W
       }
       catch (InterruptedException e) {
         LOG.debug("interrupted -- returning best move found: {}", bestMove);
+        future.cancel(true);
+        Thread.currentThread().interrupt();
         return new WwfMoveGeneratorReturnContext(bestMove);
       }
       catch (ExecutionException e) {
         throw new RuntimeException(e);
       }
       catch (TimeoutException e) {
+        // Stop the search rather than let it run on in the background
+        future.cancel(true);
         return new WwfMoveGeneratorReturnContext(bestMove);
       }
 
@@ -118,7 +240,7 @@ public class IterativeDeepeningMoveGenerator implements GameStateMoveGenerator<W
    * @return
    */
   protected int findMoveRank(Rack rack, WordsWithFriendsBoard board, Move move) {
-    return allMovesGenerator.getMoveScoreRank(allMovesGenerator.generateAllMoves(rack, board), move);
+    return allMovesGenerator.getMoveScoreRank(rack, board, move);
   }
 
   /**
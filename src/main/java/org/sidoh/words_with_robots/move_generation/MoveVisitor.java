@@ -0,0 +1,16 @@
+package org.sidoh.words_with_robots.move_generation;
+
+import org.sidoh.wwf_api.game_state.Move;
+
+/**
+ * Receives moves as they're generated by {@link AllMovesGenerator#generateAllMoves(org.sidoh.wwf_api.types.game_state.Rack,
+ * org.sidoh.wwf_api.game_state.Board, MoveVisitor)}, so that consumers that only need to look at each move
+ * once don't need them all to be kept around.
+ */
+public interface MoveVisitor {
+  /**
+   * @param move a valid move. It's been scored, so it has a result.
+   * @return true to keep generating moves, false to stop
+   */
+  public boolean visit(Move move);
+}
@@ -0,0 +1,18 @@
+package org.sidoh.words_with_robots.move_generation;
+
+/**
+ * Receives moves from the GADDAG traversal as they're found, packed with {@link PackedMoves}.
+ */
+interface PackedMoveCollector {
+  /**
+   * @param move packed move
+   * @param score what the move is worth
+   */
+  public void add(long move, int score);
+
+  /**
+   * @return moves that aren't worth more than this won't be kept, so there's no need to look for them.
+   *   Integer.MIN_VALUE if every move is kept.
+   */
+  public int getMinScore();
+}
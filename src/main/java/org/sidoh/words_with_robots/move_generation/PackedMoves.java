@@ -0,0 +1,157 @@
+package org.sidoh.words_with_robots.move_generation;
+
+import org.sidoh.wwf_api.game_state.Move;
+import org.sidoh.wwf_api.game_state.WordsWithFriendsBoard;
+import org.sidoh.wwf_api.types.game_state.Tile;
+import org.sidoh.wwf_api.types.game_state.WordOrientation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Packs a play into a long so that move generation doesn't have to build a {@link Move} for every move
+ * it finds. The low bits hold the tiles placed, 6 bits each with the first tile lowest: the letter,
+ * starting at 0 for 'A', and a flag for blanks. Above those are the number of tiles, the slot index the
+ * word starts on and the orientation.
+ *
+ * A packed move only says which letters are placed, so it's turned back into a Move with the tiles from
+ * the rack it was generated for.
+ */
+public final class PackedMoves {
+  public static final int BLANK_FLAG = 1 << 5;
+
+  private static final int TILE_BITS = 6;
+  private static final int TILE_MASK = (1 << TILE_BITS) - 1;
+  private static final int LETTER_MASK = BLANK_FLAG - 1;
+  private static final int COUNT_SHIFT = TILE_BITS * WordsWithFriendsBoard.TILES_PER_PLAYER;
+  private static final int START_SHIFT = COUNT_SHIFT + 3;
+  private static final int VERTICAL_SHIFT = START_SHIFT + 8;
+
+  private PackedMoves() { }
+
+  /**
+   * @param letterIndex letter the tile is played as, starting at 0 for 'A'
+   * @param blank true if the tile is a blank
+   * @return what a tile is packed as
+   */
+  public static int packTile(int letterIndex, boolean blank) {
+    return blank ? letterIndex | BLANK_FLAG : letterIndex;
+  }
+
+  /**
+   * @param tiles packed tiles, the first one in the lowest bits
+   * @param numTiles
+   * @param start slot index of the first square of the word the move forms
+   * @param orientation
+   * @return the packed move
+   */
+  public static long pack(long tiles, int numTiles, int start, WordOrientation orientation) {
+    return tiles
+      | ((long) numTiles << COUNT_SHIFT)
+      | ((long) start << START_SHIFT)
+      | (orientation == WordOrientation.VERTICAL ? 1L << VERTICAL_SHIFT : 0);
+  }
+
+  /**
+   * @param tiles packed tiles
+   * @param tile packed tile to put before them
+   * @return
+   */
+  public static long prependTile(long tiles, int tile) {
+    return (tiles << TILE_BITS) | tile;
+  }
+
+  /**
+   * @param tiles packed tiles
+   * @param numTiles number of tiles already packed
+   * @param tile packed tile to put after them
+   * @return
+   */
+  public static long appendTile(long tiles, int numTiles, int tile) {
+    return tiles | ((long) tile << (TILE_BITS * numTiles));
+  }
+
+  public static int getNumTiles(long move) {
+    return (int) (move >>> COUNT_SHIFT) & 7;
+  }
+
+  public static int getStart(long move) {
+    return (int) (move >>> START_SHIFT) & 0xFF;
+  }
+
+  public static WordOrientation getOrientation(long move) {
+    return ((move >>> VERTICAL_SHIFT) & 1) == 0 ? WordOrientation.HORIZONTAL : WordOrientation.VERTICAL;
+  }
+
+  /**
+   * @param move
+   * @param i
+   * @return the letter of the i-th tile placed, starting at 0 for 'A'
+   */
+  public static int getLetterIndex(long move, int i) {
+    return getTile(move, i) & LETTER_MASK;
+  }
+
+  /**
+   * @param move
+   * @param i
+   * @return true if the i-th tile placed is a blank
+   */
+  public static boolean isBlank(long move, int i) {
+    return (getTile(move, i) & BLANK_FLAG) != 0;
+  }
+
+  /**
+   * Build the Move for a packed move. The tiles are taken from the rack and put back, so it's left as it
+   * was.
+   *
+   * @param move
+   * @param rack the rack the move was generated for
+   * @return
+   */
+  public static Move toMove(long move, CountedRack rack) {
+    int numTiles = getNumTiles(move);
+    int[] slots = new int[numTiles];
+    List<Tile> tiles = new ArrayList<Tile>(numTiles);
+
+    for (int i = 0; i < numTiles; i++) {
+      int letterIndex = getLetterIndex(move, i);
+
+      if ( ! isBlank(move, i) ) {
+        slots[i] = letterIndex;
+      }
+      // Blanks already bound to the letter are used before binding one that isn't
+      else if ( rack.has(CountedRack.NUM_LETTERS + letterIndex) ) {
+        slots[i] = CountedRack.NUM_LETTERS + letterIndex;
+      }
+      else {
+        slots[i] = CountedRack.BLANK_SLOT;
+      }
+
+      if ( ! rack.has(slots[i]) ) {
+        putBack(rack, slots, i);
+        throw new IllegalArgumentException("Rack doesn't have the tiles for packed move " + Long.toHexString(move));
+      }
+
+      tiles.add(slots[i] == CountedRack.BLANK_SLOT ? rack.takeBlank(letterIndex) : rack.take(slots[i]));
+    }
+
+    putBack(rack, slots, numTiles);
+
+    int start = getStart(move);
+    return Move.play(tiles,
+      WordsWithFriendsBoard.getRowFromIndex(start),
+      WordsWithFriendsBoard.getColFromIndex(start),
+      getOrientation(move));
+  }
+
+  private static void putBack(CountedRack rack, int[] slots, int numTaken) {
+    for (int i = numTaken - 1; i >= 0; i--) {
+      rack.putBack(slots[i]);
+    }
+  }
+
+  private static int getTile(long move, int i) {
+    return (int) (move >>> (TILE_BITS * i)) & TILE_MASK;
+  }
+}
@@ -0,0 +1,27 @@
+package org.sidoh.words_with_robots.move_generation;
+
+import org.sidoh.wwf_api.game_state.Move;
+import org.sidoh.wwf_api.game_state.WordsWithFriendsBoard;
+import org.sidoh.wwf_api.types.game_state.Rack;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Defines an all moves generator that can split the work for a single position between several threads.
+ * Moves for different anchors don't depend on each other, so they're generated concurrently while the
+ * board is left alone.
+ */
+public interface ParallelMovesGenerator extends AllMovesGenerator<WordsWithFriendsBoard> {
+  /**
+   * Given a board and a rack, generate all possible moves with tasks run by the provided executor. The
+   * board shouldn't change until this returns. The executor shouldn't be one the caller is running on,
+   * since the caller waits for the tasks to finish.
+   *
+   * @param rack
+   * @param board
+   * @param executor
+   * @return the same moves generateAllMoves(rack, board) would
+   */
+  public List<Move> generateAllMoves(Rack rack, WordsWithFriendsBoard board, ExecutorService executor);
+}
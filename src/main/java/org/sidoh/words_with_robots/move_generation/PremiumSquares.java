@@ -0,0 +1,70 @@
+package org.sidoh.words_with_robots.move_generation;
+
+import org.sidoh.wwf_api.game_state.WordsWithFriendsBoard;
+
+/**
+ * The letter and word multipliers for each square on the board, indexed by slot index, and the bonus
+ * for playing every tile on the rack. This is what move generation needs to score moves the same way
+ * {@link WordsWithFriendsBoard#scoreMove} does without building them. Multipliers only count for tiles
+ * placed by the move being scored.
+ */
+public final class PremiumSquares {
+  public static final int BINGO_BONUS = 35;
+
+  private static final int[] LETTER_MULTIPLIERS;
+  private static final int[] WORD_MULTIPLIERS;
+  static {
+    WordsWithFriendsBoard board = new WordsWithFriendsBoard();
+    int size = WordsWithFriendsBoard.DIMENSIONS * WordsWithFriendsBoard.DIMENSIONS;
+
+    LETTER_MULTIPLIERS = new int[size];
+    WORD_MULTIPLIERS = new int[size];
+
+    for (int index = 0; index < size; index++) {
+      LETTER_MULTIPLIERS[index] = 1;
+      WORD_MULTIPLIERS[index] = 1;
+
+      switch (board.getSlot(index).getModifier()) {
+        case DOUBLE_LETTER:
+          LETTER_MULTIPLIERS[index] = 2;
+          break;
+        case TRIPLE_LETTER:
+          LETTER_MULTIPLIERS[index] = 3;
+          break;
+        case DOUBLE_WORD:
+          WORD_MULTIPLIERS[index] = 2;
+          break;
+        case TRIPLE_WORD:
+          WORD_MULTIPLIERS[index] = 3;
+          break;
+        default:
+      }
+    }
+  }
+
+  private PremiumSquares() { }
+
+  /**
+   * @param index slot index
+   * @return what a tile placed on the square is multiplied by
+   */
+  public static int getLetterMultiplier(int index) {
+    return LETTER_MULTIPLIERS[index];
+  }
+
+  /**
+   * @param index slot index
+   * @return what the words through a tile placed on the square are multiplied by
+   */
+  public static int getWordMultiplier(int index) {
+    return WORD_MULTIPLIERS[index];
+  }
+
+  /**
+   * @param numPlaced number of tiles placed by a move
+   * @return bonus points the move gets for using the whole rack
+   */
+  public static int getBonus(int numPlaced) {
+    return numPlaced == WordsWithFriendsBoard.TILES_PER_PLAYER ? BINGO_BONUS : 0;
+  }
+}
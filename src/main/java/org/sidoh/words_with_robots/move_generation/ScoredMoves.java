@@ -0,0 +1,141 @@
+package org.sidoh.words_with_robots.move_generation;
+
+import org.sidoh.wwf_api.game_state.Move;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * A list of moves along with the score each one is worth, worked out as the move was generated. Moves
+ * are stored packed with {@link PackedMoves}, and a {@link Move} is only built when one is asked for, with
+ * tiles from the rack the moves were generated for. Each call to {@link #get(int)} builds a new one.
+ *
+ * The moves don't have a result, so {@link org.sidoh.wwf_api.game_state.WordsWithFriendsBoard#scoreMove}
+ * only has to be called for the ones that end up being used.
+ */
+public class ScoredMoves extends AbstractList<Move> implements RandomAccess, PackedMoveCollector {
+  private final CountedRack rack;
+  private long[] moves;
+  private int[] scores;
+  private int size;
+
+  /**
+   * @param rack the rack the moves are generated for. It should have all of its tiles whenever a move
+   *   is built.
+   */
+  public ScoredMoves(CountedRack rack) {
+    this.rack = rack;
+    this.moves = new long[16];
+    this.scores = new int[16];
+  }
+
+  @Override
+  public void add(long move, int score) {
+    if (size == moves.length) {
+      moves = Arrays.copyOf(moves, 2 * size);
+      scores = Arrays.copyOf(scores, 2 * size);
+    }
+
+    moves[size] = move;
+    scores[size] = score;
+    size++;
+  }
+
+  /**
+   * @return Integer.MIN_VALUE, since every move is kept
+   */
+  @Override
+  public int getMinScore() {
+    return Integer.MIN_VALUE;
+  }
+
+  /**
+   * Add all of the moves in another list, keeping their scores. They should be for the same rack.
+   *
+   * @param other
+   */
+  public void addAll(ScoredMoves other) {
+    for (int i = 0; i < other.size; i++) {
+      add(other.moves[i], other.scores[i]);
+    }
+  }
+
+  /**
+   * @param index
+   * @return a new Move for the move at the provided index
+   */
+  @Override
+  public Move get(int index) {
+    return PackedMoves.toMove(getPackedMove(index), rack);
+  }
+
+  /**
+   * @param index
+   * @return the packed move at the provided index
+   */
+  public long getPackedMove(int index) {
+    checkIndex(index);
+    return moves[index];
+  }
+
+  /**
+   * @param index
+   * @return what the move at the provided index is worth
+   */
+  public int getScore(int index) {
+    checkIndex(index);
+    return scores[index];
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return index of the highest scoring move, or -1 if there aren't any. Ties go to the earliest one.
+   */
+  public int getBestIndex() {
+    int best = -1;
+
+    for (int i = 0; i < size; i++) {
+      if (best == -1 || scores[i] > scores[best]) {
+        best = i;
+      }
+    }
+
+    return best;
+  }
+
+  /**
+   * Sort the moves so that the highest scoring ones come first. Moves with the same score stay in the
+   * order they were added.
+   */
+  public void sortByScore() {
+    // Sort the scores along with the positions they came from, negated so the highest come first
+    long[] keys = new long[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = ((long) -scores[i] << 32) | i;
+    }
+    Arrays.sort(keys);
+
+    long[] sortedMoves = new long[moves.length];
+    int[] sortedScores = new int[scores.length];
+    for (int i = 0; i < size; i++) {
+      int from = (int) keys[i];
+      sortedMoves[i] = moves[from];
+      sortedScores[i] = scores[from];
+    }
+
+    moves = sortedMoves;
+    scores = sortedScores;
+    modCount++;
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+    }
+  }
+}
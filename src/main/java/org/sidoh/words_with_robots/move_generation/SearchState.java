@@ -0,0 +1,387 @@
+package org.sidoh.words_with_robots.move_generation;
+
+import com.google.common.collect.Lists;
+import org.sidoh.wwf_api.game_state.GameStateHelper;
+import org.sidoh.wwf_api.game_state.Move;
+import org.sidoh.wwf_api.game_state.TileBuilder;
+import org.sidoh.wwf_api.game_state.WordsWithFriendsBoard;
+import org.sidoh.wwf_api.types.api.GameState;
+import org.sidoh.wwf_api.types.api.MoveType;
+import org.sidoh.wwf_api.types.game_state.Rack;
+import org.sidoh.wwf_api.types.game_state.Tile;
+import org.sidoh.wwf_api.types.game_state.WordOrientation;
+
+import java.util.List;
+
+/**
+ * The position a search is looking at. Moves are made on it in place with {@link #makeMove(Move)} and
+ * taken back with {@link #undoMove()}, so searching a node doesn't copy the board or the game state. The
+ * board, the scores, both racks, the position in the bag and whose turn it is are all kept here, along
+ * with the position's {@link ZobristHash} and, optionally, {@link CrossChecks} for the board.
+ *
+ * It's built once from the {@link GameState} at the root of a search, and doesn't refer back to it. Players
+ * are numbered 0 and 1 rather than by user ID, and scores are kept in an int for each. Racks and the bag
+ * are kept as tile kinds, the same kinds {@link CountedRack} counts by: racks as a count of each kind, and
+ * the bag as the kinds in the order they'll be drawn. Any tile of a kind is as good as another to the
+ * search, so the racks moves are generated for are made of one shared tile for each kind.
+ * {@link #toGameMove(Move)} turns a move for the root back into one with the tiles actually on the rack.
+ */
+public class SearchState {
+  private static final GameStateHelper stateHelper = GameStateHelper.getInstance();
+  private static final int NUM_KINDS = CountedRack.BLANK_SLOT + 1;
+
+  // The tile racks are made of for each kind that can be on a rack
+  private static final Tile[] RACK_TILES = new Tile[NUM_KINDS];
+  static {
+    for (TileBuilder tileBuilder : WordsWithFriendsBoard.TILES) {
+      Tile tile = tileBuilder.build();
+      int kind = CountedRack.getSlot(tile);
+
+      if ( RACK_TILES[kind] == null ) {
+        RACK_TILES[kind] = tile;
+      }
+    }
+  }
+
+  private final long[] userIds;
+  // The racks in the game state, for turning moves back into game moves. Copies don't have them.
+  private final int rootToMove;
+  private final List<List<Tile>> rootRacks;
+
+  private final WordsWithFriendsBoard board;
+  private CrossChecks crossChecks;
+  private final int[][] rackCounts;
+  private final int[] rackSizes;
+  private final int[] scores;
+  private final byte[] drawOrder;
+  private int bagIndex;
+  private int toMove;
+  private long hash;
+
+  // What each move made changed, most recent last
+  private Undo[] undoStack = new Undo[8];
+  private int numMoves;
+
+  /**
+   * @param state the position at the root of the search. Player 0 is the first of its users.
+   */
+  public SearchState(GameState state) {
+    List<Long> users = Lists.newArrayList(state.getMeta().getUsersById().keySet());
+    this.userIds = new long[] { users.get(0), users.get(1) };
+    this.board = stateHelper.createBoardFromState(state);
+    this.rackCounts = new int[2][NUM_KINDS];
+    this.rackSizes = new int[2];
+    this.scores = new int[2];
+    this.rootRacks = Lists.newArrayList();
+
+    for (int player = 0; player < 2; player++) {
+      List<Tile> tiles = stateHelper.buildRack(userIds[player], state).getTiles();
+
+      scores[player] = stateHelper.getScore(userIds[player], state);
+      rootRacks.add(tiles);
+      for (Tile tile : tiles) {
+        rackCounts[player][getRackKind(tile)]++;
+      }
+      rackSizes[player] = tiles.size();
+    }
+
+    List<Tile> remainingTiles = state.getRemainingTiles();
+    this.drawOrder = new byte[remainingTiles.size()];
+    for (int i = 0; i < drawOrder.length; i++) {
+      drawOrder[i] = (byte) getRackKind(remainingTiles.get(i));
+    }
+
+    this.toMove = state.getMeta().getCurrentMoveUserId() == userIds[0] ? 0 : 1;
+    this.rootToMove = toMove;
+    this.hash = ZobristHash.hash(board, rootRacks.get(0), rootRacks.get(1), drawOrder.length, toMove);
+  }
+
+  private SearchState(SearchState other) {
+    this.userIds = other.userIds;
+    this.rootToMove = other.rootToMove;
+    this.rootRacks = null;
+    this.board = other.board.clone();
+    this.crossChecks = other.crossChecks == null ? null : other.crossChecks.copy();
+    this.rackCounts = new int[][] { other.rackCounts[0].clone(), other.rackCounts[1].clone() };
+    this.rackSizes = other.rackSizes.clone();
+    this.scores = other.scores.clone();
+    this.drawOrder = other.drawOrder;
+    this.bagIndex = other.bagIndex;
+    this.toMove = other.toMove;
+    this.hash = other.hash;
+  }
+
+  /**
+   * @return a copy of the position that moves can be made on separately, such as by another thread. The
+   *   copy can't undo moves made before it was copied, and isn't at the root, so it can't be used to
+   *   turn moves back into game moves.
+   */
+  public SearchState copy() {
+    return new SearchState(this);
+  }
+
+  /**
+   * Keep cross-checks for the board up to date as moves are made and undone.
+   *
+   * @param crossChecks cross-checks for the board as it is now
+   * @return
+   */
+  public SearchState setCrossChecks(CrossChecks crossChecks) {
+    this.crossChecks = crossChecks;
+    return this;
+  }
+
+  public WordsWithFriendsBoard getBoard() {
+    return board;
+  }
+
+  /**
+   * @return cross-checks for the board, or null if they aren't being kept
+   */
+  public CrossChecks getCrossChecks() {
+    return crossChecks;
+  }
+
+  /**
+   * @return the rack of the player whose turn it is. It changes as moves are made, so it shouldn't be
+   *   held on to.
+   */
+  public Rack getRack() {
+    List<Tile> tiles = Lists.newArrayListWithCapacity(rackSizes[toMove]);
+    int[] counts = rackCounts[toMove];
+
+    for (int kind = 0; kind < NUM_KINDS; kind++) {
+      for (int i = 0; i < counts[kind]; i++) {
+        tiles.add(RACK_TILES[kind]);
+      }
+    }
+
+    return new Rack()
+      .setTiles(tiles)
+      .setCapacity(WordsWithFriendsBoard.TILES_PER_PLAYER);
+  }
+
+  /**
+   * @param player 0 or 1
+   * @return number of tiles on the player's rack
+   */
+  public int getNumTiles(int player) {
+    return rackSizes[player];
+  }
+
+  /**
+   * @param player 0 or 1
+   * @return
+   */
+  public int getScore(int player) {
+    return scores[player];
+  }
+
+  /**
+   * @return the player whose turn it is, 0 or 1
+   */
+  public int getToMove() {
+    return toMove;
+  }
+
+  /**
+   * @param player 0 or 1
+   * @return the player's user ID in the game state the search started from
+   */
+  public long getUserId(int player) {
+    return userIds[player];
+  }
+
+  public long getHash() {
+    return hash;
+  }
+
+  /**
+   * @return number of moves made that haven't been undone
+   */
+  public int getNumMoves() {
+    return numMoves;
+  }
+
+  /**
+   * Make a play for the player whose turn it is: put its tiles on the board, add its score, take its
+   * tiles off the rack and draw new ones. It's scored first if it doesn't have a result yet.
+   *
+   * @param move
+   */
+  public void makeMove(Move move) {
+    if ( move.getMoveType() != MoveType.PLAY ) {
+      throw new IllegalArgumentException("Only plays can be made: " + move);
+    }
+    if ( move.getResult() == null ) {
+      board.scoreMove(move);
+    }
+
+    Undo undo = pushUndo();
+    int step = move.getOrientation() == WordOrientation.HORIZONTAL ? 1 : WordsWithFriendsBoard.DIMENSIONS;
+    int index = move.getRow() * WordsWithFriendsBoard.DIMENSIONS + move.getCol();
+
+    // Tiles go on the empty squares in the move's word, in order
+    for (Tile tile : move.getTiles()) {
+      while ( board.getSlot(index).getTile() != null ) {
+        index += step;
+      }
+
+      int kind = getRackKind(tile);
+      if ( rackCounts[toMove][kind] == 0 ) {
+        throw new IllegalArgumentException("Tile isn't on the rack: " + tile);
+      }
+
+      board.getSlot(index).setTile(tile);
+      hash ^= ZobristHash.hashSquare(index, tile);
+      removeTile(kind);
+      undo.placed[undo.numPlaced] = index;
+      undo.removed[undo.numPlaced] = (byte) kind;
+      undo.numPlaced++;
+
+      index += step;
+    }
+
+    if ( crossChecks != null ) {
+      crossChecks.update(board, move);
+    }
+
+    undo.score = move.getResult().getScore();
+    scores[toMove] += undo.score;
+
+    hash ^= ZobristHash.hashBag(drawOrder.length - bagIndex);
+    while ( rackSizes[toMove] < WordsWithFriendsBoard.TILES_PER_PLAYER && bagIndex < drawOrder.length ) {
+      addTile(drawOrder[bagIndex++]);
+      undo.numDrawn++;
+    }
+    hash ^= ZobristHash.hashBag(drawOrder.length - bagIndex);
+
+    switchTurns();
+  }
+
+  /**
+   * Take back the last move made.
+   */
+  public void undoMove() {
+    if ( numMoves == 0 ) {
+      throw new IllegalStateException("There aren't any moves to undo");
+    }
+
+    Undo undo = undoStack[--numMoves];
+    switchTurns();
+
+    hash ^= ZobristHash.hashBag(drawOrder.length - bagIndex);
+    for (int i = 0; i < undo.numDrawn; i++) {
+      removeTile(drawOrder[--bagIndex]);
+    }
+    hash ^= ZobristHash.hashBag(drawOrder.length - bagIndex);
+
+    scores[toMove] -= undo.score;
+
+    if ( crossChecks != null ) {
+      crossChecks.rollback();
+    }
+
+    for (int i = undo.numPlaced - 1; i >= 0; i--) {
+      int index = undo.placed[i];
+
+      hash ^= ZobristHash.hashSquare(index, board.getSlot(index).getTile());
+      board.getSlot(index).setTile(null);
+      addTile(undo.removed[i]);
+    }
+  }
+
+  /**
+   * Turn a move found for the root of the search into one made of the tiles actually on the rack in the
+   * game state, so it can be played. It's scored on the board at the root.
+   *
+   * @param move a play for the player whose turn it was at the root
+   * @return
+   */
+  public Move toGameMove(Move move) {
+    if ( rootRacks == null || numMoves != 0 ) {
+      throw new IllegalStateException("Moves can only be turned back into game moves at the root");
+    }
+
+    List<Tile> available = Lists.newArrayList(rootRacks.get(rootToMove));
+    List<Tile> tiles = Lists.newArrayList();
+
+    for (Tile tile : move.getTiles()) {
+      int kind = getRackKind(tile);
+      Tile rackTile = null;
+
+      for (int i = 0; i < available.size() && rackTile == null; i++) {
+        if ( getRackKind(available.get(i)) == kind ) {
+          rackTile = available.remove(i);
+        }
+      }
+
+      if ( rackTile == null ) {
+        throw new IllegalArgumentException("Tile isn't on the rack: " + tile);
+      }
+
+      // Blanks are played as a copy bound to a letter, the same as move generation does it
+      tiles.add(kind == CountedRack.BLANK_SLOT ? rackTile.deepCopy().setLetter(tile.getLetter()) : rackTile);
+    }
+
+    Move gameMove = Move.play(tiles, move.getRow(), move.getCol(), move.getOrientation());
+    board.scoreMove(gameMove);
+
+    return gameMove;
+  }
+
+  private Undo pushUndo() {
+    if ( numMoves == undoStack.length ) {
+      Undo[] grown = new Undo[2 * numMoves];
+      System.arraycopy(undoStack, 0, grown, 0, numMoves);
+      undoStack = grown;
+    }
+    if ( undoStack[numMoves] == null ) {
+      undoStack[numMoves] = new Undo();
+    }
+
+    Undo undo = undoStack[numMoves++];
+    undo.numPlaced = 0;
+    undo.numDrawn = 0;
+
+    return undo;
+  }
+
+  private void switchTurns() {
+    hash ^= ZobristHash.hashSideToMove(toMove);
+    toMove = 1 - toMove;
+    hash ^= ZobristHash.hashSideToMove(toMove);
+  }
+
+  /**
+   * @return the kind of tile it is on a rack. Blanks that have been bound to a letter are still blanks.
+   */
+  private static int getRackKind(Tile tile) {
+    int kind = CountedRack.getSlot(tile);
+    return kind >= CountedRack.NUM_LETTERS ? CountedRack.BLANK_SLOT : kind;
+  }
+
+  /**
+   * Take a tile of a kind off the rack of the player whose turn it is.
+   */
+  private void removeTile(int kind) {
+    rackSizes[toMove]--;
+    hash ^= ZobristHash.hashRackTile(toMove, kind, --rackCounts[toMove][kind]);
+  }
+
+  /**
+   * Put a tile of a kind on the rack of the player whose turn it is.
+   */
+  private void addTile(int kind) {
+    rackSizes[toMove]++;
+    hash ^= ZobristHash.hashRackTile(toMove, kind, rackCounts[toMove][kind]++);
+  }
+
+  private static class Undo {
+    private final int[] placed = new int[WordsWithFriendsBoard.TILES_PER_PLAYER];
+    private final byte[] removed = new byte[WordsWithFriendsBoard.TILES_PER_PLAYER];
+    private int numPlaced;
+    private int numDrawn;
+    private int score;
+  }
+}
@@ -0,0 +1,120 @@
+package org.sidoh.words_with_robots.move_generation;
+
+/**
+ * Keeps the k highest scoring of the packed moves added to it. They're kept in a heap with the lowest
+ * scoring one on top, so it can be swapped out for a better move without looking at the others.
+ *
+ * Moves with the same score are kept in the order they were added, like a stable sort would, so the
+ * earliest ones win ties.
+ */
+class TopScoredMoves implements PackedMoveCollector {
+  private final int k;
+
+  // The score is in the high bits and the order the move was added, inverted, in the low bits. The
+  // lowest key is the move that would be dropped first.
+  private final long[] keys;
+  private final long[] moves;
+  private int size;
+  private int numAdded;
+
+  public TopScoredMoves(int k) {
+    if (k < 1) {
+      throw new IllegalArgumentException("Need to keep at least one move, not " + k);
+    }
+
+    this.k = k;
+    this.keys = new long[k];
+    this.moves = new long[k];
+  }
+
+  @Override
+  public void add(long move, int score) {
+    long key = ((long) score << 32) | (0xFFFFFFFFL - numAdded++);
+
+    if (size < k) {
+      keys[size] = key;
+      moves[size] = move;
+      siftUp(size++);
+    }
+    else if (key > keys[0]) {
+      keys[0] = key;
+      moves[0] = move;
+      siftDown(0);
+    }
+  }
+
+  @Override
+  public int getMinScore() {
+    return size < k ? Integer.MIN_VALUE : (int) (keys[0] >> 32);
+  }
+
+  /**
+   * Empties the heap into a list with the highest scoring moves first.
+   *
+   * @param rack the rack the moves were generated for
+   * @return
+   */
+  public ScoredMoves toScoredMoves(CountedRack rack) {
+    int numMoves = size;
+    long[] sortedKeys = new long[numMoves];
+    long[] sortedMoves = new long[numMoves];
+
+    // Taking the lowest key off the top each time fills them in from the back
+    for (int i = numMoves - 1; i >= 0; i--) {
+      sortedKeys[i] = keys[0];
+      sortedMoves[i] = moves[0];
+
+      size--;
+      keys[0] = keys[size];
+      moves[0] = moves[size];
+      siftDown(0);
+    }
+
+    ScoredMoves scoredMoves = new ScoredMoves(rack);
+    for (int i = 0; i < numMoves; i++) {
+      scoredMoves.add(sortedMoves[i], (int) (sortedKeys[i] >> 32));
+    }
+
+    return scoredMoves;
+  }
+
+  private void siftUp(int i) {
+    while (i > 0) {
+      int parent = (i - 1) / 2;
+      if (keys[parent] <= keys[i]) {
+        break;
+      }
+
+      swap(i, parent);
+      i = parent;
+    }
+  }
+
+  private void siftDown(int i) {
+    while (true) {
+      int child = 2 * i + 1;
+      if (child >= size) {
+        break;
+      }
+      if (child + 1 < size && keys[child + 1] < keys[child]) {
+        child++;
+      }
+      if (keys[i] <= keys[child]) {
+        break;
+      }
+
+      swap(i, child);
+      i = child;
+    }
+  }
+
+  private void swap(int i, int j) {
+    long key = keys[i];
+    keys[i] = keys[j];
+    keys[j] = key;
+
+    long move = moves[i];
+    moves[i] = moves[j];
+    moves[j] = move;
+  }
+}
@@ -8,52 +8,66 @@ import org.sidoh.wwf_api.game_state.WordsWithFriendsBoard;
 import org.sidoh.wwf_api.types.api.GameState;
 import org.sidoh.wwf_api.types.game_state.Rack;
 
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Picks the move that the evaluation function likes best. If an executor is provided and the all moves
+ * generator is a {@link ParallelMovesGenerator}, moves are generated with tasks run by the executor.
+ */
 public class TopScoringMoveGenerator implements MoveGenerator<WordsWithFriendsBoard, WwfMoveGeneratorReturnContext>,
   GameStateMoveGenerator<WwfMoveGeneratorReturnContext> {
 
   private static final GameStateHelper stateHelper = GameStateHelper.getInstance();
   private final AllMovesGenerator<WordsWithFriendsBoard> allMovesGenerator;
   private final EvaluationFunction evaluationFunction;
+  private final ExecutorService executor;
 
   public TopScoringMoveGenerator(AllMovesGenerator<WordsWithFriendsBoard> allMovesGenerator, EvaluationFunction evaluationFunction) {
+    this(allMovesGenerator, evaluationFunction, null);
+  }
+
+  public TopScoringMoveGenerator(AllMovesGenerator<WordsWithFriendsBoard> allMovesGenerator, EvaluationFunction evaluationFunction, ExecutorService executor) {
     this.allMovesGenerator = allMovesGenerator;
     this.evaluationFunction = evaluationFunction;
+    this.executor = executor;
   }
 
   @Override
   public WwfMoveGeneratorReturnContext generateMove(Rack rack, WordsWithFriendsBoard board) {
-    Iterable<Move> moves = allMovesGenerator.generateAllMoves(rack, board);
-
-    return new WwfMoveGeneratorReturnContext(chooseBestMove(moves, null));
+    return new WwfMoveGeneratorReturnContext(chooseBestMove(rack, board, null));
   }
 
   @Override
   public WwfMoveGeneratorReturnContext generateMove(GameState state) {
     Rack rack = stateHelper.getCurrentPlayerRack(state);
     WordsWithFriendsBoard board = stateHelper.createBoardFromState(state);
-    Iterable<Move> moves = allMovesGenerator.generateAllMoves(rack, board);
 
-    return new WwfMoveGeneratorReturnContext(chooseBestMove(moves, state));
+    return new WwfMoveGeneratorReturnContext(chooseBestMove(rack, board, state));
+  }
+
+  /**
+   * Moves generated in parallel all come back at once. Otherwise, each one is looked at as it's generated
+   * and only the best so far is kept.
+   */
+  protected Move chooseBestMove(Rack rack, WordsWithFriendsBoard board, GameState state) {
+    if (executor != null && allMovesGenerator instanceof ParallelMovesGenerator) {
+      return chooseBestMove(((ParallelMovesGenerator) allMovesGenerator).generateAllMoves(rack, board, executor), state);
+    }
+
+    BestMoveVisitor visitor = new BestMoveVisitor(state);
+    allMovesGenerator.generateAllMoves(rack, board, visitor);
+
+    return visitor.bestMove;
   }
 
   protected Move chooseBestMove(Iterable<Move> moves, GameState state) {
-    double bestScore = 0, score;
-    Move bestMove = null;
+    BestMoveVisitor visitor = new BestMoveVisitor(state);
 
     for (Move move : moves) {
-      state = updateGameState(state, move);
-
-      if (bestMove == null) {
-        bestMove = move;
-        bestScore = evaluationFunction.score(move, state);
-      }
-      else if ( (score = evaluationFunction.score(move, state)) > bestScore ){
-        bestMove = move;
-        bestScore = score;
-      }
+      visitor.visit(move);
     }
 
-    return bestMove;
+    return visitor.bestMove;
   }
 
   protected GameState updateGameState(GameState state, Move move) {
@@ -62,4 +76,30 @@ public class TopScoringMoveGenerator implements MoveGenerator<WordsWithFriendsBo
     }
     return stateHelper.applyMove(state, move);
   }
+
+  /**
+   * Keeps track of the move the evaluation function likes best out of the ones it's been given.
+   */
+  private class BestMoveVisitor implements MoveVisitor {
+    private GameState state;
+    private Move bestMove;
+    private double bestScore;
+
+    private BestMoveVisitor(GameState state) {
+      this.state = state;
+    }
+
+    @Override
+    public boolean visit(Move move) {
+      state = updateGameState(state, move);
+      double score = evaluationFunction.score(move, state);
+
+      if (bestMove == null || score > bestScore) {
+        bestMove = move;
+        bestScore = score;
+      }
+
+      return true;
+    }
+  }
 }
@@ -0,0 +1,134 @@
+package org.sidoh.words_with_robots.move_generation;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size table of search results keyed by {@link ZobristHash} position hashes. Each entry holds
+ * the value a position was found to have, whether that's exact or only a bound, how deep it was
+ * searched, the index of the best move in the position's move list and whether the search reached the
+ * end of the game.
+ *
+ * Entries are packed into a long along with the hash XORed with them. An entry is only used if XORing
+ * the two longs gives back the hash being looked up, so threads can share a table without locking: an
+ * entry that's half-written by another thread just looks like a miss. Entries for different positions
+ * that land on the same slot replace each other.
+ */
+public class TranspositionTable {
+  public static final int EXACT = 0;
+  public static final int LOWER_BOUND = 1;
+  public static final int UPPER_BOUND = 2;
+
+  /**
+   * What {@link #probe(long)} returns when there's no entry for a position.
+   */
+  public static final long NO_ENTRY = 0;
+
+  public static final int DEFAULT_SIZE_BITS = 16;
+
+  private static final int MAX_DEPTH = 0xFF;
+  private static final int NO_MOVE = 0xFF;
+
+  // Packed entry: value in the low 32 bits, then depth, move index, bound and the flags
+  private static final int DEPTH_SHIFT = 32;
+  private static final int MOVE_SHIFT = 40;
+  private static final int BOUND_SHIFT = 48;
+  private static final long TERMINAL_FLAG = 1L << 50;
+  private static final long VALID_FLAG = 1L << 51;
+
+  // Two longs for each entry: the hash XORed with the data, and the data
+  private final long[] entries;
+  private final int mask;
+
+  public TranspositionTable() {
+    this(DEFAULT_SIZE_BITS);
+  }
+
+  /**
+   * @param sizeBits the table has 2^sizeBits entries
+   */
+  public TranspositionTable(int sizeBits) {
+    if (sizeBits < 1 || sizeBits > 28) {
+      throw new IllegalArgumentException("Table size has to be between 2^1 and 2^28 entries");
+    }
+
+    this.entries = new long[2 << sizeBits];
+    this.mask = (1 << sizeBits) - 1;
+  }
+
+  /**
+   * @param hash
+   * @return the packed entry for the position, or {@link #NO_ENTRY} if there isn't one
+   */
+  public long probe(long hash) {
+    int slot = getSlot(hash);
+    long check = entries[slot];
+    long data = entries[slot + 1];
+
+    return (check ^ data) == hash && (data & VALID_FLAG) != 0 ? data : NO_ENTRY;
+  }
+
+  /**
+   * Store a search result. An entry for the same position that was searched deeper is kept instead.
+   *
+   * @param hash
+   * @param value
+   * @param bound {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+   * @param depth how many moves ahead the position was searched
+   * @param moveIndex index of the best move in the position's move list, or -1 if there isn't one
+   * @param terminal true if the search reached the end of the game
+   */
+  public void store(long hash, int value, int bound, int depth, int moveIndex, boolean terminal) {
+    long existing = probe(hash);
+    if (existing != NO_ENTRY && getDepth(existing) > depth) {
+      return;
+    }
+
+    long data = (value & 0xFFFFFFFFL)
+      | ((long) Math.min(depth, MAX_DEPTH) << DEPTH_SHIFT)
+      | ((long) (moveIndex < 0 || moveIndex >= NO_MOVE ? NO_MOVE : moveIndex) << MOVE_SHIFT)
+      | ((long) bound << BOUND_SHIFT)
+      | (terminal ? TERMINAL_FLAG : 0)
+      | VALID_FLAG;
+
+    int slot = getSlot(hash);
+    entries[slot] = hash ^ data;
+    entries[slot + 1] = data;
+  }
+
+  /**
+   * Remove every entry.
+   */
+  public void clear() {
+    Arrays.fill(entries, 0);
+  }
+
+  public static int getValue(long entry) {
+    return (int) entry;
+  }
+
+  public static int getDepth(long entry) {
+    return (int) (entry >>> DEPTH_SHIFT) & MAX_DEPTH;
+  }
+
+  /**
+   * @param entry
+   * @return index of the best move in the position's move list, or -1 if there isn't one
+   */
+  public static int getMoveIndex(long entry) {
+    int moveIndex = (int) (entry >>> MOVE_SHIFT) & 0xFF;
+    return moveIndex == NO_MOVE ? -1 : moveIndex;
+  }
+
+  public static int getBound(long entry) {
+    return (int) (entry >>> BOUND_SHIFT) & 3;
+  }
+
+  public static boolean isTerminal(long entry) {
+    return (entry & TERMINAL_FLAG) != 0;
+  }
+
+  private int getSlot(long hash) {
+    // The low bits of the hash pick the slot
+    return 2 * ((int) hash & mask);
+  }
+}
@@ -3,26 +3,27 @@ package org.sidoh.words_with_robots.move_generation;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.sidoh.wwf_api.game_state.Move;
-import org.sidoh.wwf_api.game_state.TileBuilder;
 import org.sidoh.wwf_api.game_state.WordsWithFriendsBoard;
 import org.sidoh.wwf_api.types.api.MoveType;
-import org.sidoh.wwf_api.types.game_state.Letter;
 import org.sidoh.wwf_api.types.game_state.Rack;
-import org.sidoh.wwf_api.types.game_state.Tile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Deque;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
-public abstract class WordsWithFriendsAllMovesGenerator implements AllMovesGenerator<WordsWithFriendsBoard> {
+public abstract class WordsWithFriendsAllMovesGenerator implements ParallelMovesGenerator {
   private static final Logger LOG = LoggerFactory.getLogger(WordsWithFriendsAllMovesGenerator.class);
 
   /**
@@ -33,17 +34,26 @@ public abstract class WordsWithFriendsAllMovesGenerator implements AllMovesGener
    * @return
    */
   public Iterable<Move> generateAllMoves(final Rack baseRack, final WordsWithFriendsBoard board) {
+    return generateAllMoves(baseRack, board, getAnchorMoveGenerator(board));
+  }
+
+  /**
+   * Generates all possible moves for a given board and rack using the provided anchor move generator.
+   * It should be for the board as it is while the moves are iterated over.
+   *
+   * @param baseRack
+   * @param board
+   * @param anchorMoves
+   * @return
+   */
+  protected Iterable<Move> generateAllMoves(final Rack baseRack, final WordsWithFriendsBoard board, final AnchorMoveGenerator anchorMoves) {
     // If there have been no moves, then only valid to play on (7, 7).
     if ( ! board.hasTiles() ) {
-      Set<Move> possibleMoves = new HashSet<Move>();
-
-      for (Rack rack : expandBlanks(baseRack)) {
-        // No need to check for validity since only one word can be formed
-        for (Move move : generateMoves(7, 7, rack, board)) {
-          board.scoreMove(move);
+      List<Move> possibleMoves = anchorMoves.generateMoves(7, 7, baseRack);
 
-          possibleMoves.add(move);
-        }
+      // No need to check for validity since only one word can be formed
+      for (Move move : possibleMoves) {
+        board.scoreMove(move);
       }
 
       return possibleMoves;
@@ -52,150 +62,292 @@ public abstract class WordsWithFriendsAllMovesGenerator implements AllMovesGener
       return new Iterable<Move>() {
         @Override
         public Iterator<Move> iterator() {
-          return new AllMovesIterator(baseRack, board);
+          return new AllMovesIterator(baseRack, board, anchorMoves);
         }
       };
     }
   }
 
   /**
-   * Returns the ankk of the provided move in relation to a list of all moves.
+   * Generates all possible moves for a given board and rack, passing each one to the visitor as soon as
+   * it's been scored and validated. Only the moves for one anchor are generated at a time.
    *
-   * @param allMoves all moves possible
-   * @param move the move in question
-   * @return
+   * @param baseRack
+   * @param board
+   * @param visitor
+   * @return false if the visitor stopped generation early
    */
   @Override
-  public int getMoveScoreRank(Iterable<Move> allMoves, Move move) {
-    if ( move == null || move.getMoveType() != MoveType.PLAY ) {
-      return -1;
-    }
+  public boolean generateAllMoves(Rack baseRack, WordsWithFriendsBoard board, MoveVisitor visitor) {
+    return generateAllMoves(baseRack, board, getAnchorMoveGenerator(board), visitor);
+  }
 
-    Set<Integer> uniqueScores = Sets.newHashSet();
-    for (Move possibleMove : allMoves) {
-      uniqueScores.add(possibleMove.getResult().getScore());
+  /**
+   * Generates all possible moves for a given board and rack using the provided anchor move generator,
+   * passing each one to the visitor.
+   *
+   * @param baseRack
+   * @param board
+   * @param anchorMoves
+   * @param visitor
+   * @return false if the visitor stopped generation early
+   */
+  protected boolean generateAllMoves(Rack baseRack, WordsWithFriendsBoard board, AnchorMoveGenerator anchorMoves, MoveVisitor visitor) {
+    // If there have been no moves, then only valid to play on (7, 7). Only one word can be formed.
+    if ( ! board.hasTiles() ) {
+      return visitMoves(anchorMoves.generateMoves(7, 7, baseRack), board, anchorMoves, false, visitor);
     }
-    List<Integer> scores = Lists.newArrayList(uniqueScores);
-    Collections.sort(scores, Collections.reverseOrder());
-    LOG.debug("Sorted possible scores: {}", scores);
 
-    if ( scores.size() == 0 ) {
-      return -1;
-    }
-    else {
-      return scores.indexOf(move.getResult().getScore());
+    for (int i = 0; i < WordsWithFriendsBoard.DIMENSIONS * WordsWithFriendsBoard.DIMENSIONS; i++) {
+      if ( ! anchorMoves.isAnchor(i) ) {
+        continue;
+      }
+
+      List<Move> anchorMoveList = anchorMoves.generateMoves(WordsWithFriendsBoard.getRowFromIndex(i),
+        WordsWithFriendsBoard.getColFromIndex(i),
+        baseRack);
+
+      if ( ! visitMoves(anchorMoveList, board, anchorMoves, anchorMoves.needsValidation(), visitor) ) {
+        return false;
+      }
     }
+
+    return true;
   }
 
   /**
+   * Score each of the moves and pass the valid ones to the visitor.
    *
-   * @param move
-   * @return true if and only if the provided move results only in valid words
+   * @param moves
+   * @param board
+   * @param anchorMoves the anchor move generator the moves came from
+   * @param validate true if the moves might not be valid
+   * @param visitor
+   * @return false if the visitor asked to stop
    */
-  @Override
-  public boolean isValidMove(WordsWithFriendsBoard board, Move move) {
-    if (move.getResult() == null) {
-      board.scoreMove(move);
-    }
+  private boolean visitMoves(List<Move> moves, WordsWithFriendsBoard board, AnchorMoveGenerator anchorMoves, boolean validate, MoveVisitor visitor) {
+    for (Move move : moves) {
+      if ( move.getResult() == null ) {
+        board.scoreMove(move);
+      }
 
-    for (String word : move.getResult().getResultingWords()) {
-      if ( ! isWord(word) )
+      if ( validate && ! anchorMoves.isValidMove(move) ) {
+        continue;
+      }
+
+      if ( ! visitor.visit(move) ) {
         return false;
+      }
     }
 
     return true;
   }
 
   /**
-   * Returns a set of possible racks where blanks are bound to letters (but still are worth 0 points).
+   * Generates all possible moves for a given board and rack, splitting the anchors between tasks run by
+   * the provided executor. Each task only reads the board and the dictionary. Moves are scored and
+   * validated on the calling thread as the tasks finish.
    *
-   * @param rack
+   * @param baseRack
+   * @param board
+   * @param executor
    * @return
    */
-  protected static Set<Rack> expandBlanks(Rack rack) {
-    Rack base = new Rack().setCapacity(rack.getCapacity());
-    List<Tile> blanks = new ArrayList<Tile>();
+  @Override
+  public List<Move> generateAllMoves(Rack baseRack, WordsWithFriendsBoard board, ExecutorService executor) {
+    return generateAllMoves(baseRack, board, getAnchorMoveGenerator(board), executor);
+  }
 
-    for (Tile tile : rack.getTiles()) {
-      if (! tile.getLetter().getValue().equals(WordsWithFriendsBoard.BLANK_LETTER)) {
-        base.addToTiles(tile);
+  /**
+   * Generates all possible moves for a given board and rack in parallel using the provided anchor move
+   * generator. It has to be safe to call from several threads at once.
+   *
+   * @param baseRack
+   * @param board
+   * @param anchorMoves
+   * @param executor
+   * @return
+   */
+  protected List<Move> generateAllMoves(final Rack baseRack, final WordsWithFriendsBoard board, final AnchorMoveGenerator anchorMoves, ExecutorService executor) {
+    // The first move only has one anchor, so there's nothing to split up
+    if ( ! board.hasTiles() ) {
+      return Lists.newArrayList(generateAllMoves(baseRack, board, anchorMoves));
+    }
+
+    List<Future<List<Move>>> anchorTasks = Lists.newArrayList();
+    List<Move> moves = Lists.newArrayList();
+
+    try {
+      for (int i = 0; i < WordsWithFriendsBoard.DIMENSIONS * WordsWithFriendsBoard.DIMENSIONS; i++) {
+        if ( ! anchorMoves.isAnchor(i) ) {
+          continue;
+        }
+
+        final int row = WordsWithFriendsBoard.getRowFromIndex(i);
+        final int col = WordsWithFriendsBoard.getColFromIndex(i);
+
+        anchorTasks.add(executor.submit(new Callable<List<Move>>() {
+          @Override
+          public List<Move> call() throws Exception {
+            return anchorMoves.generateMoves(row, col, baseRack);
+          }
+        }));
       }
-      else {
-        blanks.add(tile);
+
+      // Collect in slot order so that the moves come out the same way every time
+      for (Future<List<Move>> anchorTask : anchorTasks) {
+        for (Move possibleMove : anchorTask.get()) {
+          board.scoreMove(possibleMove);
+
+          if ( ! anchorMoves.needsValidation() || anchorMoves.isValidMove(possibleMove) ) {
+            moves.add(possibleMove);
+          }
+        }
       }
-    }
 
-    if (blanks.size() == 0) {
-      return Collections.singleton(rack);
+      return moves;
     }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+    catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    }
+    finally {
+      // Only does anything if something went wrong
+      for (Future<List<Move>> anchorTask : anchorTasks) {
+        anchorTask.cancel(true);
+      }
+    }
+  }
+
+  /**
+   * Generates the k highest scoring moves by going through all of them. The best moves so far are kept
+   * in order, and a move only has to be inserted if it beats the worst of them.
+   *
+   * @param rack
+   * @param board
+   * @param k
+   * @return
+   */
+  @Override
+  public List<Move> generateTopMoves(Rack rack, WordsWithFriendsBoard board, final int k) {
+    final List<Move> topMoves = new ArrayList<Move>(k + 1);
+
+    generateAllMoves(rack, board, new MoveVisitor() {
+      @Override
+      public boolean visit(Move move) {
+        int score = move.getResult().getScore();
+
+        if ( topMoves.size() == k && score <= topMoves.get(k - 1).getResult().getScore() ) {
+          return true;
+        }
+
+        // After any moves with the same score, so that earlier moves win ties
+        int position = topMoves.size();
+        while ( position > 0 && topMoves.get(position - 1).getResult().getScore() < score ) {
+          position--;
+        }
+
+        topMoves.add(position, move);
+        if ( topMoves.size() > k ) {
+          topMoves.remove(k);
+        }
 
-    Set<Letter> choices = new HashSet<Letter>();
-    for (TileBuilder tileBuilder : WordsWithFriendsBoard.TILES) {
-      Tile built = tileBuilder.build();
+        return true;
+      }
+    });
+
+    return topMoves;
+  }
 
-      if ( ! built.getLetter().getValue().equals( WordsWithFriendsBoard.BLANK_LETTER) )
-        choices.add(built.getLetter());
+  /**
+   * Returns the ankk of the provided move in relation to a list of all moves.
+   *
+   * @param allMoves all moves possible
+   * @param move the move in question
+   * @return
+   */
+  @Override
+  public int getMoveScoreRank(Iterable<Move> allMoves, Move move) {
+    if ( move == null || move.getMoveType() != MoveType.PLAY ) {
+      return -1;
     }
 
-    if (blanks.size() == 1) {
-      return expand1Blank(base, choices, blanks.get(0));
+    Set<Integer> uniqueScores = Sets.newHashSet();
+    for (Move possibleMove : allMoves) {
+      uniqueScores.add(possibleMove.getResult().getScore());
     }
-    else if (blanks.size() == 2) {
-      return expand2Blanks(base, choices, blanks.get(0), blanks.get(1));
+    List<Integer> scores = Lists.newArrayList(uniqueScores);
+    Collections.sort(scores, Collections.reverseOrder());
+    LOG.debug("Sorted possible scores: {}", scores);
+
+    if ( scores.size() == 0 ) {
+      return -1;
     }
     else {
-      throw new RuntimeException("shouldn't have more than 2 blanks!");
+      return scores.indexOf(move.getResult().getScore());
     }
   }
 
   /**
-   * Sloppy and quick
+   * Returns the rank of the provided move in relation to all moves possible with the provided rack. Only
+   * the scores that come up are kept track of, not the moves.
    *
-   * @param baseRack
-   * @param choices
-   * @param blank1
+   * @param rack
+   * @param board
+   * @param move the move in question
    * @return
    */
-  protected static Set<Rack> expand1Blank(Rack baseRack, Set<Letter> choices, Tile blank1) {
-    Set<Rack> ret = Sets.newLinkedHashSet();
+  @Override
+  public int getMoveScoreRank(Rack rack, WordsWithFriendsBoard board, Move move) {
+    if ( move == null || move.getMoveType() != MoveType.PLAY ) {
+      return -1;
+    }
 
-    for (Letter choice : choices) {
-      Rack val = baseRack.deepCopy();
-      val.addToTiles(blank1.deepCopy().setLetter(choice));
+    final BitSet scores = new BitSet();
+    generateAllMoves(rack, board, new MoveVisitor() {
+      @Override
+      public boolean visit(Move possibleMove) {
+        scores.set(possibleMove.getResult().getScore());
+        return true;
+      }
+    });
 
-      ret.add(val);
+    int score = move.getResult().getScore();
+    if ( score < 0 || ! scores.get(score) ) {
+      return -1;
     }
 
-    return ret;
+    // Number of distinct scores higher than this one
+    return scores.get(score + 1, Math.max(score + 1, scores.length())).cardinality();
   }
 
   /**
-   * sloppy and quick x  2
    *
-   * @param baseRack
-   * @param choices
-   * @param blank1
-   * @param blank2
-   * @return
+   * @param move
+   * @return true if and only if the provided move results only in valid words
    */
-  protected static Set<Rack> expand2Blanks(Rack baseRack, Set<Letter> choices, Tile blank1, Tile blank2) {
-    Set<Rack> vals = Sets.newLinkedHashSet(expand1Blank(baseRack, choices, blank1));
-    Set<Rack> ret = Sets.newLinkedHashSet();
-
-    for (Rack br : vals) {
-      for (Letter choice : choices) {
-        Rack val = br.deepCopy();
-        val.addToTiles(blank2.deepCopy().setLetter(choice));
+  @Override
+  public boolean isValidMove(WordsWithFriendsBoard board, Move move) {
+    if (move.getResult() == null) {
+      board.scoreMove(move);
+    }
 
-        ret.add(val);
-      }
+    for (String word : move.getResult().getResultingWords()) {
+      if ( ! isWord(word) )
+        return false;
     }
 
-    return ret;
+    return true;
   }
 
   /**
-   * Generate all possible moves when playing at (col, row).
+   * Generate all possible moves that place a tile on the anchor at (row, col), but not on any anchor
+   * before it in the same row or column. Every move places a tile on at least one anchor, so each one
+   * is generated for exactly one anchor and doesn't need to be deduplicated. Blanks on the rack aren't
+   * bound to a letter, so they should be tried as every letter.
    *
    * @param row
    * @param col
@@ -203,7 +355,7 @@ public abstract class WordsWithFriendsAllMovesGenerator implements AllMovesGener
    * @param board
    * @return
    */
-  protected abstract Set<Move> generateMoves(int row, int col, Rack rack, WordsWithFriendsBoard board);
+  protected abstract List<Move> generateMoves(int row, int col, Rack rack, WordsWithFriendsBoard board);
 
   /**
    *
@@ -212,21 +364,91 @@ public abstract class WordsWithFriendsAllMovesGenerator implements AllMovesGener
    */
   protected abstract boolean isWord(String word);
 
+  /**
+   * Called once for each board that moves are generated for, before moves are generated for any of its
+   * anchors. Override this to precompute anything that only depends on the board. By default, moves
+   * come from {@link #generateMoves(int, int, Rack, WordsWithFriendsBoard)} and are validated with
+   * {@link #isValidMove(WordsWithFriendsBoard, Move)}.
+   *
+   * @param board
+   * @return generates moves for the anchors on the provided board
+   */
+  protected AnchorMoveGenerator getAnchorMoveGenerator(final WordsWithFriendsBoard board) {
+    return new AnchorMoveGenerator() {
+      @Override
+      public List<Move> generateMoves(int row, int col, Rack rack) {
+        return WordsWithFriendsAllMovesGenerator.this.generateMoves(row, col, rack, board);
+      }
+
+      @Override
+      public boolean needsValidation() {
+        return true;
+      }
+
+      @Override
+      public boolean isValidMove(Move move) {
+        return WordsWithFriendsAllMovesGenerator.this.isValidMove(board, move);
+      }
+
+      @Override
+      public boolean isAnchor(int index) {
+        return board.getSlot(index).getTile() == null && board.getAdjacentSlots(index).hasAnyTouching();
+      }
+    };
+  }
+
+  /**
+   * Generates moves for the anchors on a single board.
+   */
+  protected interface AnchorMoveGenerator {
+    /**
+     * Generate all possible moves that place a tile on the anchor at (row, col), but not on any anchor
+     * before it in the same row or column. Blanks on the rack aren't bound to a letter, so they should
+     * be tried as every letter.
+     *
+     * @param row
+     * @param col
+     * @param rack
+     * @return
+     */
+    public List<Move> generateMoves(int row, int col, Rack rack);
+
+    /**
+     * @return false if generated moves only ever form words in the dictionary, so they don't need to
+     *   be checked with isValidMove
+     */
+    public boolean needsValidation();
+
+    /**
+     * @param move a move generated for the board
+     * @return true if the move only forms words in the dictionary the move was generated from
+     */
+    public boolean isValidMove(Move move);
+
+    /**
+     * @param index slot index
+     * @return true if the slot is empty and next to a tile
+     */
+    public boolean isAnchor(int index);
+  }
+
   /**
    * Rather than sticking all possible moves into memory, this allows the consumer to iterate over possible moves.
    * It buffers all possible moves for a single slot, and postpones generating them for later slots.
    *
    */
   protected class AllMovesIterator implements Iterator<Move> {
-    private final Set<Rack> racks;
+    private final Rack rack;
     private WordsWithFriendsBoard board;
+    private final AnchorMoveGenerator anchorMoves;
     private int nextSlot;
     private Deque<Move> remainingMoves;
     private final int indexBound;
 
-    public AllMovesIterator(Rack baseRack, WordsWithFriendsBoard board) {
-      this.racks = expandBlanks(baseRack);
+    public AllMovesIterator(Rack baseRack, WordsWithFriendsBoard board, AnchorMoveGenerator anchorMoves) {
+      this.rack = baseRack;
       this.board = board;
+      this.anchorMoves = anchorMoves;
       this.nextSlot = -1;
       this.remainingMoves = new LinkedList<Move>();
       this.indexBound = WordsWithFriendsBoard.DIMENSIONS * WordsWithFriendsBoard.DIMENSIONS;
@@ -238,7 +460,7 @@ public abstract class WordsWithFriendsAllMovesGenerator implements AllMovesGener
     private void advanceToNextLegalSlot() {
       nextSlot++;
 
-      while ( nextSlot < indexBound && board.getSlot(nextSlot).getTile() == null && ! board.getAdjacentSlots(nextSlot).hasAnyTouching() ) {
+      while ( nextSlot < indexBound && ! anchorMoves.isAnchor(nextSlot) ) {
         nextSlot++;
       }
     }
@@ -256,6 +478,11 @@ public abstract class WordsWithFriendsAllMovesGenerator implements AllMovesGener
 
       Move next = remainingMoves.removeFirst();
 
+      // Moves that didn't need to be validated haven't been scored yet
+      if ( next.getResult() == null ) {
+        board.scoreMove(next);
+      }
+
       if ( remainingMoves.isEmpty() ) {
         fillMoves();
       }
@@ -289,23 +516,24 @@ public abstract class WordsWithFriendsAllMovesGenerator implements AllMovesGener
      * @param col
      * @return
      */
-    private Set<Move> getAllMoves(int row, int col) {
-      Set<Move> mergedMoves = new HashSet<Move>();
+    private List<Move> getAllMoves(int row, int col) {
+      List<Move> possibleMoves = anchorMoves.generateMoves(row, col, rack);
+      List<Move> validMoves = new ArrayList<Move>(possibleMoves.size());
 
-      for (Rack boundRack : racks) {
-        Set<Move> possibleMoves = generateMoves(row, col, boundRack, board);
+      if ( ! anchorMoves.needsValidation() ) {
+        return possibleMoves;
+      }
 
-        for (Move possibleMove : possibleMoves) {
-          // Score the move to generate the result
-          board.scoreMove(possibleMove);
+      for (Move possibleMove : possibleMoves) {
+        // Score the move to generate the result
+        board.scoreMove(possibleMove);
 
-          if ( isValidMove(board, possibleMove) ) {
-            mergedMoves.add(possibleMove);
-          }
+        if ( anchorMoves.isValidMove(possibleMove) ) {
+          validMoves.add(possibleMove);
         }
       }
 
-      return mergedMoves;
+      return validMoves;
     }
   }
 }
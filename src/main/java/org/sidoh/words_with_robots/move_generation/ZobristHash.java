@@ -0,0 +1,123 @@
+package org.sidoh.words_with_robots.move_generation;
+
+import org.sidoh.wwf_api.game_state.WordsWithFriendsBoard;
+import org.sidoh.wwf_api.types.game_state.Tile;
+
+import java.util.Collection;
+import java.util.Random;
+
+/**
+ * Zobrist keys for search positions. A position's hash is the XOR of a key for each tile on the board,
+ * a key for each tile on each player's rack, a key for how many tiles are left in the bag and a key for
+ * whose turn it is. Making a move only changes a few of those, so the hash for the position after it is
+ * found by XORing out the keys that no longer apply and XORing in the new ones.
+ *
+ * Tiles are told apart the same way {@link CountedRack} tells them apart: by letter, with blanks bound to
+ * a letter separate from tiles with it. The draw order is known, so the number of tiles left says which
+ * tiles are still to be drawn.
+ *
+ * Keys come from a fixed seed, so hashes are the same every run.
+ */
+public final class ZobristHash {
+  private static final int NUM_KINDS = CountedRack.BLANK_SLOT + 1;
+  private static final int NUM_SQUARES = WordsWithFriendsBoard.DIMENSIONS * WordsWithFriendsBoard.DIMENSIONS;
+
+  private static final long[] SQUARE_KEYS = new long[NUM_SQUARES * NUM_KINDS];
+  private static final long[] RACK_KEYS = new long[2 * NUM_KINDS * WordsWithFriendsBoard.TILES_PER_PLAYER];
+  private static final long[] BAG_KEYS = new long[WordsWithFriendsBoard.TILES.size() + 1];
+  private static final long SIDE_TO_MOVE_KEY;
+  static {
+    Random random = new Random(0x5eedL);
+
+    fill(random, SQUARE_KEYS);
+    fill(random, RACK_KEYS);
+    fill(random, BAG_KEYS);
+    SIDE_TO_MOVE_KEY = random.nextLong();
+  }
+
+  private ZobristHash() { }
+
+  /**
+   * @param board
+   * @param firstRack the tiles on the first player's rack
+   * @param secondRack the tiles on the second player's rack
+   * @param numRemaining number of tiles left in the bag
+   * @param toMove which player's turn it is, 0 or 1
+   * @return hash of the position
+   */
+  public static long hash(WordsWithFriendsBoard board, Collection<Tile> firstRack, Collection<Tile> secondRack, int numRemaining, int toMove) {
+    long hash = hashRack(0, firstRack) ^ hashRack(1, secondRack) ^ hashBag(numRemaining) ^ hashSideToMove(toMove);
+
+    for (int index = 0; index < NUM_SQUARES; index++) {
+      Tile tile = board.getSlot(index).getTile();
+
+      if (tile != null) {
+        hash ^= hashSquare(index, tile);
+      }
+    }
+
+    return hash;
+  }
+
+  /**
+   * @param index slot index
+   * @param tile
+   * @return key for the tile being on the square
+   */
+  public static long hashSquare(int index, Tile tile) {
+    return SQUARE_KEYS[index * NUM_KINDS + CountedRack.getSlot(tile)];
+  }
+
+  /**
+   * @param player 0 or 1
+   * @param tiles the tiles on the player's rack
+   * @return the keys for the tiles on the rack, XORed together. The order of the tiles doesn't matter.
+   */
+  public static long hashRack(int player, Collection<Tile> tiles) {
+    int[] counts = new int[NUM_KINDS];
+    long hash = 0;
+
+    // The n-th tile of a kind gets its own key, so that having two of a tile doesn't cancel out
+    for (Tile tile : tiles) {
+      int kind = CountedRack.getSlot(tile);
+      hash ^= hashRackTile(player, kind, counts[kind]++);
+    }
+
+    return hash;
+  }
+
+  /**
+   * Racks are hashed so that adding or removing a tile only changes one key: the n-th tile of a kind
+   * always has the same key, whichever tile it is.
+   *
+   * @param player 0 or 1
+   * @param kind the tile's {@link CountedRack} slot
+   * @param n how many tiles of the kind are on the rack besides this one
+   * @return key for the tile being on the player's rack
+   */
+  public static long hashRackTile(int player, int kind, int n) {
+    return RACK_KEYS[(player * NUM_KINDS + kind) * WordsWithFriendsBoard.TILES_PER_PLAYER + n];
+  }
+
+  /**
+   * @param numRemaining number of tiles left in the bag
+   * @return
+   */
+  public static long hashBag(int numRemaining) {
+    return BAG_KEYS[numRemaining];
+  }
+
+  /**
+   * @param toMove which player's turn it is, 0 or 1
+   * @return
+   */
+  public static long hashSideToMove(int toMove) {
+    return toMove == 0 ? 0 : SIDE_TO_MOVE_KEY;
+  }
+
+  private static void fill(Random random, long[] keys) {
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = random.nextLong();
+    }
+  }
+}
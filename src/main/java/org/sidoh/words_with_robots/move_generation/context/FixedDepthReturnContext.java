@@ -4,6 +4,7 @@ import org.sidoh.wwf_api.game_state.Move;
 
 public class FixedDepthReturnContext extends WwfMoveGeneratorReturnContext {
   private boolean terminal;
+  private long nodesSearched;
 
   /**
    * @param move the move that the generator suggests
@@ -21,4 +22,16 @@ public class FixedDepthReturnContext extends WwfMoveGeneratorReturnContext {
     this.terminal = terminal;
     return this;
   }
+
+  /**
+   * @return number of positions the search looked at
+   */
+  public long getNodesSearched() {
+    return nodesSearched;
+  }
+
+  public FixedDepthReturnContext setNodesSearched(long nodesSearched) {
+    this.nodesSearched = nodesSearched;
+    return this;
+  }
 }
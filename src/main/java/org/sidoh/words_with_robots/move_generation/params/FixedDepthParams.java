@@ -33,6 +33,7 @@ public class FixedDepthParams implements org.apache.thrift.TBase<FixedDepthParam
   private static final org.apache.thrift.protocol.TField MIN_SCORE_FIELD_DESC = new org.apache.thrift.protocol.TField("minScore", org.apache.thrift.protocol.TType.I32, (short)1);
   private static final org.apache.thrift.protocol.TField BRANCHING_FACTOR_LIMIT_FIELD_DESC = new org.apache.thrift.protocol.TField("branchingFactorLimit", org.apache.thrift.protocol.TType.I32, (short)2);
   private static final org.apache.thrift.protocol.TField MAX_DEPTH_FIELD_DESC = new org.apache.thrift.protocol.TField("maxDepth", org.apache.thrift.protocol.TType.I32, (short)3);
+  private static final org.apache.thrift.protocol.TField SEARCH_THREADS_FIELD_DESC = new org.apache.thrift.protocol.TField("searchThreads", org.apache.thrift.protocol.TType.I32, (short)4);
 
   private static final Map<Class<? extends IScheme>, SchemeFactory> schemes = new HashMap<Class<? extends IScheme>, SchemeFactory>();
   static {
@@ -55,6 +56,11 @@ public class FixedDepthParams implements org.apache.thrift.TBase<FixedDepthParam
    * The maximum depth to explore
    */
   public int maxDepth; // optional
+  /**
+   * The number of threads to search with. At each node, the first move is
+   * searched before the rest are split up among the threads.
+   */
+  public int searchThreads; // optional
 
   /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
   public enum _Fields implements org.apache.thrift.TFieldIdEnum {
@@ -72,7 +78,12 @@ public class FixedDepthParams implements org.apache.thrift.TBase<FixedDepthParam
     /**
      * The maximum depth to explore
      */
-    MAX_DEPTH((short)3, "maxDepth");
+    MAX_DEPTH((short)3, "maxDepth"),
+    /**
+     * The number of threads to search with. At each node, the first move is
+     * searched before the rest are split up among the threads.
+     */
+    SEARCH_THREADS((short)4, "searchThreads");
 
     private static final Map<String, _Fields> byName = new HashMap<String, _Fields>();
 
@@ -93,6 +104,8 @@ public class FixedDepthParams implements org.apache.thrift.TBase<FixedDepthParam
           return BRANCHING_FACTOR_LIMIT;
         case 3: // MAX_DEPTH
           return MAX_DEPTH;
+        case 4: // SEARCH_THREADS
+          return SEARCH_THREADS;
         default:
           return null;
       }
@@ -136,8 +149,9 @@ public class FixedDepthParams implements org.apache.thrift.TBase<FixedDepthParam
   private static final int __MINSCORE_ISSET_ID = 0;
   private static final int __BRANCHINGFACTORLIMIT_ISSET_ID = 1;
   private static final int __MAXDEPTH_ISSET_ID = 2;
-  private BitSet __isset_bit_vector = new BitSet(3);
-  private _Fields optionals[] = {_Fields.MIN_SCORE,_Fields.BRANCHING_FACTOR_LIMIT,_Fields.MAX_DEPTH};
+  private static final int __SEARCHTHREADS_ISSET_ID = 3;
+  private BitSet __isset_bit_vector = new BitSet(4);
+  private _Fields optionals[] = {_Fields.MIN_SCORE,_Fields.BRANCHING_FACTOR_LIMIT,_Fields.MAX_DEPTH,_Fields.SEARCH_THREADS};
   public static final Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
   static {
     Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> tmpMap = new EnumMap<_Fields, org.apache.thrift.meta_data.FieldMetaData>(_Fields.class);
@@ -147,6 +161,8 @@ public class FixedDepthParams implements org.apache.thrift.TBase<FixedDepthParam
         new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I32)));
     tmpMap.put(_Fields.MAX_DEPTH, new org.apache.thrift.meta_data.FieldMetaData("maxDepth", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
         new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I32)));
+    tmpMap.put(_Fields.SEARCH_THREADS, new org.apache.thrift.meta_data.FieldMetaData("searchThreads", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
+        new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I32)));
     metaDataMap = Collections.unmodifiableMap(tmpMap);
     org.apache.thrift.meta_data.FieldMetaData.addStructMetaDataMap(FixedDepthParams.class, metaDataMap);
   }
@@ -158,6 +174,8 @@ public class FixedDepthParams implements org.apache.thrift.TBase<FixedDepthParam
 
     this.maxDepth = 2;
 
+    this.searchThreads = 1;
+
   }
 
   /**
@@ -169,6 +187,7 @@ public class FixedDepthParams implements org.apache.thrift.TBase<FixedDepthParam
     this.minScore = other.minScore;
     this.branchingFactorLimit = other.branchingFactorLimit;
     this.maxDepth = other.maxDepth;
+    this.searchThreads = other.searchThreads;
   }
 
   public FixedDepthParams deepCopy() {
@@ -183,6 +202,8 @@ public class FixedDepthParams implements org.apache.thrift.TBase<FixedDepthParam
 
     this.maxDepth = 2;
 
+    this.searchThreads = 1;
+
   }
 
   /**
@@ -278,6 +299,37 @@ public class FixedDepthParams implements org.apache.thrift.TBase<FixedDepthParam
     __isset_bit_vector.set(__MAXDEPTH_ISSET_ID, value);
   }
 
+  /**
+   * The number of threads to search with. At each node, the first move is
+   * searched before the rest are split up among the threads.
+   */
+  public int getSearchThreads() {
+    return this.searchThreads;
+  }
+
+  /**
+   * The number of threads to search with. At each node, the first move is
+   * searched before the rest are split up among the threads.
+   */
+  public FixedDepthParams setSearchThreads(int searchThreads) {
+    this.searchThreads = searchThreads;
+    setSearchThreadsIsSet(true);
+    return this;
+  }
+
+  public void unsetSearchThreads() {
+    __isset_bit_vector.clear(__SEARCHTHREADS_ISSET_ID);
+  }
+
+  /** Returns true if field searchThreads is set (has been assigned a value) and false otherwise */
+  public boolean isSetSearchThreads() {
+    return __isset_bit_vector.get(__SEARCHTHREADS_ISSET_ID);
+  }
+
+  public void setSearchThreadsIsSet(boolean value) {
+    __isset_bit_vector.set(__SEARCHTHREADS_ISSET_ID, value);
+  }
+
   public void setFieldValue(_Fields field, Object value) {
     switch (field) {
     case MIN_SCORE:
@@ -304,6 +356,14 @@ public class FixedDepthParams implements org.apache.thrift.TBase<FixedDepthParam
       }
       break;
 
+    case SEARCH_THREADS:
+      if (value == null) {
+        unsetSearchThreads();
+      } else {
+        setSearchThreads((Integer)value);
+      }
+      break;
+
     }
   }
 
@@ -318,6 +378,9 @@ public class FixedDepthParams implements org.apache.thrift.TBase<FixedDepthParam
     case MAX_DEPTH:
       return Integer.valueOf(getMaxDepth());
 
+    case SEARCH_THREADS:
+      return Integer.valueOf(getSearchThreads());
+
     }
     throw new IllegalStateException();
   }
@@ -335,6 +398,8 @@ public class FixedDepthParams implements org.apache.thrift.TBase<FixedDepthParam
       return isSetBranchingFactorLimit();
     case MAX_DEPTH:
       return isSetMaxDepth();
+    case SEARCH_THREADS:
+      return isSetSearchThreads();
     }
     throw new IllegalStateException();
   }
@@ -379,6 +444,15 @@ public class FixedDepthParams implements org.apache.thrift.TBase<FixedDepthParam
         return false;
     }
 
+    boolean this_present_searchThreads = true && this.isSetSearchThreads();
+    boolean that_present_searchThreads = true && that.isSetSearchThreads();
+    if (this_present_searchThreads || that_present_searchThreads) {
+      if (!(this_present_searchThreads && that_present_searchThreads))
+        return false;
+      if (this.searchThreads != that.searchThreads)
+        return false;
+    }
+
     return true;
   }
 
@@ -425,6 +499,16 @@ public class FixedDepthParams implements org.apache.thrift.TBase<FixedDepthParam
         return lastComparison;
       }
     }
+    lastComparison = Boolean.valueOf(isSetSearchThreads()).compareTo(typedOther.isSetSearchThreads());
+    if (lastComparison != 0) {
+      return lastComparison;
+    }
+    if (isSetSearchThreads()) {
+      lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.searchThreads, typedOther.searchThreads);
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+    }
     return 0;
   }
 
@@ -462,6 +546,12 @@ public class FixedDepthParams implements org.apache.thrift.TBase<FixedDepthParam
       sb.append(this.maxDepth);
       first = false;
     }
+    if (isSetSearchThreads()) {
+      if (!first) sb.append(", ");
+      sb.append("searchThreads:");
+      sb.append(this.searchThreads);
+      first = false;
+    }
     sb.append(")");
     return sb.toString();
   }
@@ -530,6 +620,14 @@ public class FixedDepthParams implements org.apache.thrift.TBase<FixedDepthParam
               org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
             }
             break;
+          case 4: // SEARCH_THREADS
+            if (schemeField.type == org.apache.thrift.protocol.TType.I32) {
+              struct.searchThreads = iprot.readI32();
+              struct.setSearchThreadsIsSet(true);
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+            }
+            break;
           default:
             org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
         }
@@ -560,6 +658,11 @@ public class FixedDepthParams implements org.apache.thrift.TBase<FixedDepthParam
         oprot.writeI32(struct.maxDepth);
         oprot.writeFieldEnd();
       }
+      if (struct.isSetSearchThreads()) {
+        oprot.writeFieldBegin(SEARCH_THREADS_FIELD_DESC);
+        oprot.writeI32(struct.searchThreads);
+        oprot.writeFieldEnd();
+      }
       oprot.writeFieldStop();
       oprot.writeStructEnd();
     }
@@ -587,7 +690,10 @@ public class FixedDepthParams implements org.apache.thrift.TBase<FixedDepthParam
       if (struct.isSetMaxDepth()) {
         optionals.set(2);
       }
-      oprot.writeBitSet(optionals, 3);
+      if (struct.isSetSearchThreads()) {
+        optionals.set(3);
+      }
+      oprot.writeBitSet(optionals, 4);
       if (struct.isSetMinScore()) {
         oprot.writeI32(struct.minScore);
       }
@@ -597,12 +703,15 @@ public class FixedDepthParams implements org.apache.thrift.TBase<FixedDepthParam
       if (struct.isSetMaxDepth()) {
         oprot.writeI32(struct.maxDepth);
       }
+      if (struct.isSetSearchThreads()) {
+        oprot.writeI32(struct.searchThreads);
+      }
     }
 
     @Override
     public void read(org.apache.thrift.protocol.TProtocol prot, FixedDepthParams struct) throws org.apache.thrift.TException {
       TTupleProtocol iprot = (TTupleProtocol) prot;
-      BitSet incoming = iprot.readBitSet(3);
+      BitSet incoming = iprot.readBitSet(4);
       if (incoming.get(0)) {
         struct.minScore = iprot.readI32();
         struct.setMinScoreIsSet(true);
@@ -615,6 +724,10 @@ public class FixedDepthParams implements org.apache.thrift.TBase<FixedDepthParam
         struct.maxDepth = iprot.readI32();
         struct.setMaxDepthIsSet(true);
       }
+      if (incoming.get(3)) {
+        struct.searchThreads = iprot.readI32();
+        struct.setSearchThreadsIsSet(true);
+      }
     }
   }
 
@@ -32,6 +32,7 @@ public class IterativeDeepeningParams implements org.apache.thrift.TBase<Iterati
 
   private static final org.apache.thrift.protocol.TField MAX_EXECUTION_TIME_FIELD_DESC = new org.apache.thrift.protocol.TField("maxExecutionTime", org.apache.thrift.protocol.TType.I64, (short)1);
   private static final org.apache.thrift.protocol.TField VERBOSE_STATS_ENABLED_FIELD_DESC = new org.apache.thrift.protocol.TField("verboseStatsEnabled", org.apache.thrift.protocol.TType.BOOL, (short)2);
+  private static final org.apache.thrift.protocol.TField HELPER_THREADS_FIELD_DESC = new org.apache.thrift.protocol.TField("helperThreads", org.apache.thrift.protocol.TType.I32, (short)3);
 
   private static final Map<Class<? extends IScheme>, SchemeFactory> schemes = new HashMap<Class<? extends IScheme>, SchemeFactory>();
   static {
@@ -50,6 +51,12 @@ public class IterativeDeepeningParams implements org.apache.thrift.TBase<Iterati
    * iteratively incrementing the number of lookahead plies until it runs out of time.
    */
   public boolean verboseStatsEnabled; // optional
+  /**
+   * The number of helper threads to search with. Helpers search the same
+   * position as the main thread, a little deeper and with the moves in a
+   * different order, and only share results through the transposition table.
+   */
+  public int helperThreads; // optional
 
   /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
   public enum _Fields implements org.apache.thrift.TFieldIdEnum {
@@ -63,7 +70,13 @@ public class IterativeDeepeningParams implements org.apache.thrift.TBase<Iterati
      * Maximum number of milliseconds to let the algorithm run. Iterative deepening works by
      * iteratively incrementing the number of lookahead plies until it runs out of time.
      */
-    VERBOSE_STATS_ENABLED((short)2, "verboseStatsEnabled");
+    VERBOSE_STATS_ENABLED((short)2, "verboseStatsEnabled"),
+    /**
+     * The number of helper threads to search with. Helpers search the same
+     * position as the main thread, a little deeper and with the moves in a
+     * different order, and only share results through the transposition table.
+     */
+    HELPER_THREADS((short)3, "helperThreads");
 
     private static final Map<String, _Fields> byName = new HashMap<String, _Fields>();
 
@@ -82,6 +95,8 @@ public class IterativeDeepeningParams implements org.apache.thrift.TBase<Iterati
           return MAX_EXECUTION_TIME;
         case 2: // VERBOSE_STATS_ENABLED
           return VERBOSE_STATS_ENABLED;
+        case 3: // HELPER_THREADS
+          return HELPER_THREADS;
         default:
           return null;
       }
@@ -124,8 +139,9 @@ public class IterativeDeepeningParams implements org.apache.thrift.TBase<Iterati
   // isset id assignments
   private static final int __MAXEXECUTIONTIME_ISSET_ID = 0;
   private static final int __VERBOSESTATSENABLED_ISSET_ID = 1;
-  private BitSet __isset_bit_vector = new BitSet(2);
-  private _Fields optionals[] = {_Fields.MAX_EXECUTION_TIME,_Fields.VERBOSE_STATS_ENABLED};
+  private static final int __HELPERTHREADS_ISSET_ID = 2;
+  private BitSet __isset_bit_vector = new BitSet(3);
+  private _Fields optionals[] = {_Fields.MAX_EXECUTION_TIME,_Fields.VERBOSE_STATS_ENABLED,_Fields.HELPER_THREADS};
   public static final Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
   static {
     Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> tmpMap = new EnumMap<_Fields, org.apache.thrift.meta_data.FieldMetaData>(_Fields.class);
@@ -133,6 +149,8 @@ public class IterativeDeepeningParams implements org.apache.thrift.TBase<Iterati
         new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I64)));
     tmpMap.put(_Fields.VERBOSE_STATS_ENABLED, new org.apache.thrift.meta_data.FieldMetaData("verboseStatsEnabled", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
         new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.BOOL)));
+    tmpMap.put(_Fields.HELPER_THREADS, new org.apache.thrift.meta_data.FieldMetaData("helperThreads", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
+        new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I32)));
     metaDataMap = Collections.unmodifiableMap(tmpMap);
     org.apache.thrift.meta_data.FieldMetaData.addStructMetaDataMap(IterativeDeepeningParams.class, metaDataMap);
   }
@@ -142,6 +160,8 @@ public class IterativeDeepeningParams implements org.apache.thrift.TBase<Iterati
 
     this.verboseStatsEnabled = true;
 
+    this.helperThreads = 0;
+
   }
 
   /**
@@ -152,6 +172,7 @@ public class IterativeDeepeningParams implements org.apache.thrift.TBase<Iterati
     __isset_bit_vector.or(other.__isset_bit_vector);
     this.maxExecutionTime = other.maxExecutionTime;
     this.verboseStatsEnabled = other.verboseStatsEnabled;
+    this.helperThreads = other.helperThreads;
   }
 
   public IterativeDeepeningParams deepCopy() {
@@ -164,6 +185,8 @@ public class IterativeDeepeningParams implements org.apache.thrift.TBase<Iterati
 
     this.verboseStatsEnabled = true;
 
+    this.helperThreads = 0;
+
   }
 
   /**
@@ -230,6 +253,39 @@ public class IterativeDeepeningParams implements org.apache.thrift.TBase<Iterati
     __isset_bit_vector.set(__VERBOSESTATSENABLED_ISSET_ID, value);
   }
 
+  /**
+   * The number of helper threads to search with. Helpers search the same
+   * position as the main thread, a little deeper and with the moves in a
+   * different order, and only share results through the transposition table.
+   */
+  public int getHelperThreads() {
+    return this.helperThreads;
+  }
+
+  /**
+   * The number of helper threads to search with. Helpers search the same
+   * position as the main thread, a little deeper and with the moves in a
+   * different order, and only share results through the transposition table.
+   */
+  public IterativeDeepeningParams setHelperThreads(int helperThreads) {
+    this.helperThreads = helperThreads;
+    setHelperThreadsIsSet(true);
+    return this;
+  }
+
+  public void unsetHelperThreads() {
+    __isset_bit_vector.clear(__HELPERTHREADS_ISSET_ID);
+  }
+
+  /** Returns true if field helperThreads is set (has been assigned a value) and false otherwise */
+  public boolean isSetHelperThreads() {
+    return __isset_bit_vector.get(__HELPERTHREADS_ISSET_ID);
+  }
+
+  public void setHelperThreadsIsSet(boolean value) {
+    __isset_bit_vector.set(__HELPERTHREADS_ISSET_ID, value);
+  }
+
   public void setFieldValue(_Fields field, Object value) {
     switch (field) {
     case MAX_EXECUTION_TIME:
@@ -248,6 +304,14 @@ public class IterativeDeepeningParams implements org.apache.thrift.TBase<Iterati
       }
       break;
 
+    case HELPER_THREADS:
+      if (value == null) {
+        unsetHelperThreads();
+      } else {
+        setHelperThreads((Integer)value);
+      }
+      break;
+
     }
   }
 
@@ -259,6 +323,9 @@ public class IterativeDeepeningParams implements org.apache.thrift.TBase<Iterati
     case VERBOSE_STATS_ENABLED:
       return Boolean.valueOf(isVerboseStatsEnabled());
 
+    case HELPER_THREADS:
+      return Integer.valueOf(getHelperThreads());
+
     }
     throw new IllegalStateException();
   }
@@ -274,6 +341,8 @@ public class IterativeDeepeningParams implements org.apache.thrift.TBase<Iterati
       return isSetMaxExecutionTime();
     case VERBOSE_STATS_ENABLED:
       return isSetVerboseStatsEnabled();
+    case HELPER_THREADS:
+      return isSetHelperThreads();
     }
     throw new IllegalStateException();
   }
@@ -309,6 +378,15 @@ public class IterativeDeepeningParams implements org.apache.thrift.TBase<Iterati
         return false;
     }
 
+    boolean this_present_helperThreads = true && this.isSetHelperThreads();
+    boolean that_present_helperThreads = true && that.isSetHelperThreads();
+    if (this_present_helperThreads || that_present_helperThreads) {
+      if (!(this_present_helperThreads && that_present_helperThreads))
+        return false;
+      if (this.helperThreads != that.helperThreads)
+        return false;
+    }
+
     return true;
   }
 
@@ -345,6 +423,16 @@ public class IterativeDeepeningParams implements org.apache.thrift.TBase<Iterati
         return lastComparison;
       }
     }
+    lastComparison = Boolean.valueOf(isSetHelperThreads()).compareTo(typedOther.isSetHelperThreads());
+    if (lastComparison != 0) {
+      return lastComparison;
+    }
+    if (isSetHelperThreads()) {
+      lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.helperThreads, typedOther.helperThreads);
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+    }
     return 0;
   }
 
@@ -376,6 +464,12 @@ public class IterativeDeepeningParams implements org.apache.thrift.TBase<Iterati
       sb.append(this.verboseStatsEnabled);
       first = false;
     }
+    if (isSetHelperThreads()) {
+      if (!first) sb.append(", ");
+      sb.append("helperThreads:");
+      sb.append(this.helperThreads);
+      first = false;
+    }
     sb.append(")");
     return sb.toString();
   }
@@ -436,6 +530,14 @@ public class IterativeDeepeningParams implements org.apache.thrift.TBase<Iterati
               org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
             }
             break;
+          case 3: // HELPER_THREADS
+            if (schemeField.type == org.apache.thrift.protocol.TType.I32) {
+              struct.helperThreads = iprot.readI32();
+              struct.setHelperThreadsIsSet(true);
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+            }
+            break;
           default:
             org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
         }
@@ -461,6 +563,11 @@ public class IterativeDeepeningParams implements org.apache.thrift.TBase<Iterati
         oprot.writeBool(struct.verboseStatsEnabled);
         oprot.writeFieldEnd();
       }
+      if (struct.isSetHelperThreads()) {
+        oprot.writeFieldBegin(HELPER_THREADS_FIELD_DESC);
+        oprot.writeI32(struct.helperThreads);
+        oprot.writeFieldEnd();
+      }
       oprot.writeFieldStop();
       oprot.writeStructEnd();
     }
@@ -485,19 +592,25 @@ public class IterativeDeepeningParams implements org.apache.thrift.TBase<Iterati
       if (struct.isSetVerboseStatsEnabled()) {
         optionals.set(1);
       }
-      oprot.writeBitSet(optionals, 2);
+      if (struct.isSetHelperThreads()) {
+        optionals.set(2);
+      }
+      oprot.writeBitSet(optionals, 3);
       if (struct.isSetMaxExecutionTime()) {
         oprot.writeI64(struct.maxExecutionTime);
       }
       if (struct.isSetVerboseStatsEnabled()) {
         oprot.writeBool(struct.verboseStatsEnabled);
       }
+      if (struct.isSetHelperThreads()) {
+        oprot.writeI32(struct.helperThreads);
+      }
     }
 
     @Override
     public void read(org.apache.thrift.protocol.TProtocol prot, IterativeDeepeningParams struct) throws org.apache.thrift.TException {
       TTupleProtocol iprot = (TTupleProtocol) prot;
-      BitSet incoming = iprot.readBitSet(2);
+      BitSet incoming = iprot.readBitSet(3);
       if (incoming.get(0)) {
         struct.maxExecutionTime = iprot.readI64();
         struct.setMaxExecutionTimeIsSet(true);
@@ -506,6 +619,10 @@ public class IterativeDeepeningParams implements org.apache.thrift.TBase<Iterati
         struct.verboseStatsEnabled = iprot.readBool();
         struct.setVerboseStatsEnabledIsSet(true);
       }
+      if (incoming.get(2)) {
+        struct.helperThreads = iprot.readI32();
+        struct.setHelperThreadsIsSet(true);
+      }
     }
   }
 
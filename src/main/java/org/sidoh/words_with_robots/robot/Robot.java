@@ -1,13 +1,14 @@
 package org.sidoh.words_with_robots.robot;
 
 import com.google.common.collect.Lists;
-import org.sidoh.words_with_robots.data_structures.gaddag.GadDag;
 import org.sidoh.words_with_robots.move_generation.GadDagWwfMoveGenerator;
 import org.sidoh.words_with_robots.move_generation.GameStateMoveGenerator;
 import org.sidoh.words_with_robots.move_generation.IterativeDeepeningMoveGenerator;
 import org.sidoh.words_with_robots.move_generation.WordsWithFriendsAllMovesGenerator;
 import org.sidoh.words_with_robots.move_generation.context.WwfMoveGeneratorReturnContext;
+import org.sidoh.words_with_robots.move_generation.params.FixedDepthParams;
 import org.sidoh.words_with_robots.util.dictionary.DictionaryHelper;
+import org.sidoh.words_with_robots.util.dictionary.DictionaryService;
 import org.sidoh.wwf_api.AccessTokenRetriever;
 import org.sidoh.wwf_api.StatefulApiProvider;
 import org.sidoh.wwf_api.game_state.GameStateHelper;
@@ -30,7 +31,7 @@ public class Robot {
   private static final Logger LOG = LoggerFactory.getLogger(Robot.class);
   protected final static GameStateHelper stateHelper = GameStateHelper.getInstance();
 
-  private GadDag dictionary;
+  private DictionaryService dictionary;
   private GameStateMoveGenerator<? extends WwfMoveGeneratorReturnContext> moveGenerator;
   private ExecutorService threadPool;
   private StatefulApiProvider apiProvider;
@@ -43,7 +44,7 @@ public class Robot {
   public Robot(StatefulApiProvider apiProvider, RobotSettings settings) {
     this.settings = settings;
     this.apiProvider = apiProvider;
-    this.dictionary = new GadDag();
+    this.dictionary = null;
     this.moveGenerator = null;
     this.threadPool = Executors.newFixedThreadPool(settings.getInteger(RobotSettingKey.MAX_THREADS));
 
@@ -63,10 +64,11 @@ public class Robot {
     if ( this.moveGenerator == null ) {
       try {
         LOG.info("Loading dictionary....");
-        int lines = dictionary.loadDictionary(DictionaryHelper.getDictionaryResource());
-        dictionary.compact();
-        LOG.info("Done! Loaded {} words.", lines);
-        moveGenerator = new IterativeDeepeningMoveGenerator(new GadDagWwfMoveGenerator(dictionary));
+        dictionary = new DictionaryService(DictionaryHelper.loadGadDag(settings.getString(RobotSettingKey.DICTIONARY_IMAGE)));
+        settings.set(RobotSettingKey.DICTIONARY_SERVICE, dictionary);
+        LOG.info("Done!");
+        moveGenerator = new IterativeDeepeningMoveGenerator(new GadDagWwfMoveGenerator(dictionary))
+          .updateFixedDepthParam(FixedDepthParams._Fields.SEARCH_THREADS, settings.getInteger(RobotSettingKey.SEARCH_THREADS));
 //        moveGenerator = new WwfMinimaxLocal(new GadDagWwfMoveGenerator(dictionary));
       } catch (IOException e) {
         throw new RuntimeException(e);
@@ -5,6 +5,7 @@ import org.apache.thrift.TException;
 import org.sidoh.words_with_robots.move_generation.GameStateMoveGenerator;
 import org.sidoh.words_with_robots.move_generation.WordsWithFriendsAllMovesGenerator;
 import org.sidoh.words_with_robots.move_generation.context.WwfMoveGeneratorReturnContext;
+import org.sidoh.words_with_robots.util.dictionary.DictionaryService;
 import org.sidoh.words_with_robots.util.io.StatePrinter;
 import org.sidoh.wwf_api.MoveValidationException;
 import org.sidoh.wwf_api.StatefulApiProvider;
@@ -62,6 +63,15 @@ class RobotConsumer implements Runnable {
     return (GameStateMoveGenerator<? extends WwfMoveGeneratorReturnContext>) settings.get(RobotSettingKey.MOVE_GENERATOR);
   }
 
+  /**
+   * Convenience method for getting the dictionary service out of the settings map
+   *
+   * @return the dictionary service, or null if a custom move generator was provided
+   */
+  protected DictionaryService getDictionaryService() {
+    return (DictionaryService) settings.get(RobotSettingKey.DICTIONARY_SERVICE);
+  }
+
   /**
    * Helper that serializes a game state if it's enabled
    *
@@ -141,6 +151,15 @@ class RobotConsumer implements Runnable {
 
               LOG.info("Game state after move:\n{}", statePrinter.getGameStateAsString(updatedState));
             } else {
+              // Don't resubmit the same move. Drop the words so that the next snapshot doesn't generate
+              // them again; the game is retried once it's polled again.
+              moveCache.remove(state.getId());
+
+              DictionaryService dictionary = getDictionaryService();
+              if (dictionary != null) {
+                dictionary.removeWords(wordsNotInDictionary);
+              }
+
               throw new RuntimeException("The following aren't considered words by WWF: " + wordsNotInDictionary);
             }
           }
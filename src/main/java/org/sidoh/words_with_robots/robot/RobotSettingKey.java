@@ -32,12 +32,31 @@ public enum RobotSettingKey {
    */
   PREEMPTION_THRESHOLD(6),
 
+  /**
+   * The number of threads each search done by the default move generator is split up among. Each
+   * consumer searching uses this many, so it usually shouldn't be more than 1 unless there are more
+   * processors than consumer threads.
+   */
+  SEARCH_THREADS(1),
+
   /**
    * The move generator to use. If this isn't set, iterative deepening with the default parameters
    * will be used.
    */
   MOVE_GENERATOR(null),
 
+  /**
+   * Path to a GADDAG image written by GadDagLoader. If this isn't set, the GADDAG is built from the
+   * bundled dictionary at startup.
+   */
+  DICTIONARY_IMAGE(null),
+
+  /**
+   * Holds the dictionary used by the default move generator. Words WWF rejects are removed from it.
+   * Set by the robot when it creates the default move generator.
+   */
+  DICTIONARY_SERVICE(null),
+
   /**
    * The directory to save log files in. Defaults to current working directory + './log'
    */
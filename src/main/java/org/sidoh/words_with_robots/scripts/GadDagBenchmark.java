@@ -0,0 +1,182 @@
+package org.sidoh.words_with_robots.scripts;
+
+import com.google.common.collect.Lists;
+import org.sidoh.words_with_robots.data_structures.gaddag.FrozenGadDag;
+import org.sidoh.words_with_robots.data_structures.gaddag.GadDag;
+import org.sidoh.words_with_robots.data_structures.gaddag.GadDagEdge;
+import org.sidoh.words_with_robots.data_structures.gaddag.TraversableGadDag;
+import org.sidoh.words_with_robots.util.dictionary.DictionaryHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Compares memory usage and lookup throughput of the GADDAG implementations on the bundled dictionary.
+ * Run with a heap large enough to hold the graph-backed GadDag (-Xmx1g or so).
+ */
+public class GadDagBenchmark {
+  private static final Logger LOG = LoggerFactory.getLogger(GadDagBenchmark.class);
+  private static final int ROUNDS = 5;
+
+  public static void main(String[] args) throws IOException {
+    List<String> words = readWords();
+    long baseline = usedHeap();
+
+    long start = System.currentTimeMillis();
+    GadDag gaddag = new GadDag();
+    gaddag.loadDictionary(DictionaryHelper.getDictionaryResource());
+    gaddag.compact();
+    long loadTime = System.currentTimeMillis() - start;
+    long gaddagHeap = usedHeap() - baseline;
+
+    start = System.currentTimeMillis();
+    FrozenGadDag frozen = new FrozenGadDag(gaddag);
+    long freezeTime = System.currentTimeMillis() - start;
+
+    System.out.printf("GadDag: %d vertices, %d edges, built in %d ms, ~%d MB heap\n",
+      gaddag.vertexSet().size(), gaddag.edgeSet().size(), loadTime, gaddagHeap >> 20);
+    System.out.printf("FrozenGadDag: %d states, %d arcs, frozen in %d ms, %d MB of arrays\n",
+      frozen.getNumStates(), frozen.getNumArcs(), freezeTime, frozen.getSizeInBytes() >> 20);
+
+    benchmark("GadDag", gaddag, words);
+    benchmarkNextEdge(gaddag, words);
+    benchmark("FrozenGadDag", frozen, words);
+
+    start = System.currentTimeMillis();
+    gaddag.minimize();
+    FrozenGadDag minimized = new FrozenGadDag(gaddag);
+    long minimizeTime = System.currentTimeMillis() - start;
+
+    System.out.printf("Minimized FrozenGadDag: %d states, %d arcs, minimized and frozen in %d ms, %d MB of arrays\n",
+      minimized.getNumStates(), minimized.getNumArcs(), minimizeTime, minimized.getSizeInBytes() >> 20);
+
+    benchmark("Minimized FrozenGadDag", minimized, words);
+    minimized = null;
+
+    gaddag = null;
+    long frozenHeap = usedHeap() - baseline;
+    System.out.printf("Heap with only FrozenGadDag (%d states) loaded: ~%d MB\n", frozen.getNumStates(), frozenHeap >> 20);
+  }
+
+  protected static void benchmark(String name, TraversableGadDag gaddag, List<String> words) {
+    // Warm up
+    lookupWords(gaddag, words);
+    traverseWords(gaddag, words);
+
+    long start = System.nanoTime();
+    for (int i = 0; i < ROUNDS; i++) {
+      if (lookupWords(gaddag, words) != words.size()) {
+        throw new IllegalStateException(name + " is missing words from the dictionary");
+      }
+    }
+    double lookupRate = (ROUNDS * words.size()) / ((System.nanoTime() - start) / 1e9);
+
+    start = System.nanoTime();
+    long arcs = 0;
+    for (int i = 0; i < ROUNDS; i++) {
+      arcs += traverseWords(gaddag, words);
+    }
+    double arcRate = arcs / ((System.nanoTime() - start) / 1e9);
+
+    System.out.printf("%s: %.0f isWord/s, %.0f nextArc/s\n", name, lookupRate, arcRate);
+  }
+
+  /**
+   * Measures {@link GadDag#nextEdge(GadDagEdge, char)} on its own, without going through arc handles.
+   */
+  protected static void benchmarkNextEdge(GadDag gaddag, List<String> words) {
+    // Warm up
+    followEdges(gaddag, words);
+
+    long start = System.nanoTime();
+    long edges = 0;
+    for (int i = 0; i < ROUNDS; i++) {
+      edges += followEdges(gaddag, words);
+    }
+    double edgeRate = edges / ((System.nanoTime() - start) / 1e9);
+
+    System.out.printf("GadDag: %.0f nextEdge/s\n", edgeRate);
+  }
+
+  /**
+   * @return number of edges followed
+   */
+  protected static long followEdges(GadDag gaddag, List<String> words) {
+    long followed = 0;
+
+    for (String word : words) {
+      GadDagEdge edge = gaddag.getInitEdge();
+
+      for (int i = word.length() - 1; i >= 1 && edge != null; i--) {
+        edge = gaddag.nextEdge(edge, word.charAt(i));
+        followed++;
+      }
+    }
+
+    return followed;
+  }
+
+  /**
+   * @return number of words found
+   */
+  protected static int lookupWords(TraversableGadDag gaddag, List<String> words) {
+    int found = 0;
+
+    for (String word : words) {
+      if (gaddag.isWord(word)) {
+        found++;
+      }
+    }
+
+    return found;
+  }
+
+  /**
+   * Follows the reversed path of every word, which is what move generation does when it extends a
+   * word leftwards from an anchor.
+   *
+   * @return number of arcs followed
+   */
+  protected static long traverseWords(TraversableGadDag gaddag, List<String> words) {
+    long followed = 0;
+
+    for (String word : words) {
+      int arc = gaddag.getInitArc();
+
+      for (int i = word.length() - 1; i >= 1 && arc != TraversableGadDag.NULL_ARC; i--) {
+        arc = gaddag.nextArc(arc, word.charAt(i));
+        followed++;
+      }
+    }
+
+    return followed;
+  }
+
+  protected static List<String> readWords() throws IOException {
+    List<String> words = Lists.newArrayList();
+    BufferedReader reader = new BufferedReader(DictionaryHelper.getDictionaryResource());
+    String line = reader.readLine();
+
+    while (line != null) {
+      words.add(line);
+      line = reader.readLine();
+    }
+    reader.close();
+
+    LOG.info("Read {} words", words.size());
+    return words;
+  }
+
+  protected static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
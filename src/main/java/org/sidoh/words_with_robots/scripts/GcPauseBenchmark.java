@@ -0,0 +1,179 @@
+package org.sidoh.words_with_robots.scripts;
+
+import com.google.common.collect.Lists;
+import org.sidoh.words_with_robots.data_structures.gaddag.ByteBufferGadDag;
+import org.sidoh.words_with_robots.data_structures.gaddag.GadDag;
+import org.sidoh.words_with_robots.data_structures.gaddag.TraversableGadDag;
+import org.sidoh.words_with_robots.move_generation.GadDagWwfMoveGenerator;
+import org.sidoh.words_with_robots.util.dictionary.DictionaryHelper;
+import org.sidoh.wwf_api.game_state.Move;
+import org.sidoh.wwf_api.game_state.TileBuilder;
+import org.sidoh.wwf_api.game_state.WordsWithFriendsBoard;
+import org.sidoh.wwf_api.types.game_state.Rack;
+import org.sidoh.wwf_api.types.game_state.Tile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures garbage collection pauses while several threads play games against themselves, which is
+ * roughly what the robot's consumer threads do. Run once per dictionary backend with the same heap
+ * settings to compare:
+ *
+ *   GcPauseBenchmark (graph|offheap) [threads] [seconds]
+ */
+public class GcPauseBenchmark {
+  private static final Logger LOG = LoggerFactory.getLogger(GcPauseBenchmark.class);
+  private static final int FULL_GCS = 5;
+
+  public static void main(String[] args) throws Exception {
+    String backend = args.length > 0 ? args[0] : "offheap";
+    int numThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+    int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+
+    final TraversableGadDag gaddag = loadGadDag(backend);
+    final long deadline = System.currentTimeMillis() + seconds * 1000L;
+    final AtomicInteger movesGenerated = new AtomicInteger();
+
+    long[] before = getGcTotals();
+    List<Thread> threads = Lists.newArrayList();
+
+    for (int i = 0; i < numThreads; i++) {
+      final Random random = new Random(i);
+      Thread thread = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          GadDagWwfMoveGenerator generator = new GadDagWwfMoveGenerator(gaddag);
+
+          while (System.currentTimeMillis() < deadline) {
+            movesGenerated.addAndGet(playGame(generator, random, deadline));
+          }
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    long[] after = getGcTotals();
+    long collections = after[0] - before[0];
+    long gcTime = after[1] - before[1];
+
+    System.out.printf("%s: %d threads generated %d moves in %d s\n", backend, numThreads, movesGenerated.get(), seconds);
+    System.out.printf("%s: %d collections, %d ms total, %.1f ms average pause\n",
+      backend, collections, gcTime, collections == 0 ? 0.0 : (double) gcTime / collections);
+
+    // Force full collections, which have to trace everything that's live on the heap
+    long fullGcTime = 0;
+    for (int i = 0; i < FULL_GCS; i++) {
+      long start = System.nanoTime();
+      System.gc();
+      fullGcTime += System.nanoTime() - start;
+    }
+
+    Runtime runtime = Runtime.getRuntime();
+    System.out.printf("%s: %.1f ms average full GC, %d MB live heap\n",
+      backend, fullGcTime / 1e6 / FULL_GCS, (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+  }
+
+  protected static TraversableGadDag loadGadDag(String backend) throws IOException {
+    if ("graph".equals(backend)) {
+      GadDag gaddag = new GadDag();
+      gaddag.loadDictionary(DictionaryHelper.getDictionaryResource());
+      gaddag.compact();
+
+      return gaddag;
+    }
+    else if ("offheap".equals(backend)) {
+      return ByteBufferGadDag.allocateDirect(DictionaryHelper.buildGadDag(DictionaryHelper.getDictionaryResource()));
+    }
+    else {
+      throw new IllegalArgumentException("unknown backend: " + backend);
+    }
+  }
+
+  /**
+   * Plays the top scoring move for each side until the bag is empty or neither side can move.
+   *
+   * @return number of moves generated
+   */
+  protected static int playGame(GadDagWwfMoveGenerator generator, Random random, long deadline) {
+    WordsWithFriendsBoard board = new WordsWithFriendsBoard();
+    List<Tile> bag = Lists.newArrayList();
+    List<List<Tile>> racks = Lists.newArrayList();
+    int moves = 0;
+    int passes = 0;
+
+    for (TileBuilder tileBuilder : WordsWithFriendsBoard.TILES) {
+      bag.add(tileBuilder.build());
+    }
+    Collections.shuffle(bag, random);
+
+    for (int i = 0; i < 2; i++) {
+      racks.add(Lists.<Tile>newArrayList());
+    }
+
+    for (int turn = 0; passes < 2 && System.currentTimeMillis() < deadline; turn++) {
+      List<Tile> tiles = racks.get(turn % 2);
+
+      while (tiles.size() < WordsWithFriendsBoard.TILES_PER_PLAYER && ! bag.isEmpty()) {
+        tiles.add(bag.remove(bag.size() - 1));
+      }
+
+      Rack rack = new Rack().setCapacity(WordsWithFriendsBoard.TILES_PER_PLAYER).setTiles(Lists.newArrayList(tiles));
+      Move move = generator.generateMove(rack, board).getMove();
+      moves++;
+
+      if (move == null || move.getTiles().isEmpty()) {
+        passes++;
+        continue;
+      }
+
+      passes = 0;
+      board.move(move);
+      removeTiles(tiles, move.getTiles());
+    }
+
+    return moves;
+  }
+
+  private static void removeTiles(List<Tile> tiles, List<Tile> played) {
+    for (Tile tile : played) {
+      Iterator<Tile> itr = tiles.iterator();
+
+      while (itr.hasNext()) {
+        if (itr.next().getId() == tile.getId()) {
+          itr.remove();
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * @return total number of collections and total collection time in ms across all collectors
+   */
+  private static long[] getGcTotals() {
+    long[] totals = new long[2];
+
+    for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+      totals[0] += Math.max(0, bean.getCollectionCount());
+      totals[1] += Math.max(0, bean.getCollectionTime());
+    }
+
+    LOG.debug("GC totals: {} collections, {} ms", totals[0], totals[1]);
+
+    return totals;
+  }
+}
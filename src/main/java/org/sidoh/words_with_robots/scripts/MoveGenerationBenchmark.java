@@ -0,0 +1,86 @@
+package org.sidoh.words_with_robots.scripts;
+
+import com.google.common.collect.Lists;
+import org.apache.thrift.TException;
+import org.sidoh.words_with_robots.data_structures.gaddag.TraversableGadDag;
+import org.sidoh.words_with_robots.move_generation.GadDagWwfMoveGenerator;
+import org.sidoh.words_with_robots.util.dictionary.DictionaryHelper;
+import org.sidoh.wwf_api.game_state.GameStateHelper;
+import org.sidoh.wwf_api.game_state.Move;
+import org.sidoh.wwf_api.game_state.WordsWithFriendsBoard;
+import org.sidoh.wwf_api.types.api.GameState;
+import org.sidoh.wwf_api.types.game_state.Rack;
+import org.sidoh.wwf_api.types.game_state.Tile;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Measures how long generating all moves takes and how much it allocates. Moves are generated for both
+ * players' racks in each of the saved game states. Allocation is counted for the benchmarking thread
+ * with {@link com.sun.management.ThreadMXBean}, so it needs a JVM that supports it.
+ *
+ *   MoveGenerationBenchmark [game state directory] [GADDAG image]
+ */
+public class MoveGenerationBenchmark {
+  private static final GameStateHelper stateHelper = GameStateHelper.getInstance();
+  private static final int ROUNDS = 20;
+
+  public static void main(String[] args) throws IOException, TException {
+    File stateDir = new File(args.length > 0 ? args[0] : "src/resources/game_states");
+    TraversableGadDag gaddag = DictionaryHelper.loadGadDag(args.length > 1 ? args[1] : null);
+    GadDagWwfMoveGenerator generator = new GadDagWwfMoveGenerator(gaddag);
+
+    List<WordsWithFriendsBoard> boards = Lists.newArrayList();
+    List<Rack> racks = Lists.newArrayList();
+
+    for (File file : stateDir.listFiles()) {
+      GameState state = WordValidationBenchmark.loadGameState(file);
+      if (state == null) {
+        continue;
+      }
+
+      WordsWithFriendsBoard board = stateHelper.createBoardFromState(state);
+      for (List<Tile> tiles : state.getRacks().values()) {
+        boards.add(board);
+        racks.add(new Rack().setTiles(tiles).setCapacity(7));
+      }
+    }
+
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+
+    // Warm up
+    long numMoves = generate(generator, boards, racks);
+
+    long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+    long start = System.nanoTime();
+    for (int i = 0; i < ROUNDS; i++) {
+      if (generate(generator, boards, racks) != numMoves) {
+        throw new IllegalStateException("move generation isn't consistent");
+      }
+    }
+    double elapsed = (System.nanoTime() - start) / 1e6;
+    long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+    System.out.printf("%d racks, %d moves: %.1f ms/round, %d bytes allocated/move\n",
+      racks.size(), numMoves, elapsed / ROUNDS, numMoves == 0 ? 0 : allocated / (ROUNDS * numMoves));
+  }
+
+  /**
+   * @return number of moves generated
+   */
+  protected static long generate(GadDagWwfMoveGenerator generator, List<WordsWithFriendsBoard> boards, List<Rack> racks) {
+    long numMoves = 0;
+
+    for (int i = 0; i < boards.size(); i++) {
+      for (Move move : generator.generateAllMoves(racks.get(i), boards.get(i))) {
+        numMoves++;
+      }
+    }
+
+    return numMoves;
+  }
+}
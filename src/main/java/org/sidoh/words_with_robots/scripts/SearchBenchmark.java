@@ -0,0 +1,60 @@
+package org.sidoh.words_with_robots.scripts;
+
+import com.google.common.collect.Lists;
+import org.apache.thrift.TException;
+import org.sidoh.words_with_robots.data_structures.gaddag.TraversableGadDag;
+import org.sidoh.words_with_robots.move_generation.FixedDepthMoveGenerator;
+import org.sidoh.words_with_robots.move_generation.GadDagWwfMoveGenerator;
+import org.sidoh.words_with_robots.move_generation.params.FixedDepthParams;
+import org.sidoh.words_with_robots.util.dictionary.DictionaryHelper;
+import org.sidoh.wwf_api.types.api.GameState;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Measures how many positions a fixed-depth search looks at per second. Each of the saved game states is
+ * searched from the point of view of the player whose turn it is.
+ *
+ *   SearchBenchmark [depth] [branching factor limit] [game state directory] [GADDAG image]
+ */
+public class SearchBenchmark {
+  private static final int ROUNDS = 3;
+
+  public static void main(String[] args) throws IOException, TException {
+    int depth = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+    int branchingFactorLimit = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+    File stateDir = new File(args.length > 2 ? args[2] : "src/resources/game_states");
+    TraversableGadDag gaddag = DictionaryHelper.loadGadDag(args.length > 3 ? args[3] : null);
+    GadDagWwfMoveGenerator generator = new GadDagWwfMoveGenerator(gaddag);
+
+    List<GameState> states = Lists.newArrayList();
+    for (File file : stateDir.listFiles()) {
+      GameState state = WordValidationBenchmark.loadGameState(file);
+      if (state != null) {
+        states.add(state);
+      }
+    }
+
+    FixedDepthParams params = new FixedDepthParams();
+    params.setMaxDepth(depth);
+    params.setBranchingFactorLimit(branchingFactorLimit);
+
+    // The first round warms up
+    for (int round = 0; round <= ROUNDS; round++) {
+      long nodes = 0;
+      long start = System.nanoTime();
+
+      for (GameState state : states) {
+        nodes += new FixedDepthMoveGenerator(generator, params.deepCopy()).generateMove(state).getNodesSearched();
+      }
+
+      double elapsed = (System.nanoTime() - start) / 1e9;
+
+      if (round > 0) {
+        System.out.printf("%d states, %d nodes: %.2f s, %.0f nodes/s\n", states.size(), nodes, elapsed, nodes / elapsed);
+      }
+    }
+  }
+}
@@ -5,7 +5,6 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import org.apache.thrift.TException;
 import org.sidoh.words_with_robots.data_structures.CountingHashMap;
-import org.sidoh.words_with_robots.data_structures.gaddag.GadDag;
 import org.sidoh.words_with_robots.move_generation.AllMovesGenerator;
 import org.sidoh.words_with_robots.move_generation.GadDagWwfMoveGenerator;
 import org.sidoh.words_with_robots.util.dictionary.DictionaryHelper;
@@ -38,9 +37,7 @@ public class StatsCollector {
   private AllMovesGenerator<WordsWithFriendsBoard> moveGenerator;
 
   public StatsCollector() throws IOException {
-    GadDag dictionary = new GadDag();
-    dictionary.loadDictionary(DictionaryHelper.getDictionaryResource());
-    this.moveGenerator = new GadDagWwfMoveGenerator(dictionary);
+    this.moveGenerator = new GadDagWwfMoveGenerator(DictionaryHelper.loadGadDag());
   }
 
   public static class StatsEntry {
@@ -127,9 +124,7 @@ public class StatsCollector {
         board.scoreMove(move);
 
         List<Tile> rack = racks.get(currentUser.getId());
-        Iterable<Move> allMoves = moveGenerator.generateAllMoves(new Rack().setTiles(rack), board);
-
-        int moveRank =  moveGenerator.getMoveScoreRank(allMoves, move);
+        int moveRank = moveGenerator.getMoveScoreRank(new Rack().setTiles(rack), board, move);
 
         scores.increment(currentUser.getId(), move.getResult().getScore());
         if (currentUser.getId() == user.getId()) {
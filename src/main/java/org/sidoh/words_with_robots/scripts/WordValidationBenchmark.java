@@ -0,0 +1,174 @@
+package org.sidoh.words_with_robots.scripts;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+import org.apache.thrift.TDeserializer;
+import org.apache.thrift.TException;
+import org.apache.thrift.protocol.TJSONProtocol;
+import org.sidoh.words_with_robots.data_structures.PerfectHashWordSet;
+import org.sidoh.words_with_robots.data_structures.gaddag.TraversableGadDag;
+import org.sidoh.words_with_robots.move_generation.CrossChecks;
+import org.sidoh.words_with_robots.move_generation.GadDagWwfMoveGenerator;
+import org.sidoh.words_with_robots.util.dictionary.DictionaryHelper;
+import org.sidoh.wwf_api.game_state.GameStateHelper;
+import org.sidoh.wwf_api.game_state.Move;
+import org.sidoh.wwf_api.game_state.WordsWithFriendsBoard;
+import org.sidoh.wwf_api.types.api.GameState;
+import org.sidoh.wwf_api.types.game_state.Rack;
+import org.sidoh.wwf_api.types.game_state.Tile;
+import org.sidoh.wwf_api.util.ThriftSerializationHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * Compares how quickly the GADDAG and {@link PerfectHashWordSet} validate candidate moves. Candidates
+ * are the moves generated for both players' racks in each of the saved game states, and validating one
+ * checks its resulting words in order until one isn't in the dictionary, like isValidMove does.
+ *
+ *   WordValidationBenchmark [game state directory] [GADDAG image]
+ */
+public class WordValidationBenchmark {
+  private static final Logger LOG = LoggerFactory.getLogger(WordValidationBenchmark.class);
+  private static final GameStateHelper stateHelper = GameStateHelper.getInstance();
+  private static final int ROUNDS = 20;
+
+  public static void main(String[] args) throws IOException, TException {
+    File stateDir = new File(args.length > 0 ? args[0] : "src/resources/game_states");
+    final TraversableGadDag gaddag = DictionaryHelper.loadGadDag(args.length > 1 ? args[1] : null);
+
+    long start = System.currentTimeMillis();
+    final PerfectHashWordSet wordSet = PerfectHashWordSet.build(DictionaryHelper.getWords(gaddag));
+    System.out.printf("PerfectHashWordSet: %d words, built in %d ms, %d KB\n",
+      wordSet.size(), System.currentTimeMillis() - start, wordSet.getSizeInBytes() >> 10);
+
+    List<List<String>> candidates = Lists.newArrayList();
+    CandidateRecorder recorder = new CandidateRecorder(gaddag, candidates);
+
+    for (File file : stateDir.listFiles()) {
+      GameState state = loadGameState(file);
+      if (state == null) {
+        continue;
+      }
+
+      WordsWithFriendsBoard board = stateHelper.createBoardFromState(state);
+      for (List<Tile> tiles : state.getRacks().values()) {
+        for (Move move : recorder.generateAllMoves(new Rack().setTiles(tiles).setCapacity(7), board)) {
+          // Iterating is enough to validate every candidate
+        }
+      }
+    }
+
+    int numWords = 0;
+    for (List<String> words : candidates) {
+      numWords += words.size();
+    }
+    LOG.info("Recorded {} candidate moves with {} resulting words", candidates.size(), numWords);
+
+    benchmark("GADDAG", new Dictionary() {
+      @Override
+      public boolean isWord(String word) {
+        return gaddag.isWord(word);
+      }
+    }, candidates);
+
+    benchmark("PerfectHashWordSet", new Dictionary() {
+      @Override
+      public boolean isWord(String word) {
+        return wordSet.isWord(word);
+      }
+    }, candidates);
+  }
+
+  protected static void benchmark(String name, Dictionary dictionary, List<List<String>> candidates) {
+    // Warm up
+    int valid = validate(dictionary, candidates);
+
+    long start = System.nanoTime();
+    for (int i = 0; i < ROUNDS; i++) {
+      if (validate(dictionary, candidates) != valid) {
+        throw new IllegalStateException(name + " isn't consistent");
+      }
+    }
+    double elapsed = (System.nanoTime() - start) / 1e9;
+
+    System.out.printf("%s: %d of %d candidates valid, %.0f moves validated/s\n",
+      name, valid, candidates.size(), (ROUNDS * candidates.size()) / elapsed);
+  }
+
+  /**
+   * @return number of valid candidates
+   */
+  protected static int validate(Dictionary dictionary, List<List<String>> candidates) {
+    int valid = 0;
+
+    for (List<String> words : candidates) {
+      boolean allWords = true;
+
+      for (String word : words) {
+        if (! dictionary.isWord(word)) {
+          allWords = false;
+          break;
+        }
+      }
+
+      if (allWords) {
+        valid++;
+      }
+    }
+
+    return valid;
+  }
+
+  protected static GameState loadGameState(File file) throws IOException, TException {
+    if (file.getName().endsWith(".bin")) {
+      return ThriftSerializationHelper.getInstance().deserialize(file, new GameState());
+    }
+    else if (file.getName().endsWith(".json")) {
+      GameState state = new GameState();
+      new TDeserializer(new TJSONProtocol.Factory())
+        .deserialize(state, Files.toString(file, Charset.forName("UTF-8")), "UTF-8");
+      return state;
+    }
+    else {
+      LOG.warn("Skipping {}: not a game state", file);
+      return null;
+    }
+  }
+
+  protected interface Dictionary {
+    public boolean isWord(String word);
+  }
+
+  /**
+   * Generates moves with the GADDAG without cross-checks and records the resulting words of every
+   * candidate it validates
+   */
+  protected static class CandidateRecorder extends GadDagWwfMoveGenerator {
+    private final List<List<String>> candidates;
+
+    public CandidateRecorder(TraversableGadDag gaddag, List<List<String>> candidates) {
+      super(gaddag);
+      this.candidates = candidates;
+    }
+
+    @Override
+    protected CrossChecks getCrossChecks(TraversableGadDag gaddag, WordsWithFriendsBoard board) {
+      return CrossChecks.allowAll(gaddag, board);
+    }
+
+    @Override
+    protected boolean isValidMove(TraversableGadDag gaddag, WordsWithFriendsBoard board, Move move) {
+      if (move.getResult() == null) {
+        board.scoreMove(move);
+      }
+      candidates.add(move.getResult().getResultingWords());
+
+      return super.isValidMove(gaddag, board, move);
+    }
+  }
+}
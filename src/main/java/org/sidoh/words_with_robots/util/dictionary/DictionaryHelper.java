@@ -1,9 +1,19 @@
 package org.sidoh.words_with_robots.util.dictionary;
 
+import org.sidoh.words_with_robots.data_structures.gaddag.ByteBufferGadDag;
+import org.sidoh.words_with_robots.data_structures.gaddag.FrozenGadDag;
+import org.sidoh.words_with_robots.data_structures.gaddag.GadDag;
+import org.sidoh.words_with_robots.data_structures.gaddag.ParallelGadDagBuilder;
+import org.sidoh.words_with_robots.data_structures.gaddag.TraversableGadDag;
+
+import java.io.File;
+import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.zip.GZIPInputStream;
 
 public class DictionaryHelper {
@@ -17,4 +27,107 @@ public class DictionaryHelper {
       throw new RuntimeException(e);
     }
   }
+
+  /**
+   * Builds a GADDAG from the bundled dictionary and moves it off-heap.
+   *
+   * @return
+   * @throws IOException
+   */
+  public static TraversableGadDag loadGadDag() throws IOException {
+    return ByteBufferGadDag.allocateDirect(buildGadDag(getDictionaryResource()));
+  }
+
+  /**
+   * Loads the bundled dictionary. If an image path is provided, the GADDAG is mapped from it instead.
+   *
+   * @param imagePath path to a GADDAG image written by GadDagLoader. Can be null.
+   * @return
+   * @throws IOException
+   */
+  public static TraversableGadDag loadGadDag(String imagePath) throws IOException {
+    if (imagePath != null) {
+      return ByteBufferGadDag.map(new File(imagePath));
+    }
+    else {
+      return loadGadDag();
+    }
+  }
+
+  /**
+   * Loads a dictionary from a file, which can either be a word list or a GADDAG image.
+   *
+   * @param file
+   * @return
+   * @throws IOException
+   */
+  public static TraversableGadDag loadGadDag(File file) throws IOException {
+    if (ByteBufferGadDag.isImage(file)) {
+      return ByteBufferGadDag.map(file);
+    }
+    else {
+      return ByteBufferGadDag.allocateDirect(buildGadDag(new FileReader(file)));
+    }
+  }
+
+  /**
+   * Builds a GADDAG from a word list using all available cores and freezes it.
+   *
+   * @param reader
+   * @return
+   * @throws IOException
+   */
+  public static FrozenGadDag buildGadDag(Reader reader) throws IOException {
+    try {
+      return new FrozenGadDag(new ParallelGadDagBuilder().build(reader));
+    }
+    finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * Lists the words in a GADDAG. Every word has a path that starts with its first letter followed by
+   * the concatenation operator, so walking everything below those arcs finds each word exactly once.
+   *
+   * @param gaddag
+   * @return the words, sorted
+   */
+  public static SortedSet<String> getWords(TraversableGadDag gaddag) {
+    SortedSet<String> words = new TreeSet<String>();
+    StringBuilder prefix = new StringBuilder();
+
+    for (char letter = 'A'; letter <= 'Z'; letter++) {
+      int arc = gaddag.nextArc(gaddag.getInitArc(), letter);
+
+      if (arc != TraversableGadDag.NULL_ARC) {
+        arc = gaddag.nextArc(arc, GadDag.CONCAT_OPERATOR);
+      }
+
+      if (arc != TraversableGadDag.NULL_ARC) {
+        prefix.append(letter);
+        addWords(gaddag, arc, prefix, words);
+        prefix.setLength(0);
+      }
+    }
+
+    return words;
+  }
+
+  private static void addWords(TraversableGadDag gaddag, int arc, StringBuilder prefix, SortedSet<String> words) {
+    for (char letter = 'A'; letter <= 'Z'; letter++) {
+      prefix.append(letter);
+
+      if (gaddag.hasWordLetter(arc, letter)) {
+        words.add(prefix.toString());
+      }
+
+      int next = gaddag.nextArc(arc, letter);
+      if (next != TraversableGadDag.NULL_ARC) {
+        addWords(gaddag, next, prefix, words);
+      }
+
+      prefix.setLength(prefix.length() - 1);
+    }
+  }
 }
@@ -0,0 +1,237 @@
+package org.sidoh.words_with_robots.util.dictionary;
+
+import com.google.common.collect.Sets;
+import org.sidoh.words_with_robots.data_structures.PerfectHashWordSet;
+import org.sidoh.words_with_robots.data_structures.gaddag.ByteBufferGadDag;
+import org.sidoh.words_with_robots.data_structures.gaddag.GadDag;
+import org.sidoh.words_with_robots.data_structures.gaddag.TraversableGadDag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the dictionary as an immutable GADDAG snapshot that can be replaced while it's in use.
+ *
+ * Words are added and removed in batches. Changes are queued and a background thread rebuilds the
+ * GADDAG with all of the changes queued so far, then swaps the new snapshot in. Readers never block:
+ * {@link #getSnapshot()} returns whatever snapshot is current, and anything already traversing the
+ * old one keeps using it until it's done. Arc handles are only valid within the snapshot that produced
+ * them, so a traversal should get the snapshot once and stick with it.
+ *
+ * Each snapshot also has a {@link PerfectHashWordSet} with the same words for validating moves, which
+ * is swapped along with the GADDAG. It's only built the first time it's needed: moves generated with
+ * exact cross-checks never have to be validated, so usually it isn't.
+ */
+public class DictionaryService {
+  private static final Logger LOG = LoggerFactory.getLogger(DictionaryService.class);
+
+  private final AtomicReference<Snapshot> snapshot;
+
+  // Changes that haven't made it into a snapshot yet. Guarded by this.
+  private final Set<String> pendingAdditions = Sets.newHashSet();
+  private final Set<String> pendingRemovals = Sets.newHashSet();
+  private ExecutorService rebuildExecutor;
+
+  public DictionaryService(TraversableGadDag dictionary) {
+    this.snapshot = new AtomicReference<Snapshot>(new Snapshot(dictionary));
+  }
+
+  /**
+   * @return the current dictionary snapshot. Never changes underneath the caller.
+   */
+  public TraversableGadDag getSnapshot() {
+    return snapshot.get().gaddag;
+  }
+
+  /**
+   * @return a word set with the same words as the current snapshot. It's built on the first call for
+   *   each snapshot.
+   */
+  public PerfectHashWordSet getWordSet() {
+    return snapshot.get().getWordSet();
+  }
+
+  /**
+   * Checks a word against a snapshot that may since have been swapped out, so that moves are validated
+   * with the same words they were generated from.
+   *
+   * @param gaddag a snapshot returned by {@link #getSnapshot()}
+   * @param word
+   * @return true if the word is in the snapshot. If it's still current, its word set is used; otherwise
+   *   the GADDAG itself is searched.
+   */
+  public boolean isWord(TraversableGadDag gaddag, String word) {
+    Snapshot current = snapshot.get();
+
+    return current.gaddag == gaddag ? current.getWordSet().isWord(word) : gaddag.isWord(word);
+  }
+
+  /**
+   * @param words
+   * @return future for the snapshot that includes the additions
+   */
+  public Future<TraversableGadDag> addWords(Collection<String> words) {
+    return update(words, Collections.<String>emptySet());
+  }
+
+  /**
+   * @param words
+   * @return future for the snapshot that no longer has the provided words
+   */
+  public Future<TraversableGadDag> removeWords(Collection<String> words) {
+    return update(Collections.<String>emptySet(), words);
+  }
+
+  /**
+   * Queue a batch of changes. If there's already a rebuild running, the changes go into the one after
+   * it, along with anything else queued in the meantime.
+   *
+   * @param additions words to add
+   * @param removals words to remove
+   * @return future for the snapshot that includes the changes
+   */
+  public synchronized Future<TraversableGadDag> update(Collection<String> additions, Collection<String> removals) {
+    for (String word : additions) {
+      String normalized = normalize(word);
+      pendingRemovals.remove(normalized);
+      pendingAdditions.add(normalized);
+    }
+
+    for (String word : removals) {
+      String normalized = normalize(word);
+      pendingAdditions.remove(normalized);
+      pendingRemovals.add(normalized);
+    }
+
+    return getRebuildExecutor().submit(new Callable<TraversableGadDag>() {
+      @Override
+      public TraversableGadDag call() throws IOException {
+        return rebuild();
+      }
+    });
+  }
+
+  /**
+   * Stops the background thread. Changes that haven't been applied yet are dropped.
+   */
+  public synchronized void shutdown() {
+    if (rebuildExecutor != null) {
+      rebuildExecutor.shutdownNow();
+      rebuildExecutor = null;
+    }
+  }
+
+  /**
+   * Applies all of the pending changes to the current snapshot and swaps in the result.
+   *
+   * @return the current snapshot after the rebuild
+   * @throws IOException
+   */
+  protected TraversableGadDag rebuild() throws IOException {
+    Set<String> additions;
+    Set<String> removals;
+
+    synchronized (this) {
+      // An earlier rebuild already picked up everything queued
+      if (pendingAdditions.isEmpty() && pendingRemovals.isEmpty()) {
+        return getSnapshot();
+      }
+
+      additions = Sets.newHashSet(pendingAdditions);
+      removals = Sets.newHashSet(pendingRemovals);
+      pendingAdditions.clear();
+      pendingRemovals.clear();
+    }
+
+    long start = System.currentTimeMillis();
+    SortedSet<String> words = DictionaryHelper.getWords(getSnapshot());
+    int size = words.size();
+
+    words.removeAll(removals);
+    words.addAll(additions);
+
+    StringBuilder wordList = new StringBuilder();
+    for (String word : words) {
+      wordList.append(word).append('\n');
+    }
+
+    TraversableGadDag updated = ByteBufferGadDag.allocateDirect(
+      DictionaryHelper.buildGadDag(new StringReader(wordList.toString())));
+    snapshot.set(new Snapshot(updated));
+
+    LOG.info("Swapped in new dictionary snapshot with {} words ({} before) in {} ms",
+      words.size(), size, System.currentTimeMillis() - start);
+
+    return updated;
+  }
+
+  private synchronized ExecutorService getRebuildExecutor() {
+    if (rebuildExecutor == null) {
+      rebuildExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable, DictionaryService.class.getSimpleName());
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+    }
+    return rebuildExecutor;
+  }
+
+  private static String normalize(String word) {
+    String normalized = word.toUpperCase();
+
+    if (normalized.length() < 2) {
+      throw new IllegalArgumentException("Words need at least two letters: " + word);
+    }
+
+    for (int i = 0; i < normalized.length(); i++) {
+      char letter = normalized.charAt(i);
+      if (letter < 'A' || letter >= GadDag.CONCAT_OPERATOR) {
+        throw new IllegalArgumentException("Unsupported letter in word: " + word);
+      }
+    }
+
+    return normalized;
+  }
+
+  /**
+   * A GADDAG and the word set for the same words, which is built when it's first asked for
+   */
+  private static class Snapshot {
+    private final TraversableGadDag gaddag;
+    private volatile PerfectHashWordSet wordSet;
+
+    public Snapshot(TraversableGadDag gaddag) {
+      this.gaddag = gaddag;
+    }
+
+    public PerfectHashWordSet getWordSet() {
+      PerfectHashWordSet words = wordSet;
+
+      if (words == null) {
+        synchronized (this) {
+          if (wordSet == null) {
+            wordSet = PerfectHashWordSet.build(DictionaryHelper.getWords(gaddag));
+          }
+          words = wordSet;
+        }
+      }
+
+      return words;
+    }
+  }
+}
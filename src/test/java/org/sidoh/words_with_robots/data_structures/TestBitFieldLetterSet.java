@@ -5,6 +5,7 @@ import org.junit.Test;
 
 import java.util.Set;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -42,4 +43,21 @@ public class TestBitFieldLetterSet {
       }
     }
   }
+
+  @Test
+  public void testRank() {
+    BitFieldLetterSet set = new BitFieldLetterSet();
+
+    String lettersToAdd = "QBZAM";
+    for (int i = 0; i < lettersToAdd.length(); i++) {
+      set.add(lettersToAdd.charAt(i));
+    }
+
+    assertEquals(0, set.rank('A'));
+    assertEquals(1, set.rank('B'));
+    assertEquals(2, set.rank('C'));
+    assertEquals(2, set.rank('M'));
+    assertEquals(3, set.rank('Q'));
+    assertEquals(4, set.rank('Z'));
+  }
 }
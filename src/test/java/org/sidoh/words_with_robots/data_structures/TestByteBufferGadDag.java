@@ -0,0 +1,100 @@
+package org.sidoh.words_with_robots.data_structures;
+
+import junit.framework.TestCase;
+import org.sidoh.words_with_robots.data_structures.gaddag.ByteBufferGadDag;
+import org.sidoh.words_with_robots.data_structures.gaddag.FrozenGadDag;
+import org.sidoh.words_with_robots.data_structures.gaddag.GadDag;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+public class TestByteBufferGadDag extends TestCase {
+  private static final List<String> WORDS = Arrays.asList(
+    "wonderful", "wonder", "whoistosay",
+    "woid", "void", "brain",
+    "brainy", "care", "careen", "ab"
+  );
+
+  public void testRoundTrip() throws IOException {
+    FrozenGadDag frozen = buildFrozenGadDag();
+    File file = File.createTempFile("gaddag", ".img");
+    file.deleteOnExit();
+
+    ByteBufferGadDag.write(frozen, file);
+    assertTrue("should recognize written image", ByteBufferGadDag.isImage(file));
+
+    ByteBufferGadDag mapped = ByteBufferGadDag.map(file);
+
+    assertTrue("mapped image should be off-heap", mapped.isDirect());
+    assertEquals(frozen.getNumStates(), mapped.getNumStates());
+    assertEquals(frozen.getNumArcs(), mapped.getNumArcs());
+
+    for (String word : WORDS) {
+      assertTrue("added word `" + word + "' should be in the dictionary",
+        mapped.isWord(word.toUpperCase()));
+    }
+
+    for (String word : Arrays.asList("wonderfu", "brainz", "ba", "careens", "oid")) {
+      assertFalse("`" + word + "' wasn't added and shouldn't be in the dictionary",
+        mapped.isWord(word.toUpperCase()));
+    }
+  }
+
+  public void testAllocateDirect() {
+    FrozenGadDag frozen = buildFrozenGadDag();
+    ByteBufferGadDag direct = ByteBufferGadDag.allocateDirect(frozen);
+
+    assertTrue("should be off-heap", direct.isDirect());
+
+    for (String word : WORDS) {
+      assertTrue("added word `" + word + "' should be in the dictionary",
+        direct.isWord(word.toUpperCase()));
+    }
+    assertFalse(direct.isWord("BRAINZ"));
+  }
+
+  public void testCorruptImage() {
+    FrozenGadDag frozen = buildFrozenGadDag();
+    ByteBuffer image = ByteBufferGadDag.toImage(frozen, ByteBuffer.allocate(ByteBufferGadDag.getImageSize(frozen)));
+
+    // Flip a bit in the body
+    int last = image.limit() - 1;
+    image.put(last, (byte) (image.get(last) ^ 1));
+
+    try {
+      new ByteBufferGadDag(image);
+      fail("should reject image with bad checksum");
+    }
+    catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  public void testWrongVersion() {
+    FrozenGadDag frozen = buildFrozenGadDag();
+    ByteBuffer image = ByteBufferGadDag.toImage(frozen, ByteBuffer.allocate(ByteBufferGadDag.getImageSize(frozen)));
+    image.putInt(4, ByteBufferGadDag.VERSION + 1);
+
+    try {
+      new ByteBufferGadDag(image);
+      fail("should reject image with unknown version");
+    }
+    catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  private static FrozenGadDag buildFrozenGadDag() {
+    GadDag gaddag = new GadDag();
+
+    for (String word : WORDS) {
+      gaddag.addWord(word.toUpperCase());
+    }
+    gaddag.compact();
+
+    return new FrozenGadDag(gaddag);
+  }
+}
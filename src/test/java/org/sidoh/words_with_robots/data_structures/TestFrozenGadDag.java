@@ -0,0 +1,86 @@
+package org.sidoh.words_with_robots.data_structures;
+
+import junit.framework.TestCase;
+import org.sidoh.words_with_robots.data_structures.gaddag.FrozenGadDag;
+import org.sidoh.words_with_robots.data_structures.gaddag.GadDag;
+import org.sidoh.words_with_robots.data_structures.gaddag.TraversableGadDag;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class TestFrozenGadDag extends TestCase {
+  private static final List<String> WORDS = Arrays.asList(
+    "wonderful", "wonder", "whoistosay",
+    "woid", "void", "brain",
+    "brainy", "care", "careen", "ab"
+  );
+
+  public void testDictionaryFunctionality() {
+    FrozenGadDag frozen = new FrozenGadDag(buildGadDag());
+
+    for (String word : WORDS) {
+      assertTrue("added word `" + word + "' should be in the dictionary",
+        frozen.isWord(word));
+    }
+
+    for (String word : Arrays.asList("wonderfu", "brainz", "ba", "careens", "oid")) {
+      assertFalse("`" + word + "' wasn't added and shouldn't be in the dictionary",
+        frozen.isWord(word));
+    }
+  }
+
+  public void testMatchesGadDag() {
+    GadDag gaddag = buildGadDag();
+    FrozenGadDag frozen = new FrozenGadDag(gaddag);
+
+    assertEquals("should have the same number of arcs",
+      gaddag.edgeSet().size(), frozen.getNumArcs());
+
+    for (String word : WORDS) {
+      assertSamePaths(gaddag, gaddag.getInitArc(), frozen, frozen.getInitArc(), word.toUpperCase());
+    }
+  }
+
+  public void testUnknownLetters() {
+    FrozenGadDag frozen = new FrozenGadDag(buildGadDag());
+
+    assertEquals(TraversableGadDag.NULL_ARC, frozen.nextArc(frozen.getInitArc(), '*'));
+    assertFalse(frozen.hasWordLetter(frozen.getInitArc(), '*'));
+  }
+
+  /**
+   * Walks the arcs for every suffix of the provided word in both GADDAGs and makes sure they agree on
+   * which arcs exist and which word letters they have.
+   */
+  private static void assertSamePaths(TraversableGadDag expected, int expectedArc, TraversableGadDag actual, int actualArc, String letters) {
+    for (int i = 0; i < letters.length(); i++) {
+      char letter = letters.charAt(i);
+
+      for (char c = 'A'; c <= GadDag.CONCAT_OPERATOR; c++) {
+        assertEquals("word letters should match",
+          expected.hasWordLetter(expectedArc, c), actual.hasWordLetter(actualArc, c));
+      }
+
+      expectedArc = expected.nextArc(expectedArc, letter);
+      actualArc = actual.nextArc(actualArc, letter);
+
+      assertEquals("arc for `" + letter + "' should exist in both or neither",
+        expectedArc == TraversableGadDag.NULL_ARC, actualArc == TraversableGadDag.NULL_ARC);
+
+      if (expectedArc == TraversableGadDag.NULL_ARC) {
+        return;
+      }
+    }
+  }
+
+  private static GadDag buildGadDag() {
+    GadDag gaddag = new GadDag();
+
+    for (String word : WORDS) {
+      gaddag.addWord(word.toUpperCase());
+    }
+    gaddag.compact();
+
+    return gaddag;
+  }
+}
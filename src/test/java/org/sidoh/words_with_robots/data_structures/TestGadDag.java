@@ -7,6 +7,7 @@ import org.jgrapht.ext.EdgeNameProvider;
 import org.jgrapht.ext.VertexNameProvider;
 import org.sidoh.words_with_robots.data_structures.gaddag.GadDag;
 import org.sidoh.words_with_robots.data_structures.gaddag.GadDagEdge;
+import org.sidoh.words_with_robots.data_structures.gaddag.TraversableGadDag;
 
 import java.io.*;
 import java.util.*;
@@ -38,6 +39,105 @@ public class TestGadDag extends TestCase {
     }
   }
 
+  public void testCompactedLookups() {
+    final GadDag gd = new GadDag();
+    List<String> words = Arrays.asList("WONDERFUL", "WONDER", "WOID", "VOID", "BRAIN", "BRAINY", "AB");
+
+    for (String word : words) {
+      gd.addWord(word);
+    }
+    gd.compact();
+
+    for (String word : words) {
+      assertTrue("added word `" + word + "' should be in the dictionary after compacting",
+              gd.isWord(word));
+    }
+
+    for (String word : Arrays.asList("WONDERS", "BRAINZ", "BA", "OID")) {
+      assertFalse("`" + word + "' wasn't added and shouldn't be in the dictionary",
+              gd.isWord(word));
+    }
+  }
+
+  public void testMinimize() {
+    List<String> words = Arrays.asList(
+            "WONDERFUL", "WONDER", "WHOISTOSAY",
+            "WOID", "VOID", "BRAIN", "BRAINY",
+            "CARE", "CARES", "CARED", "BARE", "BARES", "BARED"
+    );
+    GadDag expected = new GadDag();
+    GadDag minimized = new GadDag();
+
+    for (String word : words) {
+      expected.addWord(word);
+      minimized.addWord(word);
+    }
+    expected.compact();
+    minimized.compact();
+    minimized.minimize();
+
+    assertTrue("should have fewer states", minimized.vertexSet().size() < expected.vertexSet().size());
+    assertTrue("should have fewer edges", minimized.edgeSet().size() < expected.edgeSet().size());
+
+    for (String word : words) {
+      assertTrue("added word `" + word + "' should be in the dictionary",
+              minimized.isWord(word));
+    }
+    assertFalse(minimized.isWord("CAREN"));
+    assertFalse(minimized.isWord("BARS"));
+
+    assertSameLanguage(expected, expected.getInitArc(), minimized, minimized.getInitArc());
+  }
+
+  public void testLoadMinimalDictionary() throws IOException {
+    List<String> words = Arrays.asList(
+            "WONDERFUL", "WONDER", "WHOISTOSAY",
+            "WOID", "VOID", "BRAIN", "BRAINY", "AB", "AA",
+            "CARE", "CARES", "CARED", "BARE", "BARES", "BARED", "BARE"
+    );
+    GadDag expected = new GadDag();
+    StringBuilder wordList = new StringBuilder();
+
+    for (String word : words) {
+      expected.addWord(word);
+      wordList.append(word).append('\n');
+    }
+    expected.compact();
+    expected.minimize();
+
+    GadDag loaded = new GadDag();
+    assertEquals(words.size(), loaded.loadMinimalDictionary(new StringReader(wordList.toString())));
+
+    assertEquals("should have the same number of states", expected.vertexSet().size(), loaded.vertexSet().size());
+    assertEquals("should have the same number of edges", expected.edgeSet().size(), loaded.edgeSet().size());
+    assertSameLanguage(expected, expected.getInitArc(), loaded, loaded.getInitArc());
+
+    for (String word : words) {
+      assertTrue("added word `" + word + "' should be in the dictionary",
+              loaded.isWord(word));
+    }
+  }
+
+  /**
+   * Walks every path from the provided arcs and makes sure the two GADDAGs agree on it.
+   */
+  private static void assertSameLanguage(TraversableGadDag expected, int expectedArc, TraversableGadDag actual, int actualArc) {
+    for (char c = 'A'; c <= GadDag.CONCAT_OPERATOR; c++) {
+      assertEquals("word letters should match",
+              expected.hasWordLetter(expectedArc, c), actual.hasWordLetter(actualArc, c));
+
+      int nextExpected = expected.nextArc(expectedArc, c);
+      int nextActual = actual.nextArc(actualArc, c);
+
+      assertEquals("arc for `" + c + "' should exist in both or neither",
+              nextExpected == TraversableGadDag.NULL_ARC, nextActual == TraversableGadDag.NULL_ARC);
+
+      if (nextExpected != TraversableGadDag.NULL_ARC) {
+        assertSameLanguage(expected, nextExpected, actual, nextActual);
+      }
+    }
+  }
+
   private static String byteToString(byte b) {
     return b == GadDag.CONCAT_OPERATOR ? "<>" : ((Character) (char) b).toString();
   }
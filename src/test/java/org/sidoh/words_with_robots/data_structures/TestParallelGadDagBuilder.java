@@ -0,0 +1,59 @@
+package org.sidoh.words_with_robots.data_structures;
+
+import junit.framework.TestCase;
+import org.sidoh.words_with_robots.data_structures.gaddag.FrozenGadDag;
+import org.sidoh.words_with_robots.data_structures.gaddag.GadDag;
+import org.sidoh.words_with_robots.data_structures.gaddag.ParallelGadDagBuilder;
+import org.sidoh.words_with_robots.data_structures.gaddag.TraversableGadDag;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class TestParallelGadDagBuilder extends TestCase {
+  private static final List<String> WORDS = Arrays.asList(
+    "WONDERFUL", "WONDER", "WHOISTOSAY",
+    "WOID", "VOID", "BRAIN",
+    "BRAINY", "CARE", "CAREEN", "AB",
+    "AA", "AAH", "ABBA", "ZZZ"
+  );
+
+  public void testMatchesSequentialBuild() {
+    GadDag sequential = new GadDag();
+    for (String word : WORDS) {
+      sequential.addWord(word);
+    }
+    sequential.compact();
+    sequential.minimize();
+
+    FrozenGadDag expected = new FrozenGadDag(sequential);
+
+    for (int threads = 1; threads <= 4; threads++) {
+      FrozenGadDag actual = new FrozenGadDag(new ParallelGadDagBuilder(threads).build(WORDS));
+
+      assertEquals("should have the same number of states", expected.getNumStates(), actual.getNumStates());
+      assertEquals("should have the same number of arcs", expected.getNumArcs(), actual.getNumArcs());
+
+      for (int arc = 0; arc < expected.getNumArcs(); arc++) {
+        assertEquals("arc targets should match", expected.getEdgeTarget(arc), actual.getEdgeTarget(arc));
+
+        for (char c = 'A'; c <= GadDag.CONCAT_OPERATOR; c++) {
+          assertEquals("word letters should match", expected.hasWordLetter(arc, c), actual.hasWordLetter(arc, c));
+          assertEquals("child arcs should match",
+            expected.nextArc(arc, c) == TraversableGadDag.NULL_ARC, actual.nextArc(arc, c) == TraversableGadDag.NULL_ARC);
+        }
+      }
+    }
+  }
+
+  public void testDictionaryFunctionality() {
+    GadDag gaddag = new ParallelGadDagBuilder(2).build(WORDS);
+
+    for (String word : WORDS) {
+      assertTrue("added word `" + word + "' should be in the dictionary", gaddag.isWord(word));
+    }
+
+    for (String word : Arrays.asList("WONDERFU", "BRAINZ", "BA", "CAREENS", "OID")) {
+      assertFalse("`" + word + "' wasn't added and shouldn't be in the dictionary", gaddag.isWord(word));
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package org.sidoh.words_with_robots.data_structures;
+
+import com.google.common.collect.Sets;
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class TestPerfectHashWordSet extends TestCase {
+  public void testSmallSet() {
+    List<String> words = Arrays.asList("wonderful", "wonder", "whoistosay", "woid", "void", "ab", "ab");
+    PerfectHashWordSet wordSet = PerfectHashWordSet.build(words);
+
+    assertEquals("duplicates should only be counted once", 6, wordSet.size());
+
+    for (String word : words) {
+      assertTrue("added word `" + word + "' should be in the set", wordSet.isWord(word.toUpperCase()));
+      assertTrue("lookups should be case insensitive", wordSet.isWord(word));
+    }
+
+    for (String word : Arrays.asList("wonderfu", "wonders", "ba", "", "a", "oid")) {
+      assertFalse("`" + word + "' wasn't added and shouldn't be in the set", wordSet.isWord(word));
+    }
+  }
+
+  public void testEmptySet() {
+    PerfectHashWordSet wordSet = PerfectHashWordSet.build(Collections.<String>emptyList());
+
+    assertEquals(0, wordSet.size());
+    assertFalse(wordSet.isWord("AB"));
+  }
+
+  public void testManyWords() {
+    Random random = new Random(0);
+    Set<String> words = Sets.newTreeSet();
+
+    while (words.size() < 20000) {
+      words.add(randomWord(random));
+    }
+
+    PerfectHashWordSet wordSet = PerfectHashWordSet.build(words);
+    assertEquals(words.size(), wordSet.size());
+
+    for (String word : words) {
+      assertTrue("added word `" + word + "' should be in the set", wordSet.isWord(word));
+    }
+
+    for (int i = 0; i < 20000; i++) {
+      String word = randomWord(random);
+      assertEquals(words.contains(word), wordSet.isWord(word));
+    }
+  }
+
+  private static String randomWord(Random random) {
+    StringBuilder word = new StringBuilder();
+    int length = 2 + random.nextInt(4);
+
+    for (int i = 0; i < length; i++) {
+      word.append((char) ('A' + random.nextInt(26)));
+    }
+
+    return word.toString();
+  }
+}
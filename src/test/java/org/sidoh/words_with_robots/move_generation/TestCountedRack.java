@@ -0,0 +1,87 @@
+package org.sidoh.words_with_robots.move_generation;
+
+import org.junit.Test;
+import org.sidoh.words_with_robots.WordsWithRobotsTestCase;
+import org.sidoh.wwf_api.game_state.TileBuilder;
+import org.sidoh.wwf_api.game_state.WordsWithFriendsBoard;
+import org.sidoh.wwf_api.types.game_state.Letter;
+import org.sidoh.wwf_api.types.game_state.Rack;
+import org.sidoh.wwf_api.types.game_state.Tile;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+public class TestCountedRack extends WordsWithRobotsTestCase {
+  @Test
+  public void testTakeAndPutBack() {
+    Rack rack = buildRack("EEZ");
+    CountedRack tiles = new CountedRack(rack.getTiles());
+    int e = 'E' - 'A';
+    int z = 'Z' - 'A';
+
+    assertEquals(3, tiles.size());
+    assertTrue(tiles.has(e));
+    assertTrue(tiles.has(z));
+    assertFalse(tiles.has('A' - 'A'));
+
+    Tile first = tiles.take(e);
+    Tile second = tiles.take(e);
+    assertEquals("E", first.getLetter().getValue());
+    assertEquals("E", second.getLetter().getValue());
+    assertNotSame(first, second);
+    assertFalse(tiles.has(e));
+    assertEquals(1, tiles.size());
+
+    // The last tile taken is the first one handed out again
+    tiles.putBack(e);
+    assertSame(second, tiles.take(e));
+    tiles.putBack(e);
+    tiles.putBack(e);
+    assertEquals(3, tiles.size());
+    assertSame(first, tiles.take(e));
+  }
+
+  @Test
+  public void testBoundBlanksHaveTheirOwnSlot() {
+    Rack rack = buildRack("E");
+    Tile blank = TileBuilder.getTile("*");
+    blank.setLetter(new Letter().setValue("E"));
+    rack.addToTiles(blank);
+
+    CountedRack tiles = new CountedRack(rack.getTiles());
+    int e = 'E' - 'A';
+
+    assertTrue(tiles.has(e));
+    assertTrue(tiles.has(CountedRack.NUM_LETTERS + e));
+    assertEquals(e, CountedRack.getLetterIndex(CountedRack.NUM_LETTERS + e));
+    assertSame(blank, tiles.take(CountedRack.NUM_LETTERS + e));
+    assertFalse(tiles.has(CountedRack.NUM_LETTERS + e));
+    assertTrue(tiles.has(e));
+  }
+
+  @Test
+  public void testTakeBlank() {
+    Rack rack = buildRack("*E");
+    CountedRack tiles = new CountedRack(rack.getTiles());
+    int e = 'E' - 'A';
+    int q = 'Q' - 'A';
+
+    assertTrue(tiles.has(CountedRack.BLANK_SLOT));
+    assertFalse(tiles.has(CountedRack.NUM_LETTERS + e));
+
+    Tile blank = tiles.takeBlank(q);
+    assertEquals("Q", blank.getLetter().getValue());
+    assertEquals(0, blank.getValue());
+    assertFalse(tiles.has(CountedRack.BLANK_SLOT));
+    assertEquals(1, tiles.size());
+
+    // The rack's blank isn't bound itself, and binding it again gives the same copy
+    tiles.putBack(CountedRack.BLANK_SLOT);
+    assertEquals(WordsWithFriendsBoard.BLANK_LETTER, tiles.take(CountedRack.BLANK_SLOT).getLetter().getValue());
+    tiles.putBack(CountedRack.BLANK_SLOT);
+    assertSame(blank, tiles.takeBlank(q));
+  }
+}
@@ -0,0 +1,144 @@
+package org.sidoh.words_with_robots.move_generation;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.Test;
+import org.sidoh.words_with_robots.WordsWithRobotsTestCase;
+import org.sidoh.words_with_robots.data_structures.gaddag.GadDag;
+import org.sidoh.words_with_robots.data_structures.gaddag.TraversableGadDag;
+import org.sidoh.wwf_api.game_state.Move;
+import org.sidoh.wwf_api.game_state.WordsWithFriendsBoard;
+import org.sidoh.wwf_api.types.game_state.Rack;
+import org.sidoh.wwf_api.types.game_state.WordOrientation;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+public class TestCrossChecks extends WordsWithRobotsTestCase {
+  /**
+   *
+   *           A_T
+   *
+   */
+  @Test
+  public void testAllowedLetters() {
+    WordsWithFriendsBoard board = new WordsWithFriendsBoard();
+    GadDag gaddag = buildGadDag("ACT", "ANT", "ART", "AT", "AB", "TA");
+
+    playWord(board, 7, 7, "A", WordOrientation.HORIZONTAL, true);
+    playWord(board, 7, 9, "T", WordOrientation.HORIZONTAL, true);
+
+    CrossChecks crossChecks = CrossChecks.compute(gaddag, board);
+    assertTrue(crossChecks.isExact());
+
+    // Between the two tiles, vertical plays form A?T across
+    assertEquals(letters("CNR"), crossChecks.getAllowedLetters(WordOrientation.VERTICAL)[index(7, 8)]);
+
+    // Horizontal plays there only form a word with the tiles above and below, and there aren't any
+    assertEquals(CrossChecks.ALL_LETTERS, crossChecks.getAllowedLetters(WordOrientation.HORIZONTAL)[index(7, 8)]);
+
+    // Below the A, horizontal plays form A? down
+    assertEquals(letters("BT"), crossChecks.getAllowedLetters(WordOrientation.HORIZONTAL)[index(8, 7)]);
+
+    // Above the T, horizontal plays form ?T down
+    assertEquals(letters("A"), crossChecks.getAllowedLetters(WordOrientation.HORIZONTAL)[index(6, 9)]);
+    assertTrue(crossChecks.isAllowed(index(6, 9), WordOrientation.HORIZONTAL, 'A'));
+    assertFalse(crossChecks.isAllowed(index(6, 9), WordOrientation.HORIZONTAL, 'B'));
+
+    // After the T, vertical plays form T? across
+    assertEquals(letters("A"), crossChecks.getAllowedLetters(WordOrientation.VERTICAL)[index(7, 10)]);
+
+    // Before the A, vertical plays form ?A across
+    assertEquals(letters("T"), crossChecks.getAllowedLetters(WordOrientation.VERTICAL)[index(7, 6)]);
+
+    assertEquals(CrossChecks.ALL_LETTERS, crossChecks.getAllowedLetters(WordOrientation.VERTICAL)[index(0, 0)]);
+  }
+
+  @Test
+  public void testMatchesValidatedMoves() {
+    WordsWithFriendsBoard board = new WordsWithFriendsBoard();
+    GadDag gaddag = buildGadDag("HADOOPY", "BOOPY", "AB", "DO", "OO", "OP", "PY", "BOP", "YO", "HOP", "OH", "HA");
+
+    playWord(board, 7, 7, "HADOOPY", WordOrientation.HORIZONTAL, true);
+
+    GadDagWwfMoveGenerator unchecked = new GadDagWwfMoveGenerator(gaddag) {
+      @Override
+      protected CrossChecks getCrossChecks(TraversableGadDag gaddag, WordsWithFriendsBoard board) {
+        return CrossChecks.allowAll(gaddag, board);
+      }
+    };
+    GadDagWwfMoveGenerator checked = new GadDagWwfMoveGenerator(gaddag);
+
+    Rack rack = buildRack("BOOPYH");
+    Set<Move> expected = Sets.newHashSet(unchecked.generateAllMoves(rack, board));
+    Set<Move> actual = Sets.newHashSet(checked.generateAllMoves(rack, board));
+
+    assertFalse(expected.isEmpty());
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void testUpdateAndRollback() {
+    WordsWithFriendsBoard board = new WordsWithFriendsBoard();
+    GadDag gaddag = buildGadDag("HADOOPY", "BOOPY", "AB", "DO", "OO", "OP", "PY", "BOP", "YO", "HOP", "OH", "HA");
+    GadDagWwfMoveGenerator generator = new GadDagWwfMoveGenerator(gaddag);
+
+    playWord(board, 7, 7, "HADOOPY", WordOrientation.HORIZONTAL, true);
+    CrossChecks crossChecks = CrossChecks.compute(gaddag, board);
+    List<WordsWithFriendsBoard> boards = Lists.newArrayList(board.clone());
+
+    for (String letters : new String[] { "BOOPYH", "BOOPYH", "HOPAB" }) {
+      List<Move> moves = Lists.newArrayList(generator.generateAllMoves(buildRack(letters), board, crossChecks));
+      assertFalse(moves.isEmpty());
+
+      // Each move should give the same cross-checks as computing them from scratch, and rolling it
+      // back should restore the ones before it
+      for (Move move : moves) {
+        WordsWithFriendsBoard updated = board.clone();
+        updated.move(move);
+
+        crossChecks.update(updated, move);
+        assertSameCrossChecks(CrossChecks.compute(gaddag, updated), crossChecks);
+
+        crossChecks.rollback();
+        assertSameCrossChecks(CrossChecks.compute(gaddag, board), crossChecks);
+      }
+
+      board.move(moves.get(0));
+      crossChecks.update(board, moves.get(0));
+      boards.add(board.clone());
+    }
+
+    for (int i = boards.size() - 2; i >= 0; i--) {
+      crossChecks.rollback();
+      assertSameCrossChecks(CrossChecks.compute(gaddag, boards.get(i)), crossChecks);
+    }
+  }
+
+  private static void assertSameCrossChecks(CrossChecks expected, CrossChecks actual) {
+    for (WordOrientation orientation : WordOrientation.values()) {
+      assertTrue(Arrays.equals(expected.getAllowedLetters(orientation), actual.getAllowedLetters(orientation)));
+    }
+
+    for (int index = 0; index < WordsWithFriendsBoard.DIMENSIONS * WordsWithFriendsBoard.DIMENSIONS; index++) {
+      assertEquals(expected.isAnchor(index), actual.isAnchor(index));
+    }
+  }
+
+  private static int index(int row, int col) {
+    return row * WordsWithFriendsBoard.DIMENSIONS + col;
+  }
+
+  private static int letters(String letters) {
+    int mask = 0;
+    for (int i = 0; i < letters.length(); i++) {
+      mask |= CrossChecks.getLetterBit(letters.charAt(i));
+    }
+    return mask;
+  }
+}
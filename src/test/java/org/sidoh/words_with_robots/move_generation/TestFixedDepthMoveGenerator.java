@@ -1,28 +1,146 @@
 package org.sidoh.words_with_robots.move_generation;
 
+import com.google.common.collect.Sets;
 import org.apache.thrift.TException;
+import org.junit.Test;
 import org.sidoh.words_with_robots.WordsWithRobotsTestCase;
 import org.sidoh.words_with_robots.data_structures.gaddag.GadDag;
+import org.sidoh.words_with_robots.move_generation.params.FixedDepthParams;
+import org.sidoh.words_with_robots.util.dictionary.DictionaryHelper;
 import org.sidoh.wwf_api.game_state.Move;
 import org.sidoh.wwf_api.game_state.WordsWithFriendsBoard;
 import org.sidoh.wwf_api.types.api.GameState;
 import org.sidoh.wwf_api.types.game_state.Rack;
 import org.sidoh.wwf_api.types.game_state.WordOrientation;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertTrue;
 
 public class TestFixedDepthMoveGenerator extends WordsWithRobotsTestCase {
+  @Test
   public void testItsDaMan() throws IOException, TException {
+    assertEquals("TUB", playItsDaMan(new FixedDepthParams()));
+  }
+
+  @Test
+  public void testSearchThreads() throws IOException, TException {
+    // Splitting the search up among threads shouldn't change what it finds
+    FixedDepthParams params = new FixedDepthParams();
+    params.setSearchThreads(4);
+
+    assertEquals("TUB", playItsDaMan(params));
+  }
+
+  @Test
+  public void testSearchThreadsBelowRoot() throws IOException, TException {
+    // Deeper searches split nodes below the root too. They should still come up with the same value.
     GameState state = loadGameState("TestFixedDepthMoveGenerator.testItsdaman.bin");
+    GadDagWwfMoveGenerator allMovesGenerator = new GadDagWwfMoveGenerator(buildShortWordGadDag(5));
+    ExecutorService helpers = Executors.newFixedThreadPool(3);
+
+    try {
+      for (int depth = 3; depth <= 4; depth++) {
+        assertEquals("value at depth " + depth,
+          searchValue(allMovesGenerator, state, depth, 1, null),
+          searchValue(allMovesGenerator, state, depth, 4, helpers),
+          0);
+      }
+    }
+    finally {
+      helpers.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testPerturbedMoveOrder() {
+    // The hash move still goes first, and the same moves are tried, just in a different order
+    Set<Integer> tried = Sets.newHashSet();
+    assertEquals(3, FixedDepthMoveGenerator.getMoveIndex(0, 3, 5, 2));
+    for (int i = 0; i < 5; i++) {
+      tried.add(FixedDepthMoveGenerator.getMoveIndex(i, 3, 5, 2));
+    }
+    assertEquals(Sets.newHashSet(0, 1, 2, 3, 4), tried);
+    assertTrue(FixedDepthMoveGenerator.getMoveIndex(1, 3, 5, 2) != FixedDepthMoveGenerator.getMoveIndex(1, 3));
+
+    // Moves past the ones that would be considered aren't moved
+    assertEquals(5, FixedDepthMoveGenerator.getMoveIndex(5, 3, 5, 2));
+  }
+
+  /**
+   * Building the whole dictionary takes too long for a test. Short words still leave plenty of moves.
+   *
+   * @param maxLength
+   * @return
+   * @throws IOException
+   */
+  private static GadDag buildShortWordGadDag(int maxLength) throws IOException {
+    BufferedReader reader = new BufferedReader(DictionaryHelper.getDictionaryResource());
+    GadDag gaddag = new GadDag();
+
+    try {
+      for (String word = reader.readLine(); word != null; word = reader.readLine()) {
+        if ( word.length() <= maxLength ) {
+          gaddag.addWord(word);
+        }
+      }
+    }
+    finally {
+      reader.close();
+    }
+
+    return gaddag;
+  }
+
+  private static double searchValue(GadDagWwfMoveGenerator allMovesGenerator,
+    GameState state,
+    int depth,
+    int searchThreads,
+    ExecutorService helpers) {
+    FixedDepthParams params = new FixedDepthParams();
+    params.setMaxDepth(depth);
+    params.setBranchingFactorLimit(8);
+    params.setSearchThreads(searchThreads);
+    FixedDepthMoveGenerator moveGenerator = new FixedDepthMoveGenerator(allMovesGenerator, params);
+
+    SearchState searchState = new SearchState(state);
+    searchState.setCrossChecks(allMovesGenerator.getCrossChecks(searchState.getBoard()));
+    FixedDepthMoveGenerator.SearchContext search =
+      new FixedDepthMoveGenerator.SearchContext(searchState, new TranspositionTable(), helpers);
+
+    return moveGenerator.alphaBetaSearch(search, depth, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+  }
+
+  private String playItsDaMan(FixedDepthParams params) throws IOException, TException {
+    GameState state = loadItsDaMan();
 
     // Make sure that a lower scoring move is chosen if it means the score differential is
     // better
     GadDag dict = buildGadDag( "BT", "UT", "TUB", "TABARETS" );
     WordsWithFriendsAllMovesGenerator allMovesGenerator = new GadDagWwfMoveGenerator(dict);
-    FixedDepthMoveGenerator moveGenerator = new FixedDepthMoveGenerator(allMovesGenerator);
+    FixedDepthMoveGenerator moveGenerator = new FixedDepthMoveGenerator(allMovesGenerator, params);
+
+    Move move = moveGenerator.generateMove(state).getMove();
+
+    // Here, the move should be 'TUB' on the B in 'BIGOT'. This is a lower scoring move than
+    // the alternative, but it blocks the opponent from getting a very beneficial play by playing
+    // 'TABARETS' across the same B.
+    return move.getResult().getMainWord();
+  }
+
+  /**
+   * @return the position from testItsdaman.bin after a move that wasn't persisted in it, with the turn
+   *   given back to the player who made it
+   * @throws IOException
+   * @throws TException
+   */
+  static GameState loadItsDaMan() throws IOException, TException {
+    GameState state = loadGameState("TestFixedDepthMoveGenerator.testItsdaman.bin");
     WordsWithFriendsBoard board = stateHelper.createBoardFromState(state);
 
     // Play move that wasn't persisted in the state
@@ -38,25 +156,6 @@ public class TestFixedDepthMoveGenerator extends WordsWithRobotsTestCase {
     // Pretend it's our turn again
     state.getMeta().setCurrentMoveUserId(stateHelper.getOtherUser(state.getMeta().getCurrentMoveUserId(), state).getId());
 
-    Move move = moveGenerator.generateMove(state).getMove();
-    board.move(move);
-
-    // Here, the move should be 'TUB' on the B in 'BIGOT'. This is a lower scoring move than
-    // the alternative, but it blocks the opponent from getting a very beneficial play by playing
-    // 'TABARETS' across the same B.
-    assertEquals(move.getResult().getMainWord(), "TUB");
-  }
-
-  public void testUser() {
-    FixedDepthMoveGenerator.MinimaxPlayer player = new FixedDepthMoveGenerator.MinimaxPlayer(1, 2, 1, false);
-
-    assertTrue("Should be max", player.isMax());
-    assertEquals("Should have ID of first player", 1L, player.getUserId());
-    assertEquals("Other player ID should be second", 2L, player.getOtherUserId());
-
-    player = player.getOther();
-    assertTrue("Other should be min", player.isMin());
-    assertEquals("Other should have ID of second player", 2L, player.getUserId());
-    assertEquals("Other should have other ID of first player", 1L, player.getOtherUserId());
+    return state;
   }
 }
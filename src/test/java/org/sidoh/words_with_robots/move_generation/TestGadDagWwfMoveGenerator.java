@@ -1,5 +1,8 @@
 package org.sidoh.words_with_robots.move_generation;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.Test;
 import org.sidoh.words_with_robots.WordsWithRobotsTestCase;
 import org.sidoh.words_with_robots.data_structures.gaddag.GadDag;
 import org.sidoh.words_with_robots.move_generation.context.WwfMoveGeneratorReturnContext;
@@ -9,9 +12,16 @@ import org.sidoh.wwf_api.types.api.GameState;
 import org.sidoh.wwf_api.types.api.MoveData;
 import org.sidoh.wwf_api.types.api.User;
 import org.sidoh.wwf_api.types.game_state.Rack;
+import org.sidoh.wwf_api.types.game_state.Tile;
 import org.sidoh.wwf_api.types.game_state.WordOrientation;
 
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertNotNull;
 import static junit.framework.Assert.assertTrue;
 
@@ -22,6 +32,7 @@ public class TestGadDagWwfMoveGenerator extends WordsWithRobotsTestCase {
    *            BOOPY
    *
    */
+  @Test
   public void testPlayParallel() {
     WordsWithFriendsBoard board = new WordsWithFriendsBoard();
     GadDag gaddag = new GadDag();
@@ -44,6 +55,7 @@ public class TestGadDagWwfMoveGenerator extends WordsWithRobotsTestCase {
     assertEquals(expectedResult, generatedResult);
   }
 
+  @Test
   public void testDoubleBlank() {
     WordsWithFriendsBoard board = new WordsWithFriendsBoard();
     GadDag gaddag = new GadDag();
@@ -62,6 +74,7 @@ public class TestGadDagWwfMoveGenerator extends WordsWithRobotsTestCase {
       generatedResult.getMainWord());
   }
 
+  @Test
   public void testBlank() {
     WordsWithFriendsBoard board = new WordsWithFriendsBoard();
     GadDag gaddag = new GadDag();
@@ -81,6 +94,7 @@ public class TestGadDagWwfMoveGenerator extends WordsWithRobotsTestCase {
     assertEquals("FOOT", result.getResultingWords().get(0));
   }
 
+  @Test
   public void testIt() {
     WordsWithFriendsBoard board = new WordsWithFriendsBoard();
     GadDag gaddag = new GadDag();
@@ -103,6 +117,7 @@ public class TestGadDagWwfMoveGenerator extends WordsWithRobotsTestCase {
   B A T T L E
     L A
   */
+  @Test
   public void testMultiWord() {
     WordsWithFriendsBoard board = new WordsWithFriendsBoard();
     GadDag gaddag = new GadDag();
@@ -125,6 +140,7 @@ public class TestGadDagWwfMoveGenerator extends WordsWithRobotsTestCase {
     assertEquals("words should match", 2, result.getResultingWords().size());
   }
 
+  @Test
   public void testBoundary() {
     WordsWithFriendsBoard board =
       parseCsvBoard("null, null, null, null, null, null, null, null, null, null, null, s, null, null, null, null, null, null, null, null, null, null, null, null, null, null, h, null, null, null, null, null, null, null, null, null, null, null, null, null, null, o, null, null, null, null, null, null, null, null, null, null, null, null, null, null, v, o, l, t, null, null, null, null, null, null, null, null, null, null, null, e, null, null, r, null, null, null, null, null, null, null, null, null, null, null, null, null, w, e, null, null, null, null, null, null, null, null, l, null, null, null, null, r, e, null, null, null, null, null, null, null, g, o, d, null, h, e, a, d, null, null, null, null, null, null, null, null, p, u, c, e, null, n, null, null, null, null, null, null, null, null, j, null, p, null, h, u, g, s, null, null, null, null, null, null, v, a, t, s, null, null, null, null, o, null, null, null, null, null, null, null, b, e, null, null, null, null, null, f, null, null, null, null, null, null, null, null, e, null, r, e, f, i, t, null, null, null, null, null, null, null, null, null, t, a, x, e, s, null, null, null, null, null, null, null, null, null, null, null, t, null, null, null, null");
@@ -144,6 +160,7 @@ public class TestGadDagWwfMoveGenerator extends WordsWithRobotsTestCase {
     assertEquals(expectedResult, generatedResult);
   }
 
+  @Test
   public void testInitMove() {
     WordsWithFriendsBoard board = new WordsWithFriendsBoard();
     GadDag gaddag = new GadDag();
@@ -161,6 +178,7 @@ public class TestGadDagWwfMoveGenerator extends WordsWithRobotsTestCase {
     assertNotNull("should play on center square", board.getSlot(7,7).getTile());
   }
 
+  @Test
   public void testDianesBreakinIt() {
     WordsWithFriendsBoard board = new WordsWithFriendsBoard();
     GadDag gaddag = new GadDag();
@@ -181,6 +199,202 @@ public class TestGadDagWwfMoveGenerator extends WordsWithRobotsTestCase {
     assertResultEquals(90, board.move(gen.generateMove(rack, board).getMove()));
   }
 
+  @Test
+  public void testParallelMatchesSerial() {
+    WordsWithFriendsBoard board = new WordsWithFriendsBoard();
+    GadDag gaddag = buildGadDag("BATTLE", "REAL", "TA", "LA", "AB", "BAT", "TAB", "ALE", "LATE", "TALE", "BE");
+    GadDagWwfMoveGenerator gen = new GadDagWwfMoveGenerator(gaddag);
+
+    playWord(board, 7, 7, "BATTLE", WordOrientation.HORIZONTAL, true);
+    playWord(board, 5, 8, "REL", WordOrientation.VERTICAL, true);
+
+    Rack rack = buildRack("ABTLE*");
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    try {
+      List<Move> serial = Lists.newArrayList(gen.generateAllMoves(rack, board));
+      assertFalse(serial.isEmpty());
+
+      assertEquals(serial, gen.generateAllMoves(rack, board, executor));
+      assertEquals(serial, gen.generateAllMoves(rack, board, gen.getCrossChecks(board), executor));
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   *
+   *           ROB
+   *           A
+   *           TAB
+   *
+   */
+  @Test
+  public void testEachPlacementGeneratedOnce() {
+    WordsWithFriendsBoard board = new WordsWithFriendsBoard();
+    GadDag gaddag = buildGadDag("ROB", "RAT", "TAB", "BAT", "AB", "BA", "TA", "AT", "BOAT", "BOT", "OAT", "TO", "OB");
+    GadDagWwfMoveGenerator gen = new GadDagWwfMoveGenerator(gaddag);
+
+    playWord(board, 7, 7, "ROB", WordOrientation.HORIZONTAL, true);
+    playWord(board, 8, 7, "A", WordOrientation.VERTICAL, true);
+    playWord(board, 9, 7, "TAB", WordOrientation.HORIZONTAL, true);
+
+    Set<String> placements = Sets.newHashSet();
+    int numMoves = 0;
+
+    for (Move move : gen.generateAllMoves(buildRack("BOAT*"), board)) {
+      assertTrue("placement should only be generated once: " + move, placements.add(getPlacement(board, move)));
+      numMoves++;
+    }
+
+    assertTrue(numMoves > 0);
+  }
+
+  /**
+   *
+   *             N
+   *             O
+   *       SCORING
+   *
+   */
+  @Test
+  public void testPlayAgainstEdge() {
+    WordsWithFriendsBoard board = new WordsWithFriendsBoard();
+    GadDag gaddag = buildGadDag("SCORING", "NOG", "OOH", "ON");
+    GadDagWwfMoveGenerator gen = new GadDagWwfMoveGenerator(gaddag);
+
+    playWord(board, 7, 7, "SCORING", WordOrientation.HORIZONTAL, true);
+    playWord(board, 5, 13, "NO", WordOrientation.VERTICAL, true);
+
+    Set<String> placements = Sets.newHashSet();
+    for (Move move : gen.generateAllMoves(buildRack("OH"), board)) {
+      placements.add(getPlacement(board, move));
+    }
+
+    // OOH ends in the last column, with ON going down from the first O
+    assertTrue(placements.contains("6,12 O1 6,14 H3"));
+  }
+
+  @Test
+  public void testScoredMovesMatchBoard() {
+    WordsWithFriendsBoard board = new WordsWithFriendsBoard();
+    GadDag gaddag = buildGadDag("HADOOPY", "BOOPY", "AB", "DO", "OO", "OP", "PY", "HOOPY", "YO", "BY");
+    GadDagWwfMoveGenerator gen = new GadDagWwfMoveGenerator(gaddag);
+
+    // The first move uses every tile, so it gets the bonus
+    ScoredMoves firstMoves = gen.generateScoredMoves(buildRack("HADOOPY"), board, gen.getCrossChecks(board));
+    assertFalse(firstMoves.isEmpty());
+    assertScoresMatch(board, firstMoves);
+
+    playWord(board, 7, 7, "HADOOPY", WordOrientation.HORIZONTAL, true);
+
+    ScoredMoves moves = gen.generateScoredMoves(buildRack("BOOPY*"), board, gen.getCrossChecks(board));
+    assertFalse(moves.isEmpty());
+    assertScoresMatch(board, moves);
+
+    moves.sortByScore();
+    for (int i = 1; i < moves.size(); i++) {
+      assertTrue(moves.getScore(i - 1) >= moves.getScore(i));
+    }
+  }
+
+  @Test
+  public void testTopMovesMatchSortedMoves() {
+    WordsWithFriendsBoard board = new WordsWithFriendsBoard();
+    GadDag gaddag = buildGadDag("HADOOPY", "BOOPY", "AB", "DO", "OO", "OP", "PY", "HOOPY", "YO", "BY");
+    GadDagWwfMoveGenerator gen = new GadDagWwfMoveGenerator(gaddag);
+    playWord(board, 7, 7, "HADOOPY", WordOrientation.HORIZONTAL, true);
+
+    Rack rack = buildRack("BOOPY*");
+    CrossChecks crossChecks = gen.getCrossChecks(board);
+    ScoredMoves allMoves = gen.generateScoredMoves(rack, board, crossChecks);
+    allMoves.sortByScore();
+
+    for (int k : new int[] { 1, 5, allMoves.size() + 1 }) {
+      ScoredMoves topMoves = gen.generateTopMoves(rack, board, crossChecks, k);
+
+      assertEquals(Math.min(k, allMoves.size()), topMoves.size());
+      for (int i = 0; i < topMoves.size(); i++) {
+        assertEquals(allMoves.getPackedMove(i), topMoves.getPackedMove(i));
+        assertEquals(allMoves.getScore(i), topMoves.getScore(i));
+      }
+    }
+
+    List<Move> topMoves = gen.generateTopMoves(rack, board, 5);
+    assertEquals(5, topMoves.size());
+    for (int i = 0; i < topMoves.size(); i++) {
+      assertEquals(allMoves.getScore(i), topMoves.get(i).getResult().getScore());
+    }
+  }
+
+  @Test
+  public void testVisitorMatchesIterator() {
+    WordsWithFriendsBoard board = new WordsWithFriendsBoard();
+    GadDag gaddag = buildGadDag("HADOOPY", "BOOPY", "AB", "DO", "OO", "OP", "PY", "HOOPY", "YO", "BY");
+    GadDagWwfMoveGenerator gen = new GadDagWwfMoveGenerator(gaddag);
+    playWord(board, 7, 7, "HADOOPY", WordOrientation.HORIZONTAL, true);
+
+    Rack rack = buildRack("BOOPY*");
+    List<Move> expected = Lists.newArrayList(gen.generateAllMoves(rack, board));
+    final List<Move> visited = Lists.newArrayList();
+
+    assertTrue(gen.generateAllMoves(rack, board, new MoveVisitor() {
+      @Override
+      public boolean visit(Move move) {
+        assertNotNull(move.getResult());
+        return visited.add(move);
+      }
+    }));
+    assertEquals(expected, visited);
+
+    // Generation stops as soon as the visitor asks it to
+    visited.clear();
+    assertFalse(gen.generateAllMoves(rack, board, new MoveVisitor() {
+      @Override
+      public boolean visit(Move move) {
+        visited.add(move);
+        return visited.size() < 3;
+      }
+    }));
+    assertEquals(expected.subList(0, 3), visited);
+
+    for (Move move : expected) {
+      assertEquals(gen.getMoveScoreRank(expected, move), gen.getMoveScoreRank(rack, board, move));
+    }
+  }
+
+  protected static void assertScoresMatch(WordsWithFriendsBoard board, ScoredMoves moves) {
+    for (int i = 0; i < moves.size(); i++) {
+      Move move = moves.get(i);
+      assertEquals(getPlacement(board, move), board.scoreMove(move).getScore(), moves.getScore(i));
+    }
+  }
+
+  /**
+   * @return the squares a move places tiles on, and the letters it places on them
+   */
+  protected static String getPlacement(WordsWithFriendsBoard board, Move move) {
+    StringBuilder placement = new StringBuilder();
+    int row = move.getRow();
+    int col = move.getCol();
+
+    for (Tile tile : move.getTiles()) {
+      while (board.getSlot(row, col).getTile() != null) {
+        if (move.getOrientation() == WordOrientation.HORIZONTAL) col++; else row++;
+      }
+
+      if (placement.length() > 0) {
+        placement.append(' ');
+      }
+      placement.append(row).append(',').append(col).append(' ').append(tile.getLetter().getValue()).append(tile.getValue());
+
+      if (move.getOrientation() == WordOrientation.HORIZONTAL) col++; else row++;
+    }
+
+    return placement.toString();
+  }
+
   protected static void assertBestMoveGenerated(GameState state, MoveGenerator<WordsWithFriendsBoard, WwfMoveGeneratorReturnContext> moveGen) {
     User player1 = state.getMeta().getUsersById().get(state.getMeta().getCreatedByUserId());
     User player2 = stateHelper.getOtherUser(player1, state);
@@ -0,0 +1,35 @@
+package org.sidoh.words_with_robots.move_generation;
+
+import org.apache.thrift.TException;
+import org.junit.Test;
+import org.sidoh.words_with_robots.WordsWithRobotsTestCase;
+import org.sidoh.words_with_robots.data_structures.gaddag.GadDag;
+import org.sidoh.words_with_robots.move_generation.params.IterativeDeepeningParams;
+import org.sidoh.wwf_api.game_state.Move;
+import org.sidoh.wwf_api.types.api.GameState;
+
+import java.io.IOException;
+
+import static junit.framework.Assert.assertEquals;
+
+public class TestIterativeDeepeningMoveGenerator extends WordsWithRobotsTestCase {
+  @Test
+  public void testHelperThreads() throws IOException, TException {
+    // Helpers only fill in the transposition table, so they shouldn't change what the search finds
+    assertEquals(playItsDaMan(0), playItsDaMan(3));
+  }
+
+  private String playItsDaMan(int helperThreads) throws IOException, TException {
+    GameState state = TestFixedDepthMoveGenerator.loadItsDaMan();
+    GadDag dict = buildGadDag( "BT", "UT", "TUB", "TABARETS" );
+
+    // The search reaches the end of the game long before it runs out of time, so the move it returns
+    // doesn't depend on how fast it is
+    IterativeDeepeningMoveGenerator moveGenerator = new IterativeDeepeningMoveGenerator(new GadDagWwfMoveGenerator(dict))
+      .updateParam(IterativeDeepeningParams._Fields.MAX_EXECUTION_TIME, 60000L)
+      .updateParam(IterativeDeepeningParams._Fields.HELPER_THREADS, helperThreads);
+
+    Move move = moveGenerator.generateMove(state).getMove();
+    return move.getResult().getMainWord();
+  }
+}
@@ -0,0 +1,57 @@
+package org.sidoh.words_with_robots.move_generation;
+
+import org.junit.Test;
+import org.sidoh.words_with_robots.WordsWithRobotsTestCase;
+import org.sidoh.wwf_api.game_state.Move;
+import org.sidoh.wwf_api.game_state.WordsWithFriendsBoard;
+import org.sidoh.wwf_api.types.game_state.Rack;
+import org.sidoh.wwf_api.types.game_state.WordOrientation;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+public class TestPackedMoves extends WordsWithRobotsTestCase {
+  @Test
+  public void testPackAndUnpack() {
+    int q = 'Q' - 'A';
+    int z = 'Z' - 'A';
+
+    long tiles = PackedMoves.prependTile(PackedMoves.packTile(z, false), PackedMoves.packTile(q, true));
+    tiles = PackedMoves.appendTile(tiles, 2, PackedMoves.packTile(z, false));
+    long move = PackedMoves.pack(tiles, 3, 224, WordOrientation.VERTICAL);
+
+    assertEquals(3, PackedMoves.getNumTiles(move));
+    assertEquals(224, PackedMoves.getStart(move));
+    assertEquals(WordOrientation.VERTICAL, PackedMoves.getOrientation(move));
+    assertEquals(q, PackedMoves.getLetterIndex(move, 0));
+    assertTrue(PackedMoves.isBlank(move, 0));
+    assertEquals(z, PackedMoves.getLetterIndex(move, 1));
+    assertFalse(PackedMoves.isBlank(move, 1));
+    assertEquals(z, PackedMoves.getLetterIndex(move, 2));
+  }
+
+  @Test
+  public void testToMove() {
+    Rack rack = buildRack("ZZ*");
+    CountedRack tiles = new CountedRack(rack.getTiles());
+    int q = 'Q' - 'A';
+    int z = 'Z' - 'A';
+
+    long packed = PackedMoves.pack(
+      PackedMoves.appendTile(PackedMoves.packTile(z, false), 1, PackedMoves.packTile(q, true)),
+      2, 7 * WordsWithFriendsBoard.DIMENSIONS + 6, WordOrientation.HORIZONTAL);
+    Move move = PackedMoves.toMove(packed, tiles);
+
+    assertEquals(7, move.getRow());
+    assertEquals(6, move.getCol());
+    assertEquals(WordOrientation.HORIZONTAL, move.getOrientation());
+    assertEquals(2, move.getTiles().size());
+    assertEquals("Z", move.getTiles().get(0).getLetter().getValue());
+    assertEquals("Q", move.getTiles().get(1).getLetter().getValue());
+    assertEquals(0, move.getTiles().get(1).getValue());
+
+    // The rack gets its tiles back
+    assertEquals(3, tiles.size());
+  }
+}
@@ -0,0 +1,78 @@
+package org.sidoh.words_with_robots.move_generation;
+
+import com.google.common.collect.Lists;
+import org.apache.thrift.TException;
+import org.junit.Test;
+import org.sidoh.words_with_robots.WordsWithRobotsTestCase;
+import org.sidoh.wwf_api.game_state.Move;
+import org.sidoh.wwf_api.types.api.GameState;
+import org.sidoh.wwf_api.types.game_state.Rack;
+import org.sidoh.wwf_api.types.game_state.Tile;
+import org.sidoh.wwf_api.types.game_state.WordOrientation;
+
+import java.io.IOException;
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+
+public class TestSearchState extends WordsWithRobotsTestCase {
+  @Test
+  public void testMakeAndUndo() throws IOException, TException {
+    GameState state = loadGameState("TestFixedDepthMoveGenerator.testItsdaman.bin");
+    SearchState searchState = new SearchState(state);
+
+    int toMove = searchState.getToMove();
+    long hash = searchState.getHash();
+    List<Tile> rackTiles = Lists.newArrayList(searchState.getRack().getTiles());
+    int score = searchState.getScore(toMove);
+
+    Rack rack = new Rack().setTiles(state.getRacks().get(state.getMeta().getCurrentMoveUserId()));
+    Move move = Move.play(getWordTilesFromRack(rack, "BIGO"), 0, 9, WordOrientation.VERTICAL);
+    searchState.makeMove(move);
+
+    // The same as building the state after the move from scratch
+    GameState updatedState = stateHelper.applyMove(state, move);
+    SearchState updated = new SearchState(updatedState);
+
+    assertEquals(updated.getHash(), searchState.getHash());
+    assertEquals(updated.getToMove(), searchState.getToMove());
+    assertEquals(score + move.getResult().getScore(), searchState.getScore(toMove));
+    assertEquals(updated.getNumTiles(toMove), searchState.getNumTiles(toMove));
+
+    searchState.undoMove();
+
+    assertEquals(hash, searchState.getHash());
+    assertEquals(toMove, searchState.getToMove());
+    assertEquals(score, searchState.getScore(toMove));
+    assertEquals(rackTiles, searchState.getRack().getTiles());
+    assertEquals(0, searchState.getNumMoves());
+    for (int row = 0; row < 4; row++) {
+      assertNull(searchState.getBoard().getSlot(row, 9).getTile());
+    }
+
+    // Moves are played with tiles from the rack in the game state
+    List<Tile> stateRack = state.getRacks().get(state.getMeta().getCurrentMoveUserId());
+    Move gameMove = searchState.toGameMove(move);
+    for (int i = 0; i < move.getTiles().size(); i++) {
+      assertTrue(stateRack.contains(gameMove.getTiles().get(i)));
+      assertEquals(move.getTiles().get(i).getLetter(), gameMove.getTiles().get(i).getLetter());
+    }
+    assertEquals(move.getResult().getScore(), gameMove.getResult().getScore());
+  }
+
+  @Test
+  public void testPlayers() throws IOException, TException {
+    GameState state = loadGameState("TestFixedDepthMoveGenerator.testItsdaman.bin");
+    List<Long> userIds = Lists.newArrayList(state.getMeta().getUsersById().keySet());
+    SearchState searchState = new SearchState(state);
+    int toMove = searchState.getToMove();
+
+    assertEquals(userIds.get(0).longValue(), searchState.getUserId(0));
+    assertEquals(userIds.get(1).longValue(), searchState.getUserId(1));
+    assertEquals(state.getMeta().getCurrentMoveUserId(), searchState.getUserId(toMove));
+    assertEquals(stateHelper.getScore(userIds.get(toMove), state), searchState.getScore(toMove));
+    assertEquals(stateHelper.getScore(userIds.get(1 - toMove), state), searchState.getScore(1 - toMove));
+  }
+}
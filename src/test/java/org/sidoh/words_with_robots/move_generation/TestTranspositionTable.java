@@ -0,0 +1,48 @@
+package org.sidoh.words_with_robots.move_generation;
+
+import org.junit.Test;
+import org.sidoh.words_with_robots.WordsWithRobotsTestCase;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+public class TestTranspositionTable extends WordsWithRobotsTestCase {
+  @Test
+  public void testStoreAndProbe() {
+    TranspositionTable table = new TranspositionTable(4);
+    long hash = 0x123456789abcdefL;
+
+    assertEquals(TranspositionTable.NO_ENTRY, table.probe(hash));
+
+    table.store(hash, -42, TranspositionTable.LOWER_BOUND, 3, 7, true);
+    long entry = table.probe(hash);
+
+    assertEquals(-42, TranspositionTable.getValue(entry));
+    assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.getBound(entry));
+    assertEquals(3, TranspositionTable.getDepth(entry));
+    assertEquals(7, TranspositionTable.getMoveIndex(entry));
+    assertTrue(TranspositionTable.isTerminal(entry));
+
+    // A position that lands on the same slot isn't mistaken for this one
+    assertEquals(TranspositionTable.NO_ENTRY, table.probe(hash + (1 << 4)));
+  }
+
+  @Test
+  public void testDeeperEntriesAreKept() {
+    TranspositionTable table = new TranspositionTable(4);
+    long hash = 99;
+
+    table.store(hash, 10, TranspositionTable.EXACT, 3, -1, false);
+    table.store(hash, 20, TranspositionTable.EXACT, 2, 1, false);
+
+    long entry = table.probe(hash);
+    assertEquals(10, TranspositionTable.getValue(entry));
+    assertEquals(-1, TranspositionTable.getMoveIndex(entry));
+    assertFalse(TranspositionTable.isTerminal(entry));
+
+    // Other positions replace it
+    table.store(hash + (1 << 4), 30, TranspositionTable.UPPER_BOUND, 1, 0, false);
+    assertEquals(TranspositionTable.NO_ENTRY, table.probe(hash));
+  }
+}
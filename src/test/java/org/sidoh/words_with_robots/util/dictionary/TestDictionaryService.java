@@ -0,0 +1,93 @@
+package org.sidoh.words_with_robots.util.dictionary;
+
+import com.google.common.collect.Sets;
+import junit.framework.TestCase;
+import org.sidoh.words_with_robots.data_structures.gaddag.TraversableGadDag;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+public class TestDictionaryService extends TestCase {
+  private static final List<String> WORDS = Arrays.asList(
+    "WONDERFUL", "WONDER", "WHOISTOSAY",
+    "WOID", "VOID", "BRAIN",
+    "BRAINY", "CARE", "CAREEN", "AB"
+  );
+
+  public void testGetWords() throws IOException {
+    TraversableGadDag gaddag = buildGadDag();
+
+    assertEquals(Sets.newTreeSet(WORDS), DictionaryHelper.getWords(gaddag));
+  }
+
+  public void testUpdateSwapsSnapshot() throws IOException, ExecutionException, InterruptedException {
+    TraversableGadDag original = buildGadDag();
+    DictionaryService dictionary = new DictionaryService(original);
+
+    dictionary.removeWords(Arrays.asList("brainy", "AB"));
+    TraversableGadDag updated = dictionary.addWords(Arrays.asList("zax")).get();
+
+    assertSame(updated, dictionary.getSnapshot());
+    assertTrue(updated.isWord("ZAX"));
+    assertTrue(updated.isWord("BRAIN"));
+    assertFalse(updated.isWord("BRAINY"));
+    assertFalse(updated.isWord("AB"));
+
+    // Anything still holding the old snapshot sees the old words
+    assertTrue(original.isWord("BRAINY"));
+    assertFalse(original.isWord("ZAX"));
+
+    dictionary.shutdown();
+  }
+
+  public void testLaterChangesWin() throws IOException, ExecutionException, InterruptedException {
+    DictionaryService dictionary = new DictionaryService(buildGadDag());
+
+    dictionary.addWords(Arrays.asList("ZAX"));
+    dictionary.removeWords(Arrays.asList("ZAX", "VOID"));
+    TraversableGadDag updated = dictionary.addWords(Arrays.asList("VOID")).get();
+
+    assertFalse(updated.isWord("ZAX"));
+    assertTrue(updated.isWord("VOID"));
+
+    dictionary.shutdown();
+  }
+
+  public void testIsWordUsesSnapshot() throws IOException, ExecutionException, InterruptedException {
+    TraversableGadDag original = buildGadDag();
+    DictionaryService dictionary = new DictionaryService(original);
+
+    assertTrue(dictionary.isWord(original, "BRAINY"));
+    TraversableGadDag updated = dictionary.removeWords(Arrays.asList("BRAINY")).get();
+
+    // Moves generated from the old snapshot are still checked against its words
+    assertTrue(dictionary.isWord(original, "BRAINY"));
+    assertFalse(dictionary.isWord(updated, "BRAINY"));
+    assertTrue(dictionary.isWord(updated, "BRAIN"));
+
+    dictionary.shutdown();
+  }
+
+  public void testRejectsUnsupportedWords() throws IOException {
+    DictionaryService dictionary = new DictionaryService(buildGadDag());
+
+    try {
+      dictionary.addWords(Arrays.asList("CAN'T"));
+      fail("should reject words with unsupported letters");
+    }
+    catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  private static TraversableGadDag buildGadDag() throws IOException {
+    StringBuilder wordList = new StringBuilder();
+    for (String word : WORDS) {
+      wordList.append(word).append('\n');
+    }
+    return DictionaryHelper.buildGadDag(new StringReader(wordList.toString()));
+  }
+}